@@ -3,9 +3,12 @@
 package io.github.mmm.sudoku;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.IntPredicate;
 
 import org.slf4j.Logger;
@@ -22,18 +25,23 @@ import io.github.mmm.sudoku.dimension.DimensionType;
 import io.github.mmm.sudoku.dimension.SquareDimension;
 import io.github.mmm.sudoku.event.ChangeAware;
 import io.github.mmm.sudoku.event.SudokuChangeEvent;
+import io.github.mmm.sudoku.event.SudokuChangeEventCandidates;
+import io.github.mmm.sudoku.event.SudokuChangeEventSetValue;
 import io.github.mmm.sudoku.event.SudokuEvent;
 import io.github.mmm.sudoku.event.SudokuEventListener;
 import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.field.FieldState;
 import io.github.mmm.sudoku.history.ChangeSet;
 import io.github.mmm.sudoku.partition.Partition;
 import io.github.mmm.sudoku.partitioning.Box;
 import io.github.mmm.sudoku.partitioning.Column;
 import io.github.mmm.sudoku.partitioning.FlexiblePartitioning.PartitioningFactory;
 import io.github.mmm.sudoku.partitioning.FlexiblePartitioning.RegionFactory;
+import io.github.mmm.sudoku.partitioning.Jigsaw;
 import io.github.mmm.sudoku.partitioning.Partitioning;
 import io.github.mmm.sudoku.partitioning.Row;
 import io.github.mmm.sudoku.partitioning.Sum;
+import io.github.mmm.sudoku.partitioning.Topology;
 import io.github.mmm.sudoku.solution.AbstractHint;
 import io.github.mmm.sudoku.solution.Hint;
 import io.github.mmm.sudoku.solution.HintStep;
@@ -67,17 +75,40 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
 
   private static final Logger LOG = LoggerFactory.getLogger(Sudoku.class);
 
+  private static final int TOPOLOGY_CACHE_SIZE = 64;
+
+  /**
+   * Cache of {@link Topology} per variant (dimension and factories). Only variants with a fixed layout are cached (see
+   * {@link #isCacheable()}).
+   */
+  private static final Map<List<Object>, Topology> TOPOLOGY_CACHE = Collections
+      .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Topology> eldest) {
+
+          return size() > TOPOLOGY_CACHE_SIZE;
+        }
+      });
+
   /** @see #getSize() */
   protected final AbstractDimension dimension;
 
   private final Candidates allCandidates;
 
-  private final Field[][] fields;
+  /** The {@link Field}s indexed by {@link Field#getCell() cell}. */
+  private final Field[] fields;
+
+  private final FieldState state;
 
   private final Partitioning[] partitionings;
 
   private final String type;
 
+  private Topology topology;
+
   private final RegionFactory factory;
 
   private final PartitioningFactory[] factories;
@@ -86,12 +117,16 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
 
   private int modificationCounter;
 
+  private int eliminationCounter;
+
   private int specifiedCandidateCount;
 
   private ChangeSet lastChange;
 
   private List<SudokuChangeEvent<?>> currentChanges;
 
+  private boolean fastMode;
+
   /**
    * The constructor.
    */
@@ -109,39 +144,46 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
    */
   public Sudoku(AbstractDimension dimension, RegionFactory factory, PartitioningFactory... factories) {
 
-    this(null, dimension, factory, factories);
+    this(TOPOLOGY_CACHE.get(getTopologyKey(dimension, factory, factories)), dimension, factory, null, factories);
+    if (this.topology == null) {
+      this.topology = Topology.of(this);
+      if (isCacheable()) {
+        TOPOLOGY_CACHE.put(getTopologyKey(dimension, factory, factories), this.topology);
+      }
+    }
   }
 
   /**
-   * The copy constructor.
+   * The copy constructor. The {@link FieldState} is copied as snapshot via {@link FieldState#FieldState(FieldState)}
+   * instead of replaying each {@link Field} so no events are fired. The {@link Partition#getPartitionMap() partition
+   * maps} of the copy are created lazily from the copied state.
    *
    * @param template the {@link Sudoku} to copy.
    */
   private Sudoku(Sudoku template) {
 
-    this(template, template.dimension, template.factory, template.factories);
-    int size = getSize();
-    for (int x = 1; x <= size; x++) {
-      for (int y = 1; y <= size; y++) {
-        Field myField = this.fields[x - 1][y - 1];
-        Field templateField = template.fields[x - 1][y - 1];
-        myField.setCandidates(templateField.getCandidates());
-        myField.setValue(templateField.getValue(), templateField.isGiven());
-        myField.setSolution(templateField.getValue());
-        // myField.setMarked(templateField.isMarked());
-        myField.setError(templateField.isError());
-      }
-    }
-
+    this(template.getTopology(), template.dimension, template.factory, new FieldState(template.state),
+        template.factories);
+    this.modificationCounter = template.modificationCounter;
+    this.eliminationCounter = template.eliminationCounter;
+    this.specified = template.specified;
+    this.specifiedCandidateCount = template.specifiedCandidateCount;
   }
 
-  private Sudoku(Sudoku template, AbstractDimension dimension, RegionFactory factory,
+  private Sudoku(Topology topology, AbstractDimension dimension, RegionFactory factory, FieldState state,
       PartitioningFactory... factories) {
 
     this.dimension = dimension;
-    int bitMask = (2 << (dimension.getSize() - 1)) - 1;
+    long bitMask = (2L << (dimension.getSize() - 1)) - 1;
     this.allCandidates = Candidates.of(bitMask);
+    if (state == null) {
+      this.state = new FieldState(dimension.getSize() * dimension.getSize(), bitMask);
+    } else {
+      this.state = state;
+    }
     this.fields = createFields();
+    // if topology is given, the partitionings create their partitions from it
+    this.topology = topology;
     this.partitionings = new Partitioning[factories.length + 3];
     int i = 0;
     this.partitionings[i++] = new Column(this);
@@ -150,12 +192,42 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     for (PartitioningFactory pFactory : factories) {
       this.partitionings[i++] = pFactory.create(this, i);
     }
+    initPartitions();
     this.lastChange = new ChangeSet(Collections.emptyList(), null);
-    this.type = computeType();
+    if (topology == null) {
+      this.type = computeType();
+    } else {
+      this.type = topology.getType();
+    }
     this.factory = factory;
     this.factories = factories;
   }
 
+  /**
+   * @return {@code true} if the {@link Topology} shall be cached, {@code false} otherwise. A {@link Jigsaw} or
+   *         {@link Sum} layout is given per board (e.g. generated) by a new factory so it would never be hit again and
+   *         only evict the cached topologies of the fixed variants. Copies still share the {@link Topology}.
+   */
+  private boolean isCacheable() {
+
+    for (Partitioning partitioning : this.partitionings) {
+      if ((partitioning instanceof Jigsaw) || (partitioning instanceof Sum)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<Object> getTopologyKey(AbstractDimension dimension, RegionFactory factory,
+      PartitioningFactory... factories) {
+
+    List<Object> key = new ArrayList<>(factories.length + 2);
+    key.add(dimension);
+    key.add(factory);
+    Collections.addAll(key, factories);
+    return key;
+  }
+
   private String computeType() {
 
     String puzzle = "Sudoku";
@@ -180,6 +252,16 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     return compose(typeName, puzzle);
   }
 
+  /**
+   * @return the immutable {@link Topology} with the static structure of this {@link Sudoku}. It is shared with all
+   *         {@link #copy() copies} and other {@link Sudoku} instances of the same variant. Will only be {@code null}
+   *         during the construction of the first instance of a variant.
+   */
+  public Topology getTopology() {
+
+    return this.topology;
+  }
+
   /**
    * @return the {@link AbstractDimension} of this {@link Sudoku}.
    */
@@ -245,6 +327,15 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     return this.allCandidates;
   }
 
+  /**
+   * @return the {@link FieldState} with the state of all {@link Field}s as flat arrays indexed by
+   *         {@link Field#getCell() cell}.
+   */
+  public FieldState getState() {
+
+    return this.state;
+  }
+
   /**
    * @return {@code true} if all {@link Field#isGiven() given values} have been
    *         {@link #setFieldGivenValue(int, int, int) set} and the {@link Sudoku} puzzle is completely specified,
@@ -264,12 +355,11 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     if (this.specified) {
       return;
     }
-    int size = getSize();
-    int max = size * size;
-    for (int i = 1; i <= max; i++) {
-      Field field = getField(i);
-      if (!field.hasValue()) {
-        this.specifiedCandidateCount += field.getIncludedCandidateCount();
+    int[] values = this.state.getValues();
+    long[] candidates = this.state.getCandidateMasks();
+    for (int cell = 0; cell < values.length; cell++) {
+      if (values[cell] == Field.UNDEFINED) {
+        this.specifiedCandidateCount += Long.bitCount(candidates[cell]);
       }
     }
     this.specified = true;
@@ -282,29 +372,29 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
    */
   public Field getField(int x, int y) {
 
-    if (x - 1 >= this.fields.length) {
+    int size = getSize();
+    if ((x < 1) || (x > size)) {
       throw new IndexOutOfBoundsException(x);
     }
-    if (y - 1 >= this.fields[x - 1].length) {
+    if ((y < 1) || (y > size)) {
       throw new IndexOutOfBoundsException(y);
     }
-    return this.fields[x - 1][y - 1];
+    return this.fields[(y - 1) * size + (x - 1)];
   }
 
   /**
-   * Convenience method to allow iterating over all fields in a linear way.
+   * Convenience method to allow iterating over all fields in a linear way. This is the accessor for hot paths as it is
+   * a plain array access that is only guarded by the bounds check of the JVM (still throwing an
+   * {@link IndexOutOfBoundsException} for an invalid index).
    *
    * @param xy the field index as <code>(y-1) * {@link #getSize() size} + x</code>. Or in other words the index of the
-   *        requested {@link Field} in the range from {@code 1} to {@link #getSize() size}².
+   *        requested {@link Field} in the range from {@code 1} to {@link #getSize() size}² what is the
+   *        {@link Field#getCell() cell} plus one.
    * @return the {@link Field} at the given index.
    */
   public Field getField(int xy) {
 
-    int size = getSize();
-    int i = xy - 1;
-    int x = i % size;
-    int y = i / size;
-    return getField(x + 1, y + 1);
+    return this.fields[xy - 1];
   }
 
   /**
@@ -366,27 +456,21 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     boolean error = false;
     field.setValue(value, given);
     if (value > 0) {
-      for (Partitioning partitioning : this.partitionings) {
-        Partition partition = field.getPartition(partitioning);
-        if (partition != null) {
-          LOG.trace("Updating partition {} of {}", partition.getIndex(), partitioning.getName());
-          for (Field neighbour : partition) {
-            if ((neighbour != field) && neighbour.hasCandidate(value)) {
-              if (neighbour.hasValue()) {
-                error = true;
-                field.setError(error);
-                neighbour.setError(error);
-              } else {
-                neighbour.excludeCandidate(value);
-              }
-            }
+      for (Field neighbour : field.getPeers()) {
+        if (neighbour.hasCandidate(value)) {
+          if (neighbour.hasValue()) {
+            error = true;
+            field.setError(error);
+            neighbour.setError(error);
+          } else {
+            neighbour.excludeCandidate(value);
           }
         }
       }
     }
     endUndoHistory(changeSet);
     if ((changeSet == null) && given) {
-      assert (this.lastChange == null) : "Given clues should be set before actual values!";
+      assert (this.lastChange.getPrevious() == null) : "Given clues should be set before actual values!";
     }
     return error;
   }
@@ -401,22 +485,31 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     int errorCount = 0;
     int remainingCount = 0;
     int candidateCount = this.specifiedCandidateCount;
-    int size = getSize();
-    int max = size * size;
     ChangeSet changeSet = null;
-    for (int i = 1; i <= max; i++) {
-      Field field = getField(i);
-      if (!field.isValid()) {
+    // scan the flat state arrays and only touch the Field in case of an error
+    int[] values = this.state.getValues();
+    int[] solutions = this.state.getSolutions();
+    long[] candidates = this.state.getCandidateMasks();
+    for (int cell = 0; cell < values.length; cell++) {
+      int value = values[cell];
+      int solution = solutions[cell];
+      assert (solution != Field.UNDEFINED);
+      boolean valid;
+      if (value == Field.UNDEFINED) {
+        long bits = candidates[cell];
+        valid = ((bits >>> (solution - 1)) & 1) != 0;
+        remainingCount++;
+        candidateCount -= Long.bitCount(bits);
+      } else {
+        valid = (value == solution);
+      }
+      if (!valid) {
         if (changeSet == null) {
           changeSet = startUndoHistory();
         }
-        field.setError(true);
+        this.fields[cell].setError(true);
         errorCount++;
       }
-      if (!field.hasValue()) {
-        remainingCount++;
-        candidateCount -= field.getIncludedCandidateCount();
-      }
     }
     endUndoHistory(changeSet);
     double progress = candidateCount;
@@ -468,10 +561,49 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     endUndoHistory(changeSet);
   }
 
+  /**
+   * Performs the given {@code operation} as a single change. With history all changes are recorded in a single
+   * {@link ChangeSet} so they can be reverted with a single {@link #undo()}. Without history the changes are applied in
+   * a fast mode that neither creates {@link SudokuChangeEvent}s nor notifies {@link SudokuEventListener}s so listeners
+   * have to refresh afterwards if needed. This is intended for bulk operations such as
+   * {@link SudokuSolver#solveLogically(Sudoku, boolean) solving logically}.
+   *
+   * @param operation the {@link Runnable} performing the changes.
+   * @param withHistory - {@code true} to record the changes as a single {@link ChangeSet}, {@code false} to record
+   *        nothing at all.
+   */
+  public void change(Runnable operation, boolean withHistory) {
+
+    ChangeSet changeSet = null;
+    boolean previousFastMode = this.fastMode;
+    if (withHistory) {
+      changeSet = startUndoHistory();
+    } else if (this.currentChanges == null) {
+      this.fastMode = true; // within a recorded operation we still need the events
+    }
+    try {
+      operation.run();
+    } finally {
+      this.fastMode = previousFastMode;
+      endUndoHistory(changeSet);
+    }
+  }
+
+  /**
+   * Internal method - use only when you know what you are doing.
+   *
+   * @return {@code true} if in fast mode of {@link #change(Runnable, boolean)} without history where no
+   *         {@link SudokuChangeEvent}s shall be created, {@code false} otherwise.
+   */
+  public boolean isFastMode() {
+
+    return this.fastMode;
+  }
+
   private ChangeSet startUndoHistory() {
 
-    if (this.currentChanges != null) {
-      return null; // even history already started (sub-transaction)
+    if ((this.currentChanges != null) || this.fastMode) {
+      return null; // even history already started (sub-transaction) or disabled (fast mode)
     }
     // collect change events in ChangeSet for undo feature
     this.currentChanges = new ArrayList<>();
@@ -494,14 +626,10 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
    */
   public int getValueCount(int value) {
 
-    int size = getSize();
     int valueCount = 0;
-    for (int x = 1; x <= size; x++) {
-      for (int y = 1; y <= size; y++) {
-        Field field = getField(x, y);
-        if (field.getValue() == value) {
-          valueCount++;
-        }
+    for (int fieldValue : this.state.getValues()) {
+      if (fieldValue == value) {
+        valueCount++;
       }
     }
     return valueCount;
@@ -521,6 +649,17 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     return this.modificationCounter;
   }
 
+  /**
+   * @return the total number of {@link Field#getCandidates() candidates} eliminated from {@link Field}s without
+   *         {@link Field#getValue() value} where the candidates of a {@link Field} that gets a value also count as
+   *         eliminated. Will decrease again if candidates are included or values are removed (e.g. via {@link #undo()
+   *         undo}). Only the difference between two invocations is meaningful.
+   */
+  public int getEliminationCounter() {
+
+    return this.eliminationCounter;
+  }
+
   @Override
   public void undo() {
 
@@ -599,18 +738,44 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     return new ArrayIterator<>(this.partitionings);
   }
 
-  private Field[][] createFields() {
+  private Field[] createFields() {
 
     int size = getSize();
-    Field[][] result = new Field[size][size];
-    for (int x = 1; x <= size; x++) {
-      for (int y = 1; y <= size; y++) {
-        result[x - 1][y - 1] = new Field(this, x, y);
+    Field[] result = new Field[size * size];
+    int cell = 0;
+    for (int y = 1; y <= size; y++) {
+      for (int x = 1; x <= size; x++) {
+        result[cell++] = new Field(this, x, y);
       }
     }
     return result;
   }
 
+  private void initPartitions() {
+
+    int partitioningCount = this.partitionings.length;
+    Partition[][] partitions = new Partition[this.fields.length][];
+    int[][] partitionFieldIndexes = new int[this.fields.length][];
+    for (int cell = 0; cell < this.fields.length; cell++) {
+      partitions[cell] = new Partition[partitioningCount];
+      partitionFieldIndexes[cell] = new int[partitioningCount];
+    }
+    for (Partitioning partitioning : this.partitionings) {
+      int partitioningIndex = partitioning.getIndex() - 1;
+      for (Partition partition : partitioning) {
+        int fieldIndex = 1;
+        for (Field field : partition) {
+          int cell = field.getCell();
+          partitions[cell][partitioningIndex] = partition;
+          partitionFieldIndexes[cell][partitioningIndex] = fieldIndex++;
+        }
+      }
+    }
+    for (int cell = 0; cell < this.fields.length; cell++) {
+      this.fields[cell].initPartitions(partitions[cell], partitionFieldIndexes[cell]);
+    }
+  }
+
   /**
    * Internal method - use only when you know what you are doing.
    */
@@ -619,14 +784,62 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
 
     LOG.trace("{}", event);
     if (event instanceof SudokuChangeEvent<?> changeEvent) {
-      this.modificationCounter++;
       if (this.currentChanges != null) {
         this.currentChanges.add(changeEvent);
       }
+      if (event instanceof SudokuChangeEventCandidates candidatesEvent) {
+        Field field = candidatesEvent.getField();
+        onFieldChange(field, field.getValue(), candidatesEvent.getOldCandidates());
+      } else if (event instanceof SudokuChangeEventSetValue valueEvent) {
+        Field field = valueEvent.getField();
+        onFieldChange(field, valueEvent.getOldValue(), field.getCandidates());
+      } else {
+        onFieldStateChange();
+      }
+    }
+    if (this.fastMode) {
+      return false;
     }
     return super.fireEvent(event);
   }
 
+  /**
+   * Internal method - use only when you know what you are doing. Called for every change of the
+   * {@link Field#getValue() value} or {@link Field#getCandidates() candidates} of a {@link Field} that is either
+   * {@link #fireEvent(SudokuEvent) fired} as event or applied directly in {@link #isFastMode() fast mode}.
+   *
+   * @param field the {@link Field} that has changed.
+   * @param oldValue the {@link Field#getValue() value} before the change.
+   * @param oldCandidates the {@link Field#getCandidates() candidates} before the change.
+   */
+  public void onFieldChange(Field field, int oldValue, Candidates oldCandidates) {
+
+    this.modificationCounter++;
+    if (oldValue == Field.UNDEFINED) {
+      this.eliminationCounter += oldCandidates.getInclusionCount();
+    }
+    if (!field.hasValue()) {
+      this.eliminationCounter -= field.getIncludedCandidateCount();
+    }
+    for (int i = 1; i <= this.partitionings.length; i++) {
+      Partition partition = field.getPartition(i);
+      if (partition != null) {
+        partition.onFieldChange(field.getPartitionFieldIndex(i), oldValue, oldCandidates);
+      }
+    }
+  }
+
+  /**
+   * Internal method - use only when you know what you are doing. Called for every change of the
+   * {@link Field#getSolution() solution}, {@link Field#isError() error} or {@link Field#isMarked() marked} state of a
+   * {@link Field} that is either {@link #fireEvent(SudokuEvent) fired} as event or applied directly in
+   * {@link #isFastMode() fast mode}.
+   */
+  public void onFieldStateChange() {
+
+    this.modificationCounter++;
+  }
+
   /**
    * @param candidateFunction the custom {@link Field#hasCandidate(int) candidate function}.
    * @return a {@link String} with the "matrix" of candidates.
@@ -666,6 +879,19 @@ public class Sudoku extends AbstractEventSender<SudokuEvent<?>, SudokuEventListe
     return new Sudoku(this);
   }
 
+  /**
+   * @param partitioningFactory the {@link PartitioningFactory} of the additional {@link Partitioning} (e.g. a
+   *        {@link Sum} layer with the cages of a Killer).
+   * @return a new empty {@link Sudoku} of the same variant as this one with the given additional {@link Partitioning}.
+   */
+  public Sudoku extend(PartitioningFactory partitioningFactory) {
+
+    PartitioningFactory[] newFactories = Arrays.copyOf(this.factories, this.factories.length + 1,
+        PartitioningFactory[].class);
+    newFactories[this.factories.length] = partitioningFactory;
+    return new Sudoku(this.dimension, this.factory, newFactories);
+  }
+
   private static String compose(String s1, String s2) {
 
     if (s1.isEmpty()) {
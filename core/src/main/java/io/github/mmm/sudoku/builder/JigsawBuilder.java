@@ -66,4 +66,15 @@ public class JigsawBuilder extends RegionBuilder {
     return next();
   }
 
+  /**
+   * Use {@link PrimeDimension#D13 13x13}.
+   *
+   * @return the {@link SquareLayerBuilder} for fluent builder API calls.
+   */
+  public SquareLayerBuilder with13x13() {
+
+    this.dim = PrimeDimension.D13;
+    return next();
+  }
+
 }
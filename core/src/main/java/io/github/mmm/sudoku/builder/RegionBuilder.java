@@ -88,6 +88,50 @@ public abstract class RegionBuilder extends IntermediateBuilder<SquareLayerBuild
     return next();
   }
 
+  /**
+   * Set {@link SquareDimension#D25} (25x25).
+   *
+   * @return the {@link SquareLayerBuilder} for fluent builder API calls.
+   */
+  public SquareLayerBuilder with25x25() {
+
+    this.dim = SquareDimension.D25;
+    return next();
+  }
+
+  /**
+   * Set {@link SquareDimension#D36} (36x36).
+   *
+   * @return the {@link SquareLayerBuilder} for fluent builder API calls.
+   */
+  public SquareLayerBuilder with36x36() {
+
+    this.dim = SquareDimension.D36;
+    return next();
+  }
+
+  /**
+   * Set {@link SquareDimension#D49} (49x49).
+   *
+   * @return the {@link SquareLayerBuilder} for fluent builder API calls.
+   */
+  public SquareLayerBuilder with49x49() {
+
+    this.dim = SquareDimension.D49;
+    return next();
+  }
+
+  /**
+   * Set {@link SquareDimension#D64} (64x64).
+   *
+   * @return the {@link SquareLayerBuilder} for fluent builder API calls.
+   */
+  public SquareLayerBuilder with64x64() {
+
+    this.dim = SquareDimension.D64;
+    return next();
+  }
+
   @Override
   protected SquareLayerBuilder next() {
 
@@ -2,25 +2,49 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.common;
 
+import java.util.function.IntConsumer;
+
 import io.github.mmm.sudoku.partition.Partition;
 
 /**
- * Represents any combination of {@link #has(int) candidates} encoded as bits in a single integer value. Bit encoding of
- * {@link #include(int) included candidate} is {@code 1} and {@link #exclude(int) excluded candidates} are stored as
- * {@code 0}.
+ * Represents any combination of {@link #has(int) candidates} encoded as bits in a single {@code long} value. Bit
+ * encoding of {@link #include(int) included candidate} is {@code 1} and {@link #exclude(int) excluded candidates} are
+ * stored as {@code 0}. Therefore candidates from {@code 1} to {@value #MAX_CANDIDATE} are supported what covers all
+ * {@link io.github.mmm.sudoku.dimension.Dimension#getSize() sizes} up to 64x64. All operations are implemented in
+ * constant time via bit operations ({@link Long#numberOfTrailingZeros(long)}, {@link Long#bitCount(long)}) that are JVM
+ * intrinsics and a precomputed select table for {@link #getCandidate(int)}. To iterate the candidates without any
+ * allocation use {@link #forEach(IntConsumer)} or {@link #getNextCandidate(int)}.<br>
+ * {@link Candidates} are immutable flyweights: all instances for sizes up to 9 bits (9x9) are created when this class
+ * is initialized. All 65,536 instances for sizes up to 16 bits (16x16) are created lazily by a holder class on the
+ * first use of more than 9 bits. Both tables are safely published by class initialization so {@link #of(long)} never
+ * allocates for these sizes and is thread-safe without synchronization. Only larger sizes allocate a new instance per
+ * change. For these the primitive {@code long} bit masks of {@link io.github.mmm.sudoku.solution.search.SudokuSearch}
+ * should be used for heavy computations.
  */
 public class Candidates {
 
-  private static final Candidates[] CACHE = new Candidates[512];
+  /** The maximum supported {@link #has(int) candidate}. */
+  public static final int MAX_CANDIDATE = Long.SIZE;
+
+  /** Number of bits of the {@link #SMALL_CACHE}. */
+  private static final int SMALL_CACHE_BITS = 9;
+
+  /** Number of bits of the {@link LargeCache}. */
+  private static final int LARGE_CACHE_BITS = 16;
+
+  private static final Candidates[] SMALL_CACHE = createCache(SMALL_CACHE_BITS);
 
-  private final int bits;
+  /** SELECT[(b &lt;&lt; 3) | k] is the position of the (k+1)-th set bit in the byte b. */
+  private static final byte[] SELECT = createSelectTable();
+
+  private final long bits;
 
   private Candidates() {
 
     this(0);
   }
 
-  private Candidates(int bits) {
+  private Candidates(long bits) {
 
     super();
     this.bits = bits;
@@ -37,10 +61,7 @@ public class Candidates {
    */
   public boolean has(int candidate) {
 
-    if ((candidate < 1) || (candidate > 64)) {
-      throw new IndexOutOfBoundsException(candidate);
-    }
-    return (this.bits & (1L << (candidate - 1))) != 0;
+    return (this.bits & getBitMask(candidate)) != 0;
   }
 
   /**
@@ -49,8 +70,8 @@ public class Candidates {
    */
   public Candidates exclude(int candidate) {
 
-    int bitMask = getBitMask(candidate);
-    int newBits = this.bits & ~bitMask;
+    long bitMask = getBitMask(candidate);
+    long newBits = this.bits & ~bitMask;
     if (newBits == this.bits) {
       return this;
     }
@@ -63,8 +84,8 @@ public class Candidates {
    */
   public Candidates include(int candidate) {
 
-    int bitMask = getBitMask(candidate);
-    int newBits = this.bits | bitMask;
+    long bitMask = getBitMask(candidate);
+    long newBits = this.bits | bitMask;
     if (newBits == this.bits) {
       return this;
     }
@@ -77,18 +98,18 @@ public class Candidates {
    */
   public Candidates flip(int candidate) {
 
-    int bitMask = getBitMask(candidate);
-    int newBits = this.bits ^ bitMask;
+    long bitMask = getBitMask(candidate);
+    long newBits = this.bits ^ bitMask;
     return of(newBits);
   }
 
   /**
    * @return the number of distinct {@link #include(int) included} {@link #has(int) candidates}. In other words the
-   *         {@link Integer#bitCount(int) bit count} of the {@link #getEncodedBitValue() encoded bits}.
+   *         {@link Long#bitCount(long) bit count} of the {@link #getEncodedBitValue() encoded bits}.
    */
   public int getInclusionCount() {
 
-    return Integer.bitCount(this.bits);
+    return Long.bitCount(this.bits);
   }
 
   /**
@@ -98,7 +119,7 @@ public class Candidates {
    */
   public Candidates intersect(Candidates candidates) {
 
-    int newBits = this.bits & candidates.bits;
+    long newBits = this.bits & candidates.bits;
     if (newBits == this.bits) {
       return this;
     } else if (newBits == candidates.bits) {
@@ -114,7 +135,7 @@ public class Candidates {
    */
   public Candidates union(Candidates candidates) {
 
-    int newBits = this.bits | candidates.bits;
+    long newBits = this.bits | candidates.bits;
     if (newBits == this.bits) {
       return this;
     } else if (newBits == candidates.bits) {
@@ -130,7 +151,7 @@ public class Candidates {
    */
   public Candidates exclude(Candidates candidates) {
 
-    int newBits = this.bits & ~candidates.bits;
+    long newBits = this.bits & ~candidates.bits;
     if (newBits == this.bits) {
       return this;
     }
@@ -143,22 +164,24 @@ public class Candidates {
    */
   public int getCandidate(int i) {
 
-    if ((this.bits == 0) || (i < 1)) {
+    if ((i < 1) || (i > Long.bitCount(this.bits))) {
       return -1;
+    } else if (i == 1) {
+      return Long.numberOfTrailingZeros(this.bits) + 1;
     }
-    int result = 1;
-    int myBits = this.bits;
-    while (myBits != 0) {
-      if ((myBits & 1) == 1) {
-        i--;
-        if (i == 0) {
-          return result;
-        }
+    long data = this.bits;
+    int rank = i - 1;
+    int offset = 1;
+    while (true) {
+      int b = (int) data & 0xFF;
+      int count = Integer.bitCount(b);
+      if (rank < count) {
+        return offset + SELECT[(b << 3) | rank];
       }
-      result++;
-      myBits = myBits >> 1;
+      rank -= count;
+      data = data >>> 8;
+      offset += 8;
     }
-    return -1;
   }
 
   /**
@@ -166,7 +189,49 @@ public class Candidates {
    */
   public int getLowestCandidate() {
 
-    return getCandidate(1);
+    if (this.bits == 0) {
+      return -1;
+    }
+    return Long.numberOfTrailingZeros(this.bits) + 1;
+  }
+
+  /**
+   * Cursor to iterate the {@link #has(int) candidates} without allocation:
+   *
+   * <pre>
+   * for (int c = candidates.getNextCandidate(0); c > 0; c = candidates.getNextCandidate(c)) {
+   *   ...
+   * }
+   * </pre>
+   *
+   * @param candidate the previous candidate or {@code 0} to start.
+   * @return the lowest {@link #has(int) candidate} that is greater than the given {@code candidate} or {@code -1} if
+   *         there is no such candidate.
+   */
+  public int getNextCandidate(int candidate) {
+
+    if (candidate < 0) {
+      throw new IndexOutOfBoundsException(candidate);
+    } else if (candidate >= MAX_CANDIDATE) {
+      return -1;
+    }
+    long remaining = this.bits & (-1L << candidate);
+    if (remaining == 0) {
+      return -1;
+    }
+    return Long.numberOfTrailingZeros(remaining) + 1;
+  }
+
+  /**
+   * @param action the {@link IntConsumer} called for each {@link #has(int) candidate} in ascending order.
+   */
+  public void forEach(IntConsumer action) {
+
+    long data = this.bits;
+    while (data != 0) {
+      action.accept(Long.numberOfTrailingZeros(data) + 1);
+      data = data & (data - 1);
+    }
   }
 
   /**
@@ -181,17 +246,17 @@ public class Candidates {
   /**
    * @return the internal bit-encoded value of the {@link #include(int) included} {@link #has(int) candidates}.
    */
-  public int getEncodedBitValue() {
+  public long getEncodedBitValue() {
 
     return this.bits;
   }
 
-  private int getBitMask(int candidate) {
+  private static long getBitMask(int candidate) {
 
-    if ((candidate < 1) || (candidate > 64)) {
+    if ((candidate < 1) || (candidate > MAX_CANDIDATE)) {
       throw new IndexOutOfBoundsException(candidate);
     }
-    return 1 << (candidate - 1);
+    return 1L << (candidate - 1);
   }
 
   /**
@@ -206,17 +271,25 @@ public class Candidates {
    * @param bits the internal {@link #getEncodedBitValue() bit mask}.
    * @return the {@link Candidates} instance for the given bits.
    */
-  public static Candidates of(int bits) {
+  public static Candidates of(long bits) {
 
-    if (bits < 512) {
-      if (CACHE[bits] == null) {
-        CACHE[bits] = new Candidates(bits);
-      }
-      return CACHE[bits];
+    if ((bits >>> SMALL_CACHE_BITS) == 0) {
+      return SMALL_CACHE[(int) bits];
+    } else if ((bits >>> LARGE_CACHE_BITS) == 0) {
+      return LargeCache.CACHE[(int) bits];
     }
     return new Candidates(bits);
   }
 
+  private static Candidates[] createCache(int bitCount) {
+
+    Candidates[] cache = new Candidates[1 << bitCount];
+    for (int bits = 0; bits < cache.length; bits++) {
+      cache[bits] = new Candidates(bits);
+    }
+    return cache;
+  }
+
   /**
    * @param value the single value to {@link #include(int) include}.
    * @return the resulting {@link Candidates}.
@@ -246,17 +319,12 @@ public class Candidates {
    */
   public int[] toIncludedArray() {
 
-    int size = getInclusionCount();
-    int[] result = new int[size];
-    int data = this.bits;
+    int[] result = new int[getInclusionCount()];
+    long data = this.bits;
     int i = 0;
-    int value = 1;
-    while (data > 0) {
-      if ((data & 1) == 1) {
-        result[i++] = value;
-      }
-      value++;
-      data = data >> 1;
+    while (data != 0) {
+      result[i++] = Long.numberOfTrailingZeros(data) + 1;
+      data = data & (data - 1);
     }
     return result;
   }
@@ -268,23 +336,53 @@ public class Candidates {
   public int[] toExcludedArray(int size) {
 
     int[] result = new int[size - getInclusionCount()];
-    int data = this.bits;
-    int i = 0;
-    int value = 1;
-    while (i < result.length) {
-      if ((data & 1) == 0) {
-        result[i++] = value;
-      }
-      value++;
-      data = data >> 1;
+    long data = ~this.bits;
+    for (int i = 0; i < result.length; i++) {
+      result[i] = Long.numberOfTrailingZeros(data) + 1;
+      data = data & (data - 1);
     }
     return result;
   }
 
+  private static byte[] createSelectTable() {
+
+    byte[] table = new byte[256 * 8];
+    for (int b = 0; b < 256; b++) {
+      int k = 0;
+      for (int bit = 0; bit < 8; bit++) {
+        if ((b & (1 << bit)) != 0) {
+          table[(b << 3) | k] = (byte) bit;
+          k++;
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Holder of the {@link Candidates} for up to 16 bits that is only initialized on first access
+   * (initialization-on-demand holder idiom).
+   */
+  private static final class LargeCache {
+
+    private static final Candidates[] CACHE = createLargeCache();
+
+    private static Candidates[] createLargeCache() {
+
+      Candidates[] cache = new Candidates[1 << LARGE_CACHE_BITS];
+      // reuse the small instances so identity is preserved
+      System.arraycopy(SMALL_CACHE, 0, cache, 0, SMALL_CACHE.length);
+      for (int bits = SMALL_CACHE.length; bits < cache.length; bits++) {
+        cache[bits] = new Candidates(bits);
+      }
+      return cache;
+    }
+  }
+
   @Override
   public int hashCode() {
 
-    return this.bits;
+    return Long.hashCode(this.bits);
   }
 
   @Override
@@ -302,22 +400,18 @@ public class Candidates {
   @Override
   public String toString() {
 
-    int data = this.bits;
+    long data = this.bits;
     if (data == 0) {
       return "{}";
     }
     int size = getInclusionCount();
-    StringBuilder sb = new StringBuilder(2 + size * 2);
-    int value = 1;
+    StringBuilder sb = new StringBuilder(2 + size * 3);
     char separator = '{';
-    while (data > 0) {
-      if ((data & 1) == 1) {
-        sb.append(separator);
-        sb.append(value);
-        separator = ',';
-      }
-      value++;
-      data = data >> 1;
+    while (data != 0) {
+      sb.append(separator);
+      sb.append(Long.numberOfTrailingZeros(data) + 1);
+      separator = ',';
+      data = data & (data - 1);
     }
     sb.append('}');
     return sb.toString();
@@ -329,24 +423,21 @@ public class Candidates {
    */
   public String toSumString() {
 
-    int data = this.bits;
+    long data = this.bits;
     if (data == 0) {
       return "=0";
     }
     int size = getInclusionCount();
     int sum = 0;
-    StringBuilder sb = new StringBuilder(2 + size * 2);
-    int value = 1;
-    while (data > 0) {
-      if ((data & 1) == 1) {
-        sb.append(value);
-        sum += value;
-        if (data > 1) {
-          sb.append('+');
-        }
+    StringBuilder sb = new StringBuilder(4 + size * 3);
+    while (data != 0) {
+      int value = Long.numberOfTrailingZeros(data) + 1;
+      sb.append(value);
+      sum += value;
+      data = data & (data - 1);
+      if (data != 0) {
+        sb.append('+');
       }
-      value++;
-      data = data >> 1;
     }
     sb.append('=');
     sb.append(sum);
@@ -53,6 +53,15 @@ public enum Difficulty {
     return this.title;
   }
 
+  /**
+   * @return the minimum score of this {@link Difficulty}.
+   * @see #ofScore(double)
+   */
+  public int getScore() {
+
+    return this.score;
+  }
+
   @Override
   public String toString() {
 
@@ -61,12 +70,13 @@ public enum Difficulty {
 
   /**
    * @param score the computed score.
-   * @return the corresponding {@link Difficulty}.
+   * @return the corresponding {@link Difficulty} that is the highest one with a {@link #getScore() score} less or equal
+   *         to the given {@code score}.
    */
   public static Difficulty ofScore(double score) {
 
     Difficulty[] values = values();
-    for (int i = values.length - 1; i >= 0; i++) {
+    for (int i = values.length - 1; i >= 0; i--) {
       Difficulty difficulty = values[i];
       if (score >= difficulty.score) {
         return difficulty;
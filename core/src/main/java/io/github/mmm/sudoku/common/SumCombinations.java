@@ -2,34 +2,49 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.common;
 
-import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import io.github.mmm.sudoku.dimension.AbstractDimension;
 import io.github.mmm.sudoku.dimension.Dimension;
 import io.github.mmm.sudoku.partition.Partition;
 
 /**
- * Container for all possible sum-combinations for a given {@link Dimension#getSize() size}.
+ * Container for all possible sum-combinations for a given {@link Dimension#getSize() size}. A combination is a set of
+ * distinct values resulting in a specific {@link Partition#getSum() sum} and is represented as bit mask
+ * ({@code 1} &lt;&lt; (value-1)) just like {@link Candidates#getEncodedBitValue() candidates}. The combinations of each
+ * sum and value count are computed only once (eagerly up to {@value #EAGER_SIZE}x{@value #EAGER_SIZE} and on first
+ * access for larger sizes) and are immutable. Therefore a {@link SumCombinations} is thread-safe and should be shared
+ * via {@link #of(int)}. The queries {@link #getUnion(int, int, int)} and {@link #getIntersection(int, int, int)} filter
+ * the combinations by the given candidates without allocating any objects.
  */
 public class SumCombinations {
 
-  private final int size;
+  /** The maximum supported {@link Dimension#getSize() size}. */
+  public static final int MAX_SIZE = Integer.SIZE - 1;
+
+  /** Up to this {@link Dimension#getSize() size} all combinations are computed in advance. */
+  private static final int EAGER_SIZE = 16;
 
-  private final int halfSize;
+  private static final int[] NONE = new int[0];
 
-  private final Combinations[] combinations;
+  private static final SumCombinations[] INSTANCES = new SumCombinations[MAX_SIZE + 1];
 
-  private final int[] sumMin;
+  private final int size;
 
-  private final int[] sumMax;
+  private final int maxSum;
 
-  private final CombinationCollector collector;
+  /** Number of combinations indexed by {@code sum * (size + 1) + valueCount}. */
+  private final int[] combinationCounts;
+
+  /** Combinations indexed by {@code sum * (size + 1) + valueCount}. */
+  private final AtomicReferenceArray<int[]> combinations;
 
   /**
    * The constructor.
    *
    * @param dimension the {@link Dimension}.
+   * @see #of(int)
    */
   public SumCombinations(Dimension dimension) {
 
@@ -40,26 +55,74 @@ public class SumCombinations {
    * The constructor.
    *
    * @param size the {@link Dimension#getSize() size}.
+   * @see #of(int)
    */
   public SumCombinations(int size) {
 
     super();
+    if ((size < 1) || (size > MAX_SIZE)) {
+      throw new IllegalArgumentException("size=" + size);
+    }
     this.size = size;
-    this.halfSize = size / 2;
-    this.combinations = new Combinations[AbstractDimension.gaussianSum(size) - 2];
-    this.collector = new CombinationCollector(size);
-    this.sumMin = new int[size - 1];
-    this.sumMax = new int[this.sumMin.length];
-    int min = 1;
-    int max = size;
-    for (int i = 0; i < this.sumMin.length; i++) {
-      min += i + 2;
-      max += size - i - 1;
-      this.sumMin[i] = min;
-      this.sumMax[i] = max;
+    this.maxSum = AbstractDimension.gaussianSum(size);
+    int length = (this.maxSum + 1) * (size + 1);
+    // dynamic programming: counts of the combinations with values up to "value" for each sum and value count
+    this.combinationCounts = new int[length];
+    this.combinationCounts[0] = 1;
+    for (int value = 1; value <= size; value++) {
+      for (int sum = this.maxSum; sum >= value; sum--) {
+        for (int valueCount = value; valueCount >= 1; valueCount--) {
+          this.combinationCounts[index(sum, valueCount)] += this.combinationCounts[index(sum - value, valueCount - 1)];
+        }
+      }
+    }
+    this.combinations = new AtomicReferenceArray<>(length);
+    if (size <= EAGER_SIZE) {
+      for (int sum = 1; sum <= this.maxSum; sum++) {
+        for (int valueCount = 1; valueCount <= size; valueCount++) {
+          get(sum, valueCount);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param size the {@link Dimension#getSize() size}.
+   * @return the shared {@link SumCombinations} for the given {@code size}.
+   */
+  public static SumCombinations of(int size) {
+
+    if ((size < 1) || (size > MAX_SIZE)) {
+      throw new IllegalArgumentException("size=" + size);
+    }
+    synchronized (INSTANCES) {
+      SumCombinations instance = INSTANCES[size];
+      if (instance == null) {
+        instance = new SumCombinations(size);
+        INSTANCES[size] = instance;
+      }
+      return instance;
     }
   }
 
+  /**
+   * @return the {@link Dimension#getSize() size}.
+   */
+  public int getSize() {
+
+    return this.size;
+  }
+
+  private int index(int sum, int valueCount) {
+
+    return sum * (this.size + 1) + valueCount;
+  }
+
+  private boolean isValid(int sum, int valueCount) {
+
+    return (sum >= 1) && (sum <= this.maxSum) && (valueCount >= 1) && (valueCount <= this.size);
+  }
+
   /**
    * @param sum the {@link Partition#getSum() sum} of the values.
    * @param valueCount the number of distinct values that result in the {@code sum}.
@@ -67,158 +130,140 @@ public class SumCombinations {
    */
   public Set<Candidates> getCombinations(int sum, int valueCount) {
 
-    if ((valueCount < 2) || (valueCount > this.size)) {
+    if ((valueCount < 1) || (valueCount > this.size)) {
       throw new IllegalArgumentException("valueCount=" + valueCount + "(size=" + this.size + ")");
     }
-    if ((sum < 3) || (sum > (this.combinations.length + 3))) {
+    if ((sum < 1) || (sum > this.maxSum)) {
       throw new IllegalArgumentException("sum=" + sum + "(size=" + this.size + ")");
     }
-    Combinations combination = this.combinations[sum - 3];
-    if (combination == null) {
-      combination = computeCombinations(sum);
-      this.combinations[sum - 3] = combination;
-    }
-    while (combination != null) {
-      if (combination.valueCount == valueCount) {
-        return combination.combinations;
-      } else if (valueCount < combination.valueCount) {
-        combination = combination.next;
-      } else {
-        combination = null;
-      }
+    int[] masks = get(sum, valueCount);
+    Candidates[] result = new Candidates[masks.length];
+    for (int i = 0; i < masks.length; i++) {
+      result[i] = Candidates.of(masks[i]);
     }
-    return Set.of();
+    return Set.of(result);
   }
 
-  private Combinations computeCombinations(int sum) {
+  /**
+   * @param sum the {@link Partition#getSum() sum} of the values.
+   * @param valueCount the number of distinct values that result in the {@code sum}.
+   * @return the number of combinations to build the given {@code sum}.
+   */
+  public int getCombinationCount(int sum, int valueCount) {
 
-    Combinations current = null;
-    int valueCount = 2;
-    while ((valueCount <= this.size) && (sum >= this.sumMin[valueCount - 2])) {
-      if (sum <= this.sumMax[valueCount - 2]) {
-        current = computeCombinations(sum, current, valueCount);
-      }
-      valueCount++;
+    if (!isValid(sum, valueCount)) {
+      return 0;
     }
-    return current;
+    return this.combinationCounts[index(sum, valueCount)];
   }
 
-  private Combinations computeCombinations(int sum, Combinations current, int valueCount) {
+  /**
+   * @param sum the {@link Partition#getSum() sum} of the values.
+   * @param valueCount the number of distinct values that result in the {@code sum}.
+   * @param i the index of the requested combination in the range from {@code 0} to
+   *        <code>{@link #getCombinationCount(int, int) getCombinationCount}(sum, valueCount)-1</code>.
+   * @return the requested combination as bit mask. Combinations are ordered ascending by their values.
+   */
+  public int getCombination(int sum, int valueCount, int i) {
 
-    int avg = sum / valueCount;
-    if (avg <= this.halfSize) {
-      computeCombinationsAsc(Candidates.ofNone(), 1, sum, valueCount);
-    } else {
-      computeCombinationsDsc(Candidates.ofNone(), this.size, sum, valueCount);
-    }
-    Set<Candidates> combinationSet = this.collector.toSet();
-    if (!combinationSet.isEmpty()) {
-      current = new Combinations(valueCount, combinationSet, current);
-      this.collector.reset();
-    }
-    return current;
+    return get(sum, valueCount)[i];
   }
 
-  private void computeCombinationsAsc(Candidates combination, int value, int rest, int remainingValues) {
+  /**
+   * @param sum the {@link Partition#getSum() sum} of the values.
+   * @param valueCount the number of distinct values that result in the {@code sum}.
+   * @param candidates the bit mask of the available values.
+   * @return the union of all combinations of {@code valueCount} values resulting in {@code sum} that only contain values
+   *         from the given {@code candidates} or {@code 0} if there is no such combination.
+   */
+  public int getUnion(int sum, int valueCount, int candidates) {
 
-    if (remainingValues == 1) {
-      if (rest <= this.size) {
-        this.collector.add(combination.include(rest));
-      }
-    } else {
-      int recursiveRemaining = remainingValues - 1;
-      int i = value;
-      while (i <= this.size) {
-        int newRest = rest - i;
-        if (newRest <= i) {
+    if (!isValid(sum, valueCount)) {
+      return 0;
+    }
+    int excluded = ~candidates;
+    int union = 0;
+    for (int combination : get(sum, valueCount)) {
+      if ((combination & excluded) == 0) {
+        union = union | combination;
+        if (union == candidates) {
           break;
         }
-        Candidates newCombination = combination.include(i++);
-        computeCombinationsAsc(newCombination, i, newRest, recursiveRemaining);
       }
     }
+    return union;
   }
 
-  private void computeCombinationsDsc(Candidates combination, int value, int rest, int remainingValues) {
+  /**
+   * @param sum the {@link Partition#getSum() sum} of the values.
+   * @param valueCount the number of distinct values that result in the {@code sum}.
+   * @param candidates the bit mask of the available values.
+   * @return the intersection of all combinations of {@code valueCount} values resulting in {@code sum} that only
+   *         contain values from the given {@code candidates} (values required for the {@code sum}) or {@code 0} if there
+   *         is no such combination.
+   */
+  public int getIntersection(int sum, int valueCount, int candidates) {
 
-    if (remainingValues == 1) {
-      if (rest >= 1) {
-        this.collector.add(combination.include(rest));
-      }
-    } else {
-      int recursiveRemaining = remainingValues - 1;
-      int i = value;
-      while (i >= 1) {
-        int newRest = rest - i;
-        if ((recursiveRemaining == 1) && (newRest >= i)) {
+    if (!isValid(sum, valueCount)) {
+      return 0;
+    }
+    int excluded = ~candidates;
+    int intersection = -1;
+    for (int combination : get(sum, valueCount)) {
+      if ((combination & excluded) == 0) {
+        intersection = intersection & combination;
+        if (intersection == 0) {
           break;
         }
-        Candidates newCombination = combination.include(i--);
-        computeCombinationsDsc(newCombination, i, newRest, recursiveRemaining);
       }
     }
-  }
-
-  private static class Combinations {
-
-    private final int valueCount;
-
-    private final Set<Candidates> combinations;
-
-    private final Combinations next;
-
-    private Combinations(int valueCount, Set<Candidates> combinations, Combinations next) {
-
-      super();
-      this.valueCount = valueCount;
-      this.combinations = combinations;
-      this.next = next;
+    if (intersection == -1) {
+      return 0;
     }
+    return intersection;
   }
 
-  private static class CombinationCollector {
-
-    private static final int[] MAX_SUM_COMBINATIONS = { 2, 2, 3, 5, 8, 12, 20, 32, 58, 94, 169, 289, 526, 910, 1667,
-    2934, 5448, 9686, 18084, 32540, 61108, 110780, 208960, 381676, 723354 };
-
-    private final Candidates[] combinations;
-
-    private int i;
+  private int[] get(int sum, int valueCount) {
 
-    private CombinationCollector(int size) {
-
-      super();
-      // nobody will seriously want to play SumDoku larger than 16x16 so array out of bounds exception will not harm
-      int maxLength = MAX_SUM_COMBINATIONS[size - 4];
-      this.combinations = new Candidates[maxLength];
+    if (!isValid(sum, valueCount)) {
+      return NONE;
     }
-
-    public void add(Candidates combination) {
-
-      this.combinations[this.i++] = combination;
+    int index = index(sum, valueCount);
+    int[] result = this.combinations.get(index);
+    if (result == null) {
+      // concurrent computation is harmless as the result is always the same
+      result = new int[this.combinationCounts[index]];
+      if (result.length > 0) {
+        collect(result, 0, 0, 1, sum, valueCount);
+      }
+      this.combinations.set(index, result);
     }
+    return result;
+  }
 
-    public void reset() {
+  private int collect(int[] result, int i, int combination, int value, int rest, int remainingValues) {
 
-      this.i = 0;
+    if (remainingValues == 0) {
+      if (rest == 0) {
+        result[i++] = combination;
+      }
+      return i;
     }
-
-    public Set<Candidates> toSet() {
-
-      if (this.i == 0) {
-        return Set.of();
-      } else if (this.i == 1) {
-        return Set.of(this.combinations[0]);
-      } else if (this.i == 2) {
-        return Set.of(this.combinations[0], this.combinations[1]);
-      } else if (this.i == 3) {
-        return Set.of(this.combinations[0], this.combinations[1], this.combinations[2]);
-      } else if (this.i == this.combinations.length) {
-        return Set.of(this.combinations);
-      } else {
-        return Set.of(Arrays.copyOf(this.combinations, this.i));
+    // sum of the largest remaining values
+    int highest = remainingValues * this.size - AbstractDimension.gaussianSum(remainingValues - 1);
+    if (rest > highest) {
+      return i;
+    }
+    int next = i;
+    for (int v = value; v <= this.size; v++) {
+      // sum of the smallest remaining values starting with v
+      int lowest = remainingValues * v + AbstractDimension.gaussianSum(remainingValues - 1);
+      if (lowest > rest) {
+        break;
       }
+      next = collect(result, next, combination | (1 << (v - 1)), v + 1, rest - v, remainingValues - 1);
     }
+    return next;
   }
 
 }
@@ -39,6 +39,24 @@ public final class PrimeDimension extends AbstractDimension {
   /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 37}. */
   public static final PrimeDimension D37 = new PrimeDimension(37);
 
+  /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 41}. */
+  public static final PrimeDimension D41 = new PrimeDimension(41);
+
+  /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 43}. */
+  public static final PrimeDimension D43 = new PrimeDimension(43);
+
+  /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 47}. */
+  public static final PrimeDimension D47 = new PrimeDimension(47);
+
+  /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 53}. */
+  public static final PrimeDimension D53 = new PrimeDimension(53);
+
+  /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 59}. */
+  public static final PrimeDimension D59 = new PrimeDimension(59);
+
+  /** {@link PrimeDimension} for with {@link #getSize() size} of {@code 61}. */
+  public static final PrimeDimension D61 = new PrimeDimension(61);
+
   private PrimeDimension(int size) {
 
     this(size, null);
@@ -22,6 +22,18 @@ public final class SquareDimension extends AbstractDimension {
   /** {@link SquareDimension} for with {@link #getBoxSize() box-size} of {@code 4} for a 16x16 {@link Sudoku}. */
   public static final SquareDimension D16 = new SquareDimension(4);
 
+  /** {@link SquareDimension} for with {@link #getBoxSize() box-size} of {@code 5} for a 25x25 {@link Sudoku}. */
+  public static final SquareDimension D25 = new SquareDimension(5);
+
+  /** {@link SquareDimension} for with {@link #getBoxSize() box-size} of {@code 6} for a 36x36 {@link Sudoku}. */
+  public static final SquareDimension D36 = new SquareDimension(6);
+
+  /** {@link SquareDimension} for with {@link #getBoxSize() box-size} of {@code 7} for a 49x49 {@link Sudoku}. */
+  public static final SquareDimension D49 = new SquareDimension(7);
+
+  /** {@link SquareDimension} for with {@link #getBoxSize() box-size} of {@code 8} for a 64x64 {@link Sudoku}. */
+  public static final SquareDimension D64 = new SquareDimension(8);
+
   private SquareDimension(int boxSize) {
 
     this(boxSize, null);
@@ -23,6 +23,7 @@ import io.github.mmm.sudoku.partition.Partition;
 import io.github.mmm.sudoku.partitioning.Hyper;
 import io.github.mmm.sudoku.partitioning.Partitioning;
 import io.github.mmm.sudoku.partitioning.Percent;
+import io.github.mmm.sudoku.partitioning.Topology;
 import io.github.mmm.sudoku.partitioning.X;
 import io.github.mmm.sudoku.style.BorderStyle;
 import io.github.mmm.sudoku.style.BorderType;
@@ -30,7 +31,9 @@ import io.github.mmm.sudoku.style.ColorType;
 
 /**
  * Represents a single {@link Field} of the {@link Sudoku} puzzle. It can either have a {@link #getValue() value} filled
- * (if not {@code -1}) or represent a list of {@link #hasCandidate(int) candidates}.
+ * (if not {@code -1}) or represent a list of {@link #hasCandidate(int) candidates}. The mutable state is not stored in
+ * the {@link Field} itself but in the {@link FieldState} of the {@link Sudoku} so a {@link Field} is only a view on its
+ * {@link #getCell() cell}.
  */
 public final class Field extends SudokuChildObject {
 
@@ -43,21 +46,23 @@ public final class Field extends SudokuChildObject {
 
   private final int y;
 
-  private Partition[] partitions;
+  private final int cell;
 
-  private boolean given;
+  private final FieldState state;
 
-  private List<String> styles;
+  /** {@link FieldState#getValues()} cached to save an indirection on the hot path. */
+  private final int[] values;
 
-  private int value;
+  /** {@link FieldState#getCandidateMasks()} cached to save an indirection on the hot path. */
+  private final long[] candidates;
 
-  private int solution;
+  private Partition[] partitions;
 
-  private Candidates candidates;
+  private int[] partitionFieldIndexes;
 
-  private boolean error;
+  private Field[] peers;
 
-  private boolean marked;
+  private List<String> styles;
 
   /**
    * The constructor.
@@ -71,9 +76,10 @@ public final class Field extends SudokuChildObject {
     super(sudoku);
     this.x = x;
     this.y = y;
-    this.value = UNDEFINED;
-    this.solution = UNDEFINED;
-    this.candidates = sudoku.getAllCandidates();
+    this.cell = (y - 1) * sudoku.getSize() + (x - 1);
+    this.state = sudoku.getState();
+    this.values = this.state.getValues();
+    this.candidates = this.state.getCandidateMasks();
   }
 
   private boolean fireEvent(SudokuEvent<?> event) {
@@ -100,32 +106,65 @@ public final class Field extends SudokuChildObject {
    */
   public Partition getPartition(int partitioningIndex) {
 
-    if ((partitioningIndex < 1) || (partitioningIndex > this.sudoku.getPartitioningCount())) {
-      throw new IndexOutOfBoundsException(partitioningIndex);
-    }
-    if (this.partitions == null) {
-      initPartitions();
-    }
+    // the array bounds check of the JVM already throws IndexOutOfBoundsException for an invalid index
     return this.partitions[partitioningIndex - 1];
   }
 
-  private void initPartitions() {
+  /**
+   * @param partitioningIndex the {@link Partitioning}-{@link Partitioning#getIndex() index}.
+   * @return the {@link Partition#getField(int) field index} of this {@link Field} within its
+   *         {@link #getPartition(int) partition} of the given {@link Partitioning} or {@code 0} if no such
+   *         {@link Partition} exists.
+   */
+  public int getPartitionFieldIndex(int partitioningIndex) {
 
-    int partitioningCount = this.sudoku.getPartitioningCount();
-    for (Partitioning partitioning : this.sudoku) {
-      LOG.debug("Initializing partitions for {}", partitioning.getName());
-      int partitioningIndex = partitioning.getIndex();
-      for (Partition partition : partitioning) {
-        LOG.debug("Initializing partition {}", partition);
-        for (Field field : partition) {
-          LOG.debug("Initializing {}", field);
-          if (field.partitions == null) {
-            field.partitions = new Partition[partitioningCount];
-          }
-          field.partitions[partitioningIndex - 1] = partition;
-        }
+    return this.partitionFieldIndexes[partitioningIndex - 1];
+  }
+
+  /**
+   * Internal method - use only when you know what you are doing. Called once by the {@link Sudoku} after all
+   * {@link Partitioning}s have been created.
+   *
+   * @param fieldPartitions the {@link #getPartition(int) partitions} indexed by {@link Partitioning#getIndex()
+   *        partitioning index} minus one.
+   * @param fieldIndexes the {@link #getPartitionFieldIndex(int) partition field indexes} indexed by
+   *        {@link Partitioning#getIndex() partitioning index} minus one.
+   */
+  public void initPartitions(Partition[] fieldPartitions, int[] fieldIndexes) {
+
+    if (this.partitions != null) {
+      throw new IllegalStateException("Partitions already initialized for " + this);
+    }
+    this.partitions = fieldPartitions;
+    this.partitionFieldIndexes = fieldIndexes;
+  }
+
+  /**
+   * @return the distinct {@link Field}s sharing at least one {@link Partition} with this {@link Field} (excluding this
+   *         {@link Field} itself). Do not modify the array.
+   * @see Topology#getPeers(int)
+   */
+  public Field[] getPeers() {
+
+    if (this.peers == null) {
+      Topology topology = this.sudoku.getTopology();
+      int[] cells = topology.getPeers(topology.getCell(this));
+      Field[] fields = new Field[cells.length];
+      for (int i = 0; i < cells.length; i++) {
+        fields[i] = this.sudoku.getField(cells[i] + 1);
       }
+      this.peers = fields;
     }
+    return this.peers;
+  }
+
+  /**
+   * @return the index of the cell of this {@link Field} in the {@link FieldState} and the {@link Topology}.
+   * @see Topology#getCell(Field)
+   */
+  public int getCell() {
+
+    return this.cell;
   }
 
   /**
@@ -150,7 +189,12 @@ public final class Field extends SudokuChildObject {
   public List<String> getStyles() {
 
     if (this.styles == null) {
-      initStyles();
+      Topology topology = this.sudoku.getTopology();
+      if (topology == null) {
+        initStyles();
+      } else {
+        this.styles = topology.getStyles(topology.getCell(this));
+      }
     }
     return this.styles;
   }
@@ -281,7 +325,7 @@ public final class Field extends SudokuChildObject {
    */
   public Candidates getCandidates() {
 
-    return this.candidates;
+    return Candidates.of(this.candidates[this.cell]);
   }
 
   /**
@@ -290,13 +334,18 @@ public final class Field extends SudokuChildObject {
    */
   public boolean setCandidates(Candidates candidates) {
 
-    if (this.candidates.getEncodedBitValue() == candidates.getEncodedBitValue()) {
+    long oldBits = this.candidates[this.cell];
+    if (oldBits == candidates.getEncodedBitValue()) {
       LOG.trace("No change for setCandidates in {}", this);
       return false;
     }
-    SudokuChangeEventCandidates event = new SudokuChangeEventCandidates(this, this.candidates, candidates);
-    this.candidates = candidates;
-    fireEvent(event);
+    Candidates oldCandidates = Candidates.of(oldBits);
+    this.candidates[this.cell] = candidates.getEncodedBitValue();
+    if (this.sudoku.isFastMode()) {
+      this.sudoku.onFieldChange(this, this.values[this.cell], oldCandidates);
+    } else {
+      fireEvent(new SudokuChangeEventCandidates(this, oldCandidates, candidates));
+    }
     return true;
   }
 
@@ -306,13 +355,15 @@ public final class Field extends SudokuChildObject {
    */
   public boolean hasCandidate(int candidate) {
 
-    if (this.value > 0) {
-      return (this.value == candidate);
+    int value = this.values[this.cell];
+    if (value > 0) {
+      return (value == candidate);
     }
-    if (candidate <= 0) {
+    if ((candidate <= 0) || (candidate > Candidates.MAX_CANDIDATE)) {
       return false;
     }
-    return this.candidates.has(candidate);
+    // test the mask directly as Candidates.of(long) allocates for large sizes
+    return (this.candidates[this.cell] & (1L << (candidate - 1))) != 0;
   }
 
   /**
@@ -322,9 +373,9 @@ public final class Field extends SudokuChildObject {
    */
   public boolean hasAtLeastOneCandidateOf(Candidates other) {
 
-    // candidates = {3,4}, other = {1,2,3} -> exclusion = {4} != candidates
-    // candidates = {4,5}, other = {1,2,3} -> exclusion = {4,5} == candidates
-    return (this.candidates != this.candidates.exclude(other));
+    // candidates = {3,4}, other = {1,2,3} -> intersection = {3}
+    // candidates = {4,5}, other = {1,2,3} -> intersection = {}
+    return (this.candidates[this.cell] & other.getEncodedBitValue()) != 0;
   }
 
   /**
@@ -334,10 +385,9 @@ public final class Field extends SudokuChildObject {
    */
   public boolean hasOtherCandidatesThan(Candidates other) {
 
-    // candidates = {3,4}, other = {1,2,3}, union = {1,2,3,4} != other
-    // candidates = {2,3}, other = {1,2,3}, union = {1,2,3} == other
-
-    return (other != this.candidates.union(other));
+    // candidates = {3,4}, other = {1,2,3} -> exclusion = {4}
+    // candidates = {2,3}, other = {1,2,3} -> exclusion = {}
+    return (this.candidates[this.cell] & ~other.getEncodedBitValue()) != 0;
   }
 
   /**
@@ -347,7 +397,7 @@ public final class Field extends SudokuChildObject {
   public boolean excludeCandidate(int candidate) {
 
     validateValue(candidate);
-    return setCandidates(this.candidates.exclude(candidate));
+    return setCandidates(getCandidates().exclude(candidate));
   }
 
   /**
@@ -357,7 +407,7 @@ public final class Field extends SudokuChildObject {
   public boolean includeCandidate(int candidate) {
 
     validateValue(candidate);
-    return setCandidates(this.candidates.include(candidate));
+    return setCandidates(getCandidates().include(candidate));
   }
 
   /**
@@ -365,7 +415,7 @@ public final class Field extends SudokuChildObject {
    */
   public void toggleCandidate(int candidate) {
 
-    setCandidates(this.candidates.flip(candidate));
+    setCandidates(getCandidates().flip(candidate));
   }
 
   /**
@@ -383,7 +433,7 @@ public final class Field extends SudokuChildObject {
    */
   public int getIncludedCandidateCount() {
 
-    return this.candidates.getInclusionCount();
+    return Long.bitCount(this.candidates[this.cell]);
   }
 
   /**
@@ -392,8 +442,9 @@ public final class Field extends SudokuChildObject {
    */
   public int getSingle() {
 
-    if (this.candidates.getInclusionCount() == 1) {
-      return this.candidates.getLowestCandidate();
+    long bits = this.candidates[this.cell];
+    if (Long.bitCount(bits) == 1) {
+      return Long.numberOfTrailingZeros(bits) + 1;
     }
     return UNDEFINED;
   }
@@ -408,7 +459,7 @@ public final class Field extends SudokuChildObject {
    */
   public int getValue() {
 
-    return this.value;
+    return this.values[this.cell];
   }
 
   /**
@@ -416,7 +467,7 @@ public final class Field extends SudokuChildObject {
    */
   public boolean hasValue() {
 
-    return (this.value != UNDEFINED);
+    return (this.values[this.cell] != UNDEFINED);
   }
 
   /**
@@ -441,18 +492,22 @@ public final class Field extends SudokuChildObject {
    */
   public boolean setValue(int value, boolean given) {
 
-    if ((this.value == value) && (this.given == given)) {
+    int oldValue = this.values[this.cell];
+    if ((oldValue == value) && (this.state.isGiven(this.cell) == given)) {
       LOG.trace("No change for setValue in {}", this);
       return false;
     }
     validateValue(value, !given);
-    int oldValue = this.value;
-    this.value = value;
+    this.values[this.cell] = value;
     if (given) {
-      this.given = true;
-      this.solution = value;
+      this.state.setGiven(this.cell, true);
+      this.state.setSolution(this.cell, value);
+    }
+    if (this.sudoku.isFastMode()) {
+      this.sudoku.onFieldChange(this, oldValue, getCandidates());
+    } else {
+      fireEvent(new SudokuChangeEventSetValue(this, oldValue, value));
     }
-    fireEvent(new SudokuChangeEventSetValue(this, oldValue, value));
     return true;
   }
 
@@ -461,7 +516,7 @@ public final class Field extends SudokuChildObject {
    */
   public int getSolution() {
 
-    return this.solution;
+    return this.state.getSolution(this.cell);
   }
 
   /**
@@ -470,14 +525,18 @@ public final class Field extends SudokuChildObject {
    */
   public boolean setSolution(int solution) {
 
-    if (this.solution == solution) {
+    int oldSolution = this.state.getSolution(this.cell);
+    if (oldSolution == solution) {
       LOG.trace("No change for setSolution in {}", this);
       return false;
     }
     validateValue(solution, true);
-    int oldSolution = this.solution;
-    this.solution = solution;
-    fireEvent(new SudokuChangeEventSetSolution(this, oldSolution, solution));
+    this.state.setSolution(this.cell, solution);
+    if (this.sudoku.isFastMode()) {
+      this.sudoku.onFieldStateChange();
+    } else {
+      fireEvent(new SudokuChangeEventSetSolution(this, oldSolution, solution));
+    }
     return true;
   }
 
@@ -499,7 +558,7 @@ public final class Field extends SudokuChildObject {
    */
   public boolean hasSolution() {
 
-    return (this.solution != UNDEFINED);
+    return (this.state.getSolution(this.cell) != UNDEFINED);
   }
 
   /**
@@ -508,7 +567,7 @@ public final class Field extends SudokuChildObject {
    */
   public boolean isGiven() {
 
-    return this.given;
+    return this.state.isGiven(this.cell);
   }
 
   /**
@@ -517,10 +576,12 @@ public final class Field extends SudokuChildObject {
   public boolean isValid() {
 
     assert hasSolution();
-    if (hasValue()) {
-      return (this.value == this.solution);
+    int solution = this.state.getSolution(this.cell);
+    int value = this.values[this.cell];
+    if (value != UNDEFINED) {
+      return (value == solution);
     } else {
-      return this.candidates.has(this.solution);
+      return (this.candidates[this.cell] & (1L << (solution - 1))) != 0;
     }
   }
 
@@ -530,7 +591,7 @@ public final class Field extends SudokuChildObject {
    */
   public boolean isError() {
 
-    return this.error;
+    return this.state.isError(this.cell);
   }
 
   /**
@@ -541,12 +602,16 @@ public final class Field extends SudokuChildObject {
    */
   public boolean setError(boolean error) {
 
-    if (this.error == error) {
+    if (this.state.isError(this.cell) == error) {
       LOG.trace("No change for setError in {}", this);
       return false;
     }
-    this.error = error;
-    fireEvent(new SudokuChangeEventSetError(this));
+    this.state.setError(this.cell, error);
+    if (this.sudoku.isFastMode()) {
+      this.sudoku.onFieldStateChange();
+    } else {
+      fireEvent(new SudokuChangeEventSetError(this));
+    }
     return true;
   }
 
@@ -556,7 +621,7 @@ public final class Field extends SudokuChildObject {
    */
   public boolean isMarked() {
 
-    return this.marked;
+    return this.state.isMarked(this.cell);
   }
 
   /**
@@ -565,11 +630,15 @@ public final class Field extends SudokuChildObject {
    */
   public boolean setMarked(boolean marked) {
 
-    if (this.marked == marked) {
+    if (this.state.isMarked(this.cell) == marked) {
       return false;
     }
-    this.marked = marked;
-    fireEvent(new SudokuChangeEventSetMarked(this));
+    this.state.setMarked(this.cell, marked);
+    if (this.sudoku.isFastMode()) {
+      this.sudoku.onFieldStateChange();
+    } else {
+      fireEvent(new SudokuChangeEventSetMarked(this));
+    }
     return true;
   }
 
@@ -601,12 +670,12 @@ public final class Field extends SudokuChildObject {
     sb.append("Field ");
     appendCoordinates(sb);
     sb.append(" value=");
-    appendValue(this.value, sb);
+    appendValue(getValue(), sb);
     sb.append(" solution=");
-    appendValue(this.solution, sb);
+    appendValue(getSolution(), sb);
     sb.append(" candidates=");
-    sb.append(this.candidates);
-    if (this.error) {
+    sb.append(getCandidates());
+    if (isError()) {
       sb.append(" error!");
     }
     return sb.toString();
@@ -0,0 +1,198 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.field;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.Candidates;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Store for the mutable state of all {@link Field}s of a {@link Sudoku} in flat primitive arrays indexed by cell (see
+ * {@link Topology#getCell(Field)}). A {@link Field} is only a view on its cell of this store so search and propagation
+ * code can read the state of the entire {@link Sudoku} from the arrays directly (e.g. {@link #getValues()}) without
+ * chasing pointers. A snapshot is created via the {@link #FieldState(FieldState) copy constructor} using
+ * {@link System#arraycopy(Object, int, Object, int, int)}.<br>
+ * <b>ATTENTION:</b> The state is only modified via {@link Field} so events are fired and the {@link Sudoku} stays
+ * consistent. Never modify the arrays returned by the getters.
+ */
+public final class FieldState {
+
+  private static final byte FLAG_GIVEN = 1;
+
+  private static final byte FLAG_ERROR = 2;
+
+  private static final byte FLAG_MARKED = 4;
+
+  private final int cellCount;
+
+  private final int[] values;
+
+  private final int[] solutions;
+
+  private final long[] candidates;
+
+  private final byte[] flags;
+
+  /**
+   * The constructor.
+   *
+   * @param cellCount the {@link #getCellCount() cell count}.
+   * @param allCandidates the {@link Candidates#getEncodedBitValue() bit mask} with all candidates each cell initially
+   *        has.
+   */
+  public FieldState(int cellCount, long allCandidates) {
+
+    super();
+    this.cellCount = cellCount;
+    this.values = new int[cellCount];
+    this.solutions = new int[cellCount];
+    this.candidates = new long[cellCount];
+    this.flags = new byte[cellCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      this.values[cell] = Field.UNDEFINED;
+      this.solutions[cell] = Field.UNDEFINED;
+      this.candidates[cell] = allCandidates;
+    }
+  }
+
+  /**
+   * The copy constructor to create a snapshot. The {@link #isMarked(int) marked} flags are only used for visualisation
+   * and are therefore not copied.
+   *
+   * @param template the {@link FieldState} to copy.
+   */
+  public FieldState(FieldState template) {
+
+    super();
+    this.cellCount = template.cellCount;
+    this.values = new int[this.cellCount];
+    this.solutions = new int[this.cellCount];
+    this.candidates = new long[this.cellCount];
+    this.flags = new byte[this.cellCount];
+    System.arraycopy(template.values, 0, this.values, 0, this.cellCount);
+    System.arraycopy(template.solutions, 0, this.solutions, 0, this.cellCount);
+    System.arraycopy(template.candidates, 0, this.candidates, 0, this.cellCount);
+    System.arraycopy(template.flags, 0, this.flags, 0, this.cellCount);
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      this.flags[cell] = (byte) (this.flags[cell] & ~FLAG_MARKED);
+    }
+  }
+
+  /**
+   * @return the number of cells what is {@link Sudoku#getSize() size}².
+   */
+  public int getCellCount() {
+
+    return this.cellCount;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the {@link Field#getValue() value} of the given cell.
+   */
+  public int getValue(int cell) {
+
+    return this.values[cell];
+  }
+
+  /**
+   * @return the {@link Field#getValue() values} indexed by cell. Do not modify the array.
+   */
+  public int[] getValues() {
+
+    return this.values;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the {@link Field#getSolution() solution} of the given cell.
+   */
+  public int getSolution(int cell) {
+
+    return this.solutions[cell];
+  }
+
+  void setSolution(int cell, int solution) {
+
+    this.solutions[cell] = solution;
+  }
+
+  /**
+   * @return the {@link Field#getSolution() solutions} indexed by cell. Do not modify the array.
+   */
+  public int[] getSolutions() {
+
+    return this.solutions;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the {@link Field#getCandidates() candidates} of the given cell as {@link Candidates#getEncodedBitValue()
+   *         bit mask}.
+   */
+  public long getCandidates(int cell) {
+
+    return this.candidates[cell];
+  }
+
+  /**
+   * @return the {@link Field#getCandidates() candidates} as {@link Candidates#getEncodedBitValue() bit masks} indexed
+   *         by cell. Do not modify the array.
+   */
+  public long[] getCandidateMasks() {
+
+    return this.candidates;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the {@link Field#isGiven() given flag} of the given cell.
+   */
+  public boolean isGiven(int cell) {
+
+    return (this.flags[cell] & FLAG_GIVEN) != 0;
+  }
+
+  void setGiven(int cell, boolean given) {
+
+    setFlag(cell, FLAG_GIVEN, given);
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the {@link Field#isError() error flag} of the given cell.
+   */
+  public boolean isError(int cell) {
+
+    return (this.flags[cell] & FLAG_ERROR) != 0;
+  }
+
+  void setError(int cell, boolean error) {
+
+    setFlag(cell, FLAG_ERROR, error);
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the {@link Field#isMarked() marked flag} of the given cell.
+   */
+  public boolean isMarked(int cell) {
+
+    return (this.flags[cell] & FLAG_MARKED) != 0;
+  }
+
+  void setMarked(int cell, boolean marked) {
+
+    setFlag(cell, FLAG_MARKED, marked);
+  }
+
+  private void setFlag(int cell, byte flag, boolean set) {
+
+    if (set) {
+      this.flags[cell] = (byte) (this.flags[cell] | flag);
+    } else {
+      this.flags[cell] = (byte) (this.flags[cell] & ~flag);
+    }
+  }
+
+}
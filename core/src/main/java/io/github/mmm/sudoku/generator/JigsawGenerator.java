@@ -0,0 +1,369 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.dimension.AbstractDimension;
+import io.github.mmm.sudoku.partition.Shape;
+import io.github.mmm.sudoku.partitioning.Jigsaw;
+import io.github.mmm.sudoku.partitioning.Topology;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+
+/**
+ * Generator for random {@link Jigsaw} layouts. Starts from the regular {@link AbstractDimension#getBox() boxes} (for
+ * {@link io.github.mmm.sudoku.dimension.PrimeDimension prime dimensions} these are stripes) and applies random moves
+ * where a cell of one region is exchanged with a cell of a neighbouring region. Each region is kept as a bit mask per
+ * row so a move is validated in {@code O(size)} without any allocation: every row of a region has to be a single
+ * contiguous run (as required by {@link Shape}), the rows have to be consecutive and the runs of adjacent rows have to
+ * overlap (bitmask flood fill that is connected exactly if every row is reached from the previous one).<br>
+ * Layouts where a region is identical to a row or column are rejected as degenerated since the region would not add
+ * any constraint. Finally the layout is rejected unless a {@link SudokuSearch} quickly solves the empty board. As
+ * such searches are heavy-tailed, many short searches with random restarts are used instead of a single long one.
+ * Candidate layouts are checked on a {@link Topology} derived via {@link Topology#withUnits(int, int[][])} so only
+ * accepted layouts are built as {@link Sudoku}. If no layout is accepted within the {@link #getMaxAttempts() maximum
+ * attempts} an {@link IllegalStateException} is thrown. The resulting {@link Shape}s are ordered as expected by
+ * {@link Sudoku#builder()}.<br>
+ * The generation is reproducible: the same {@link SplittableRandom} seed always results in the same layout. A
+ * {@link JigsawGenerator} is thread-safe.
+ */
+public class JigsawGenerator {
+
+  /** Number of successful moves per cell to shuffle the initial layout. */
+  private static final int MOVES_PER_CELL = 4;
+
+  /** Maximum nodes per cell for the {@link SudokuSearch} to find a solution of the empty board. */
+  private static final int NODES_PER_CELL = 2;
+
+  /** Number of restarts of the {@link SudokuSearch} with a different random order before a layout is rejected. */
+  private static final int RESTARTS = 32;
+
+  /** Default for {@link #getMaxAttempts()}. */
+  private static final int DEFAULT_MAX_ATTEMPTS = 100;
+
+  /** {@link io.github.mmm.sudoku.partitioning.Partitioning#getIndex() Index} of the {@link Jigsaw} partitioning. */
+  private static final int JIGSAW_INDEX = 3;
+
+  private final AbstractDimension dimension;
+
+  private final int size;
+
+  private final int cellCount;
+
+  private final int[] initialRegions;
+
+  private final Topology topology;
+
+  private final int maxAttempts;
+
+  /**
+   * The constructor.
+   *
+   * @param dimension the {@link AbstractDimension} of the {@link Jigsaw} {@link Sudoku} to generate. Shall be
+   *        {@link io.github.mmm.sudoku.dimension.SquareDimension square} or
+   *        {@link io.github.mmm.sudoku.dimension.PrimeDimension prime}.
+   */
+  public JigsawGenerator(AbstractDimension dimension) {
+
+    this(dimension, DEFAULT_MAX_ATTEMPTS);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param dimension the {@link AbstractDimension} of the {@link Jigsaw} {@link Sudoku} to generate. Shall be
+   *        {@link io.github.mmm.sudoku.dimension.SquareDimension square} or
+   *        {@link io.github.mmm.sudoku.dimension.PrimeDimension prime}.
+   * @param maxAttempts the {@link #getMaxAttempts() maximum attempts}.
+   */
+  public JigsawGenerator(AbstractDimension dimension, int maxAttempts) {
+
+    super();
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive:" + maxAttempts);
+    }
+    this.dimension = dimension;
+    this.maxAttempts = maxAttempts;
+    this.size = dimension.getSize();
+    if (this.size > Integer.SIZE - 1) {
+      throw new IllegalArgumentException("Size " + this.size + " is not supported.");
+    }
+    this.cellCount = this.size * this.size;
+    this.initialRegions = new int[this.cellCount];
+    int boxWidth = dimension.getBoxWidth();
+    int boxHeight = dimension.getBoxHeight();
+    int boxesPerRow = this.size / boxWidth;
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      int x = cell % this.size;
+      int y = cell / this.size;
+      this.initialRegions[cell] = (y / boxHeight) * boxesPerRow + (x / boxWidth);
+    }
+    // the only Sudoku built for checking: all candidate layouts are derived from its Topology
+    this.topology = build(toShapes(toRows(this.initialRegions))).getTopology();
+  }
+
+  /**
+   * @return the {@link AbstractDimension}.
+   */
+  public AbstractDimension getDimension() {
+
+    return this.dimension;
+  }
+
+  /**
+   * @return the maximum number of candidate layouts to try for a single {@link #generate(SplittableRandom) generation}.
+   */
+  public int getMaxAttempts() {
+
+    return this.maxAttempts;
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return the {@link Shape}s of a new random {@link Jigsaw} layout that can be passed to
+   *         {@link io.github.mmm.sudoku.builder.SudokuBuilder#withJigsaw(Shape...)}.
+   * @throws IllegalStateException if no solvable layout was found within the {@link #getMaxAttempts() maximum
+   *         attempts}.
+   */
+  public Shape[] generate(SplittableRandom random) {
+
+    for (int attempt = 0; attempt < this.maxAttempts; attempt++) {
+      int[] regions = createRegions(random);
+      if (isSolvable(regions, random)) {
+        return toShapes(toRows(regions));
+      }
+    }
+    throw new IllegalStateException("No solvable " + this.size + "x" + this.size + " Jigsaw layout found within "
+        + this.maxAttempts + " attempts.");
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return a new empty {@link Jigsaw} {@link Sudoku} with a random layout. May be used as variant for
+   *         {@link SudokuGenerator} to generate puzzles.
+   * @throws IllegalStateException if no solvable layout was found within the {@link #getMaxAttempts() maximum
+   *         attempts}.
+   */
+  public Sudoku generateSudoku(SplittableRandom random) {
+
+    return build(generate(random));
+  }
+
+  private Sudoku build(Shape[] shapes) {
+
+    return Sudoku.builder().withJigsaw(shapes).with(this.dimension).build();
+  }
+
+  private boolean isSolvable(int[] regions, SplittableRandom random) {
+
+    int[][] partitions = new int[this.size][this.size];
+    int[] counts = new int[this.size];
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      int region = regions[cell];
+      partitions[region][counts[region]++] = cell;
+    }
+    long nodeLimit = (long) NODES_PER_CELL * this.cellCount;
+    SudokuSearch search = new SudokuSearch(this.topology.withUnits(JIGSAW_INDEX, partitions)) {
+      @Override
+      protected boolean isCancelled() {
+
+        return getNodeCount() >= nodeLimit;
+      }
+    };
+    for (int i = 0; i < RESTARTS; i++) {
+      if (search.solve(random)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int[] createRegions(SplittableRandom random) {
+
+    int[] regions = this.initialRegions.clone();
+    int[] rows = toRows(regions);
+    int moves = MOVES_PER_CELL * this.cellCount;
+    while ((moves > 0) || isDegenerated(rows)) {
+      if (move(regions, rows, random)) {
+        moves--;
+      }
+    }
+    return regions;
+  }
+
+  /**
+   * @return the rows where {@code rows[region * size + y]} is the bit mask of the x positions of {@code region} in row
+   *         {@code y}.
+   */
+  private int[] toRows(int[] regions) {
+
+    int[] rows = new int[this.size * this.size];
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      rows[regions[cell] * this.size + (cell / this.size)] |= 1 << (cell % this.size);
+    }
+    return rows;
+  }
+
+  private boolean move(int[] regions, int[] rows, SplittableRandom random) {
+
+    int a = random.nextInt(this.cellCount);
+    int neighbour = getNeighbour(a, random.nextInt(4));
+    if (neighbour < 0) {
+      return false;
+    }
+    int regionA = regions[a];
+    int regionB = regions[neighbour];
+    if (regionA == regionB) {
+      return false;
+    }
+    int b = selectAdjacent(regions, regionB, regionA, a, random);
+    if (b < 0) {
+      return false;
+    }
+    toggle(rows, regionA, a);
+    toggle(rows, regionB, a);
+    toggle(rows, regionB, b);
+    toggle(rows, regionA, b);
+    if (isValid(rows, regionA) && isValid(rows, regionB)) {
+      regions[a] = regionB;
+      regions[b] = regionA;
+      return true;
+    }
+    toggle(rows, regionA, a);
+    toggle(rows, regionB, a);
+    toggle(rows, regionB, b);
+    toggle(rows, regionA, b);
+    return false;
+  }
+
+  private void toggle(int[] rows, int region, int cell) {
+
+    rows[region * this.size + (cell / this.size)] ^= 1 << (cell % this.size);
+  }
+
+  /**
+   * @return a random cell of {@code region} that is adjacent to a cell of {@code target} other than {@code excluded}
+   *         or {@code -1} if no such cell exists.
+   */
+  private int selectAdjacent(int[] regions, int region, int target, int excluded, SplittableRandom random) {
+
+    int result = -1;
+    int found = 0;
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      if ((regions[cell] == region) && isAdjacent(regions, cell, target, excluded)) {
+        found++;
+        if (random.nextInt(found) == 0) {
+          result = cell;
+        }
+      }
+    }
+    return result;
+  }
+
+  private boolean isAdjacent(int[] regions, int cell, int target, int excluded) {
+
+    for (int direction = 0; direction < 4; direction++) {
+      int neighbour = getNeighbour(cell, direction);
+      if ((neighbour >= 0) && (neighbour != excluded) && (regions[neighbour] == target)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int getNeighbour(int cell, int direction) {
+
+    int x = cell % this.size;
+    switch (direction) {
+      case 0:
+        return (x > 0) ? cell - 1 : -1;
+      case 1:
+        return (x < this.size - 1) ? cell + 1 : -1;
+      case 2:
+        return (cell >= this.size) ? cell - this.size : -1;
+      default:
+        return (cell < this.cellCount - this.size) ? cell + this.size : -1;
+    }
+  }
+
+  private boolean isValid(int[] rows, int region) {
+
+    int offset = region * this.size;
+    int end = offset + this.size;
+    int i = offset;
+    while ((i < end) && (rows[i] == 0)) {
+      i++;
+    }
+    int previous = 0;
+    while ((i < end) && (rows[i] != 0)) {
+      int mask = rows[i];
+      int run = mask >>> Integer.numberOfTrailingZeros(mask);
+      if ((run & (run + 1)) != 0) {
+        return false; // multiple runs in the same row
+      }
+      if ((previous != 0) && ((previous & mask) == 0)) {
+        return false; // not connected to the previous row
+      }
+      previous = mask;
+      i++;
+    }
+    while (i < end) {
+      if (rows[i] != 0) {
+        return false; // rows are not consecutive
+      }
+      i++;
+    }
+    return true;
+  }
+
+  private boolean isDegenerated(int[] rows) {
+
+    int fullRow = (1 << this.size) - 1;
+    for (int region = 0; region < this.size; region++) {
+      int offset = region * this.size;
+      if ((rows[offset] != 0) && (rows[offset + this.size - 1] != 0)) {
+        return true; // region spans all rows so it is connected with one cell per row and hence a column
+      }
+      for (int y = 0; y < this.size; y++) {
+        if (rows[offset + y] == fullRow) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private Shape[] toShapes(int[] rows) {
+
+    // order regions by their anchor (top-left cell) that is the next free field when the partitions are created
+    long[] anchors = new long[this.size];
+    for (int region = 0; region < this.size; region++) {
+      int offset = region * this.size;
+      int y = 0;
+      while (rows[offset + y] == 0) {
+        y++;
+      }
+      int anchor = y * this.size + Integer.numberOfTrailingZeros(rows[offset + y]);
+      anchors[region] = ((long) anchor << Integer.SIZE) | region;
+    }
+    Arrays.sort(anchors);
+    Shape[] shapes = new Shape[this.size];
+    for (int i = 0; i < this.size; i++) {
+      int region = (int) anchors[i];
+      int anchorX = (int) (anchors[i] >>> Integer.SIZE) % this.size;
+      int offset = region * this.size;
+      Shape shape = null;
+      for (int y = this.size - 1; y >= 0; y--) {
+        int mask = rows[offset + y];
+        if (mask != 0) {
+          shape = new Shape(Integer.numberOfTrailingZeros(mask) - anchorX, Integer.bitCount(mask), shape);
+        }
+      }
+      shapes[i] = shape;
+    }
+    return shapes;
+  }
+
+}
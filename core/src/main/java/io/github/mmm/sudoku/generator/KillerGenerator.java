@@ -0,0 +1,354 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.util.SplittableRandom;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.SumCombinations;
+import io.github.mmm.sudoku.partition.Shape;
+import io.github.mmm.sudoku.partition.SumShape;
+import io.github.mmm.sudoku.partitioning.Sum;
+import io.github.mmm.sudoku.partitioning.Topology;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+
+/**
+ * Generator for Killer puzzles: {@link Sudoku}s without any given value but with a {@link Sum} layer of cages. First a
+ * random complete grid is {@link SudokuSearch#solve(SplittableRandom) filled}. Then every cell starts as a cage of its
+ * own (what is trivially unique) and adjacent cages are merged in random order as long as the solution stays unique
+ * (verified via {@link SudokuSearch#count(int)} that propagates the cage sums). Cages never contain a value twice, do
+ * not exceed the {@link #getMaxCageSize() maximum cage size} and have the form required by {@link SumShape} (every row
+ * is a single contiguous run and adjacent rows overlap).<br>
+ * The generation is reproducible: the same {@link SplittableRandom} seed always results in the same puzzle. A
+ * {@link KillerGenerator} is thread-safe.<br>
+ * The cage bookkeeping uses {@code int} bit masks so only variants up to a {@link Sudoku#getSize() size} of
+ * {@link SumCombinations#MAX_SIZE} are supported.
+ */
+public class KillerGenerator {
+
+  /** Default of the {@link #getMaxCageSize() maximum cage size}. */
+  private static final int DEFAULT_MAX_CAGE_SIZE = 5;
+
+  private final Sudoku variant;
+
+  private final Topology topology;
+
+  private final int size;
+
+  private final int cellCount;
+
+  private final int maxCageSize;
+
+  /**
+   * The constructor.
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to add the cages to. Only its structure is used.
+   */
+  public KillerGenerator(Sudoku variant) {
+
+    this(variant, Math.min(DEFAULT_MAX_CAGE_SIZE, variant.getSize()));
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to add the cages to. Only its structure is used.
+   * @param maxCageSize the {@link #getMaxCageSize() maximum cage size}.
+   */
+  public KillerGenerator(Sudoku variant, int maxCageSize) {
+
+    super();
+    this.variant = variant;
+    this.topology = variant.getTopology();
+    this.size = this.topology.getSize();
+    this.cellCount = this.topology.getCellCount();
+    if (this.size > SumCombinations.MAX_SIZE) {
+      throw new IllegalArgumentException(
+          "Size " + this.size + " exceeds the maximum of " + SumCombinations.MAX_SIZE + " for Killer puzzles.");
+    }
+    if ((maxCageSize < 2) || (maxCageSize > this.size)) {
+      throw new IllegalArgumentException("maxCageSize=" + maxCageSize + "(size=" + this.size + ")");
+    }
+    this.maxCageSize = maxCageSize;
+  }
+
+  /**
+   * @return the maximum number of cells of a cage.
+   */
+  public int getMaxCageSize() {
+
+    return this.maxCageSize;
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return the {@link SumShape}s of the cages of a new random Killer puzzle that can be passed to
+   *         {@link io.github.mmm.sudoku.builder.SumBuilder#withSums(SumShape...)}.
+   */
+  public SumShape[] generate(SplittableRandom random) {
+
+    SudokuSearch search = new SudokuSearch(this.topology);
+    search.solve(random);
+    int[] solution = new int[this.cellCount];
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      solution[cell] = search.getSolution(cell);
+    }
+    Cages cages = new Cages(solution);
+    int[] pairs = shufflePairs(random);
+    boolean merged = true;
+    while (merged) {
+      merged = false;
+      for (int pair : pairs) {
+        int cell = pair >> 1;
+        int neighbour = cell + (((pair & 1) == 0) ? 1 : this.size);
+        if (cages.merge(cell, neighbour)) {
+          if (isUnique(cages)) {
+            merged = true;
+          } else {
+            cages.undo();
+          }
+        }
+      }
+    }
+    return cages.toShapes();
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return a new random Killer {@link Sudoku} with the cages as {@link Sum} layer.
+   */
+  public Sudoku generateSudoku(SplittableRandom random) {
+
+    SumShape[] shapes = generate(random);
+    Sudoku sudoku = this.variant.extend((s, i) -> new Sum(s, i, shapes));
+    sudoku.setSpecified();
+    return sudoku;
+  }
+
+  /**
+   * @return the pairs of adjacent cells in random order. A pair is encoded as {@code cell << 1} plus {@code 0} for the
+   *         right and {@code 1} for the lower neighbour.
+   */
+  private int[] shufflePairs(SplittableRandom random) {
+
+    int[] pairs = new int[2 * this.size * (this.size - 1)];
+    int i = 0;
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      if ((cell % this.size) < this.size - 1) {
+        pairs[i++] = cell << 1;
+      }
+      if (cell < this.cellCount - this.size) {
+        pairs[i++] = (cell << 1) | 1;
+      }
+    }
+    for (i = pairs.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int pair = pairs[i];
+      pairs[i] = pairs[j];
+      pairs[j] = pair;
+    }
+    return pairs;
+  }
+
+  private boolean isUnique(Cages cages) {
+
+    SudokuSearch search = new SudokuSearch(this.topology.withSums(cages.getCells(), cages.getSums()));
+    return search.count(2) == 1;
+  }
+
+  /**
+   * The cages during the generation. A cage is identified by its top-left cell what is the cell it has been initially
+   * created for since the cage with the lower id survives a {@link #merge(int, int) merge}.
+   */
+  private class Cages {
+
+    private final int[] cageOfCell;
+
+    /** rows[cage * size + y] is the bit mask of the x positions of the cage in row y. */
+    private final int[] rows;
+
+    private final int[] cellCounts;
+
+    private final int[] valueMasks;
+
+    private final int[] sums;
+
+    private int cageCount;
+
+    private int undoKeep;
+
+    private int undoRemove;
+
+    private Cages(int[] solution) {
+
+      super();
+      this.cageOfCell = new int[KillerGenerator.this.cellCount];
+      this.rows = new int[KillerGenerator.this.cellCount * KillerGenerator.this.size];
+      this.cellCounts = new int[KillerGenerator.this.cellCount];
+      this.valueMasks = new int[KillerGenerator.this.cellCount];
+      this.sums = new int[KillerGenerator.this.cellCount];
+      for (int cell = 0; cell < KillerGenerator.this.cellCount; cell++) {
+        int value = solution[cell];
+        this.cageOfCell[cell] = cell;
+        this.rows[cell * KillerGenerator.this.size + (cell / KillerGenerator.this.size)] = 1 << (cell
+            % KillerGenerator.this.size);
+        this.cellCounts[cell] = 1;
+        this.valueMasks[cell] = 1 << (value - 1);
+        this.sums[cell] = value;
+      }
+      this.cageCount = KillerGenerator.this.cellCount;
+    }
+
+    /**
+     * @return {@code true} if the cages of the given cells have been merged, {@code false} if they can not be merged.
+     */
+    private boolean merge(int cell1, int cell2) {
+
+      int keep = Math.min(this.cageOfCell[cell1], this.cageOfCell[cell2]);
+      int remove = Math.max(this.cageOfCell[cell1], this.cageOfCell[cell2]);
+      if ((keep == remove) || (this.cellCounts[keep] + this.cellCounts[remove] > KillerGenerator.this.maxCageSize)
+          || ((this.valueMasks[keep] & this.valueMasks[remove]) != 0) || !isValid(keep, remove)) {
+        return false;
+      }
+      int size = KillerGenerator.this.size;
+      for (int y = 0; y < size; y++) {
+        this.rows[keep * size + y] |= this.rows[remove * size + y];
+      }
+      this.cellCounts[keep] += this.cellCounts[remove];
+      this.valueMasks[keep] |= this.valueMasks[remove];
+      this.sums[keep] += this.sums[remove];
+      for (int cell = 0; cell < KillerGenerator.this.cellCount; cell++) {
+        if (this.cageOfCell[cell] == remove) {
+          this.cageOfCell[cell] = keep;
+        }
+      }
+      this.cageCount--;
+      this.undoKeep = keep;
+      this.undoRemove = remove;
+      return true;
+    }
+
+    /**
+     * Reverts the last {@link #merge(int, int) merge}. The rows, values and cells of the removed cage are still intact.
+     */
+    private void undo() {
+
+      int keep = this.undoKeep;
+      int remove = this.undoRemove;
+      int size = KillerGenerator.this.size;
+      for (int y = 0; y < size; y++) {
+        int removeRow = this.rows[remove * size + y];
+        this.rows[keep * size + y] &= ~removeRow;
+        int x = 0;
+        while (removeRow != 0) {
+          if ((removeRow & 1) != 0) {
+            this.cageOfCell[y * size + x] = remove;
+          }
+          removeRow = removeRow >>> 1;
+          x++;
+        }
+      }
+      this.cellCounts[keep] -= this.cellCounts[remove];
+      this.valueMasks[keep] &= ~this.valueMasks[remove];
+      this.sums[keep] -= this.sums[remove];
+      this.cageCount++;
+    }
+
+    /**
+     * @return {@code true} if the union of both cages is a valid {@link Shape}: every row is a single contiguous run,
+     *         the rows are consecutive and the runs of adjacent rows overlap so the cage is connected.
+     */
+    private boolean isValid(int cage1, int cage2) {
+
+      int size = KillerGenerator.this.size;
+      int offset1 = cage1 * size;
+      int offset2 = cage2 * size;
+      int y = 0;
+      while ((this.rows[offset1 + y] | this.rows[offset2 + y]) == 0) {
+        y++;
+      }
+      int previous = 0;
+      while (y < size) {
+        int mask = this.rows[offset1 + y] | this.rows[offset2 + y];
+        if (mask == 0) {
+          break;
+        }
+        int run = mask >>> Integer.numberOfTrailingZeros(mask);
+        if (((run & (run + 1)) != 0) || ((previous != 0) && ((previous & mask) == 0))) {
+          return false;
+        }
+        previous = mask;
+        y++;
+      }
+      while (y < size) {
+        if ((this.rows[offset1 + y] | this.rows[offset2 + y]) != 0) {
+          return false;
+        }
+        y++;
+      }
+      return true;
+    }
+
+    /**
+     * @return the cells of the cages in the order of their top-left cell as expected by
+     *         {@link Topology#withSums(int[][], int[])}.
+     */
+    private int[][] getCells() {
+
+      int[][] cells = new int[this.cageCount][];
+      int[] indexOfCage = new int[KillerGenerator.this.cellCount];
+      int[] fill = new int[this.cageCount];
+      int next = 0;
+      for (int cell = 0; cell < KillerGenerator.this.cellCount; cell++) {
+        int cage = this.cageOfCell[cell];
+        int index;
+        if (cage == cell) {
+          index = next++;
+          indexOfCage[cage] = index;
+          cells[index] = new int[this.cellCounts[cage]];
+        } else {
+          index = indexOfCage[cage];
+        }
+        cells[index][fill[index]++] = cell;
+      }
+      return cells;
+    }
+
+    private int[] getSums() {
+
+      int[] result = new int[this.cageCount];
+      int next = 0;
+      for (int cell = 0; cell < KillerGenerator.this.cellCount; cell++) {
+        if (this.cageOfCell[cell] == cell) {
+          result[next++] = this.sums[cell];
+        }
+      }
+      return result;
+    }
+
+    private SumShape[] toShapes() {
+
+      int size = KillerGenerator.this.size;
+      SumShape[] shapes = new SumShape[this.cageCount];
+      int next = 0;
+      for (int cell = 0; cell < KillerGenerator.this.cellCount; cell++) {
+        int cage = this.cageOfCell[cell];
+        if (cage == cell) {
+          int offset = cage * size;
+          int anchorY = cell / size;
+          int anchorX = cell % size;
+          Shape shape = null;
+          for (int y = size - 1; y > anchorY; y--) {
+            int mask = this.rows[offset + y];
+            if (mask != 0) {
+              shape = new Shape(Integer.numberOfTrailingZeros(mask) - anchorX, Integer.bitCount(mask), shape);
+            }
+          }
+          shapes[next++] = new SumShape(Integer.bitCount(this.rows[offset + anchorY]), shape, this.sums[cage]);
+        }
+      }
+      return shapes;
+    }
+  }
+
+}
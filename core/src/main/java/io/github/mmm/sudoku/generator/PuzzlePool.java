@@ -0,0 +1,607 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.Difficulty;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Pool of pre-generated puzzles that are handed out without delay. The pool has a bucket for each
+ * {@link #register(Sudoku, Difficulty) registered} combination of variant (identified by its {@link Topology#getKey()
+ * topology key} as the {@link Sudoku#getType() type} does not distinguish sizes or layouts) and {@link Difficulty}.
+ * Background threads of the pool keep every bucket topped up to the {@link #getWatermark() watermark} using a
+ * {@link SudokuGenerator} while {@link #take(String, Difficulty)} never blocks but returns {@code null} if the bucket
+ * is empty (miss). If the {@link SudokuGenerator} fails to produce a puzzle of the requested {@link Difficulty}, the
+ * bucket backs off exponentially (from {@value #BACKOFF_MIN_MILLIS}ms up to {@value #BACKOFF_MAX_MILLIS}ms) so an
+ * unreachable {@link Difficulty} does not keep all background threads busy.<br>
+ * Puzzles are represented as {@link String} just like for {@link SudokuGenerator}. The {@link #getStatistics()
+ * statistics} provide the hit rate, the refill lag and the generation rate. If a spill file is configured, the pooled
+ * puzzles are {@link #save(Path) saved} on {@link #close()} and {@link #load(Path) loaded} on construction so the pool
+ * starts warm.<br>
+ * A {@link PuzzlePool} is thread-safe.
+ */
+public class PuzzlePool implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PuzzlePool.class);
+
+  /** Separator of the columns in the spill file. */
+  private static final char SEPARATOR = ';';
+
+  /** Initial delay after a failed generation. */
+  private static final long BACKOFF_MIN_MILLIS = 1000;
+
+  /** Maximum delay after consecutive failed generations. */
+  private static final long BACKOFF_MAX_MILLIS = 300000;
+
+  /** Maximum time {@link #close()} waits for running generations before the pooled puzzles are saved. */
+  private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+  private final int watermark;
+
+  private final Path spillFile;
+
+  private final ScheduledExecutorService executor;
+
+  private final SplittableRandom random;
+
+  private final Map<String, Map<Difficulty, Bucket>> buckets;
+
+  /** Puzzles loaded for buckets that are not yet registered. */
+  private final Map<String, Map<Difficulty, Queue<String>>> spilled;
+
+  private final long startTime;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+  private final LongAdder generated;
+
+  private final LongAdder failed;
+
+  private final LongAdder generationNanos;
+
+  private final LongAdder refills;
+
+  private final LongAdder refillLagNanos;
+
+  private final AtomicLong maxRefillLagNanos;
+
+  private volatile boolean closed;
+
+  /**
+   * The constructor.
+   *
+   * @param watermark the {@link #getWatermark() watermark}.
+   * @param threadCount the number of background threads generating puzzles.
+   */
+  public PuzzlePool(int watermark, int threadCount) {
+
+    this(watermark, threadCount, null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param watermark the {@link #getWatermark() watermark}.
+   * @param threadCount the number of background threads generating puzzles.
+   * @param spillFile the {@link Path} of the file to {@link #load(Path) load} the puzzles from (if it exists) and to
+   *        {@link #save(Path) save} them to on {@link #close()} or {@code null} for none.
+   */
+  public PuzzlePool(int watermark, int threadCount, Path spillFile) {
+
+    super();
+    if (watermark < 1) {
+      throw new IllegalArgumentException("watermark must be positive:" + watermark);
+    }
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("threadCount must be positive:" + threadCount);
+    }
+    this.watermark = watermark;
+    this.spillFile = spillFile;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newScheduledThreadPool(threadCount, r -> {
+      Thread thread = new Thread(r, "puzzle-pool-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.random = new SplittableRandom();
+    this.buckets = new ConcurrentHashMap<>();
+    this.spilled = new ConcurrentHashMap<>();
+    this.startTime = System.nanoTime();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.generated = new LongAdder();
+    this.failed = new LongAdder();
+    this.generationNanos = new LongAdder();
+    this.refills = new LongAdder();
+    this.refillLagNanos = new LongAdder();
+    this.maxRefillLagNanos = new AtomicLong();
+    if ((spillFile != null) && Files.exists(spillFile)) {
+      loadFile(spillFile);
+    }
+  }
+
+  /**
+   * @return the number of puzzles the background threads keep in each bucket.
+   */
+  public int getWatermark() {
+
+    return this.watermark;
+  }
+
+  /**
+   * Registers a bucket for the given variant and {@link Difficulty} and starts to fill it in the background. If a
+   * bucket for the same {@link Topology#getKey() variant} and {@link Difficulty} is already registered, this method has
+   * no effect.
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to generate. Only its structure is used.
+   * @param difficulty the {@link Difficulty} of the puzzles.
+   */
+  public void register(Sudoku variant, Difficulty difficulty) {
+
+    register(variant, difficulty, new SudokuGenerator(variant));
+  }
+
+  /**
+   * Registers a bucket for the given variant and {@link Difficulty} and starts to fill it in the background. If a
+   * bucket for the same {@link Topology#getKey() variant} and {@link Difficulty} is already registered, this method has
+   * no effect.
+   *
+   * @param variant the {@link Sudoku} of the variant to generate.
+   * @param difficulty the {@link Difficulty} of the puzzles.
+   * @param generator the {@link SudokuGenerator} for the {@code variant}.
+   */
+  public void register(Sudoku variant, Difficulty difficulty, SudokuGenerator generator) {
+
+    if (this.closed) {
+      throw new IllegalStateException("Pool is closed.");
+    }
+    String key = getKey(variant);
+    Map<Difficulty, Bucket> difficulties = this.buckets.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    Bucket bucket = new Bucket(key, difficulty, generator);
+    if (difficulties.putIfAbsent(difficulty, bucket) != null) {
+      return;
+    }
+    Map<Difficulty, Queue<String>> spilledDifficulties = this.spilled.get(key);
+    if (spilledDifficulties != null) {
+      Queue<String> puzzles = spilledDifficulties.remove(difficulty);
+      if (puzzles != null) {
+        for (String puzzle : puzzles) {
+          bucket.offer(puzzle);
+        }
+      }
+    }
+    LOG.debug("Registered {} puzzles of difficulty {} with {} pooled puzzles.", key, difficulty, bucket.getSize());
+    refill(bucket);
+  }
+
+  /**
+   * @param variant the {@link Sudoku} of the variant.
+   * @return the key of the variant used by this pool what is its {@link Topology#getKey() topology key}.
+   */
+  public static String getKey(Sudoku variant) {
+
+    return variant.getTopology().getKey();
+  }
+
+  /**
+   * @param variant the {@link Sudoku} of the variant.
+   * @param difficulty the {@link Difficulty} of the requested puzzle.
+   * @return a pooled puzzle or {@code null} if the bucket is currently empty.
+   * @see #take(String, Difficulty)
+   */
+  public String take(Sudoku variant, Difficulty difficulty) {
+
+    return take(getKey(variant), difficulty);
+  }
+
+  /**
+   * Takes a puzzle from the pool. This method never blocks and never generates a puzzle in the calling thread.
+   *
+   * @param key the {@link #getKey(Sudoku) key} of the variant.
+   * @param difficulty the {@link Difficulty} of the requested puzzle.
+   * @return a pooled puzzle or {@code null} if the bucket is currently empty.
+   * @throws IllegalArgumentException if no bucket has been {@link #register(Sudoku, Difficulty) registered} for the
+   *         given {@code key} and {@code difficulty}.
+   */
+  public String take(String key, Difficulty difficulty) {
+
+    Bucket bucket = getBucket(key, difficulty);
+    String puzzle = bucket.poll();
+    if (puzzle == null) {
+      this.misses.increment();
+    } else {
+      this.hits.increment();
+    }
+    refill(bucket);
+    return puzzle;
+  }
+
+  /**
+   * @param key the {@link #getKey(Sudoku) key} of the variant.
+   * @param difficulty the {@link Difficulty}.
+   * @return the number of puzzles currently pooled for the given {@code key} and {@code difficulty}.
+   */
+  public int getSize(String key, Difficulty difficulty) {
+
+    return getBucket(key, difficulty).getSize();
+  }
+
+  private Bucket getBucket(String key, Difficulty difficulty) {
+
+    Bucket bucket = null;
+    Map<Difficulty, Bucket> difficulties = this.buckets.get(key);
+    if (difficulties != null) {
+      bucket = difficulties.get(difficulty);
+    }
+    if (bucket == null) {
+      throw new IllegalArgumentException("No puzzles registered for " + key + " of difficulty " + difficulty);
+    }
+    return bucket;
+  }
+
+  /**
+   * @return a snapshot of the current {@link PuzzlePoolStatistics}.
+   */
+  public PuzzlePoolStatistics getStatistics() {
+
+    int backingOff = 0;
+    long now = System.nanoTime();
+    for (Map<Difficulty, Bucket> difficulties : this.buckets.values()) {
+      for (Bucket bucket : difficulties.values()) {
+        if (bucket.getBackoffNanos(now) > 0) {
+          backingOff++;
+        }
+      }
+    }
+    return new PuzzlePoolStatistics(this.hits.sum(), this.misses.sum(), this.generated.sum(), this.failed.sum(),
+        this.generationNanos.sum(), now - this.startTime, this.refills.sum(), this.refillLagNanos.sum(),
+        this.maxRefillLagNanos.get(), backingOff);
+  }
+
+  /**
+   * Schedules generation tasks until the pooled and pending puzzles of the given {@link Bucket} reach the
+   * {@link #getWatermark() watermark}. While the {@link Bucket} backs off after failures, only a single delayed refill
+   * is scheduled instead.
+   */
+  private void refill(Bucket bucket) {
+
+    while (!this.closed) {
+      int pending = bucket.pending.get();
+      // checked after reading pending as a failed task backs off before it releases its pending slot
+      long backoff = bucket.getBackoffNanos(System.nanoTime());
+      if (backoff > 0) {
+        if (bucket.retryScheduled.compareAndSet(false, true)) {
+          try {
+            this.executor.schedule(() -> {
+              bucket.retryScheduled.set(false);
+              refill(bucket);
+            }, backoff, TimeUnit.NANOSECONDS);
+          } catch (RejectedExecutionException e) {
+            // closed concurrently
+            bucket.retryScheduled.set(false);
+          }
+        }
+        return;
+      }
+      int size = bucket.getSize();
+      if (size + pending >= this.watermark) {
+        return;
+      }
+      bucket.startLag();
+      if (bucket.pending.compareAndSet(pending, pending + 1)) {
+        try {
+          this.executor.execute(() -> generate(bucket));
+        } catch (RejectedExecutionException e) {
+          // closed concurrently
+          bucket.pending.decrementAndGet();
+          return;
+        }
+      }
+    }
+  }
+
+  private void generate(Bucket bucket) {
+
+    try {
+      long start = System.nanoTime();
+      String puzzle = bucket.generator.generate(bucket.difficulty, bucket.split());
+      this.generationNanos.add(System.nanoTime() - start);
+      if (puzzle == null) {
+        this.failed.increment();
+        bucket.fail();
+        LOG.debug("Failed to generate {} puzzle of difficulty {} within limits.", bucket.key, bucket.difficulty);
+      } else {
+        this.generated.increment();
+        bucket.succeed();
+        bucket.offer(puzzle);
+      }
+    } catch (RuntimeException e) {
+      this.failed.increment();
+      bucket.fail();
+      LOG.warn("Failed to generate {} puzzle of difficulty {}.", bucket.key, bucket.difficulty, e);
+    } finally {
+      bucket.pending.decrementAndGet();
+    }
+    refill(bucket);
+  }
+
+  /**
+   * Loads puzzles from the given spill file into the pool. Puzzles for buckets that are not yet
+   * {@link #register(Sudoku, Difficulty) registered} are kept until registration.
+   *
+   * @param file the {@link Path} of the spill file to load. Each line has the form
+   *        {@code «key»;«DIFFICULTY»;«puzzle»} with the {@link #getKey(Sudoku) key} of the variant. Invalid lines
+   *        (including unknown {@link Difficulty} names) are logged and ignored.
+   * @return the number of loaded puzzles.
+   */
+  public int load(Path file) {
+
+    return loadFile(file);
+  }
+
+  private int loadFile(Path file) {
+
+    int count = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      while (line != null) {
+        int end = line.lastIndexOf(SEPARATOR);
+        int start = line.lastIndexOf(SEPARATOR, end - 1);
+        Difficulty difficulty = null;
+        if (start > 0) {
+          difficulty = parseDifficulty(line.substring(start + 1, end));
+        }
+        if (difficulty != null) {
+          String key = line.substring(0, start);
+          String puzzle = line.substring(end + 1);
+          Bucket bucket = null;
+          Map<Difficulty, Bucket> difficulties = this.buckets.get(key);
+          if (difficulties != null) {
+            bucket = difficulties.get(difficulty);
+          }
+          if (bucket == null) {
+            this.spilled.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(difficulty, d -> new ConcurrentLinkedQueue<>()).add(puzzle);
+          } else {
+            bucket.offer(puzzle);
+          }
+          count++;
+        } else if (!line.isBlank()) {
+          LOG.warn("Ignoring invalid line in spill file {}: {}", file, line);
+        }
+        line = reader.readLine();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    LOG.info("Loaded {} puzzles from {}", count, file);
+    return count;
+  }
+
+  private static Difficulty parseDifficulty(String name) {
+
+    try {
+      return Difficulty.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Saves all currently pooled puzzles to the given spill file. The puzzles stay in the pool.
+   *
+   * @param file the {@link Path} of the spill file to write.
+   * @return the number of saved puzzles.
+   * @see #load(Path)
+   */
+  public int save(Path file) {
+
+    List<String> lines = new ArrayList<>();
+    for (Map<Difficulty, Bucket> difficulties : this.buckets.values()) {
+      for (Bucket bucket : difficulties.values()) {
+        for (String puzzle : bucket.queue) {
+          lines.add(bucket.key + SEPARATOR + bucket.difficulty.name() + SEPARATOR + puzzle);
+        }
+      }
+    }
+    for (Map.Entry<String, Map<Difficulty, Queue<String>>> entry : this.spilled.entrySet()) {
+      for (Map.Entry<Difficulty, Queue<String>> difficultyEntry : entry.getValue().entrySet()) {
+        for (String puzzle : difficultyEntry.getValue()) {
+          lines.add(entry.getKey() + SEPARATOR + difficultyEntry.getKey().name() + SEPARATOR + puzzle);
+        }
+      }
+    }
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (String line : lines) {
+        writer.write(line);
+        writer.newLine();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    LOG.info("Saved {} puzzles to {}", lines.size(), file);
+    return lines.size();
+  }
+
+  /**
+   * Stops the background generation and {@link #save(Path) saves} the pooled puzzles to the spill file (if
+   * configured). Generations that are already running are awaited for up to {@value #CLOSE_TIMEOUT_MILLIS}ms so their
+   * puzzles are saved as well. Puzzles can still be {@link #take(String, Difficulty) taken} afterwards but the pool is
+   * no longer refilled.
+   */
+  @Override
+  public void close() {
+
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.executor.shutdownNow();
+    try {
+      if (!this.executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        LOG.debug("Generations still running after {}ms are not saved.", CLOSE_TIMEOUT_MILLIS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (this.spillFile != null) {
+      save(this.spillFile);
+    }
+  }
+
+  private void recordRefillLag(long lag) {
+
+    this.refills.increment();
+    this.refillLagNanos.add(lag);
+    this.maxRefillLagNanos.accumulateAndGet(lag, Math::max);
+  }
+
+  /**
+   * The puzzles of a single variant and {@link Difficulty}.
+   */
+  private class Bucket {
+
+    private final String key;
+
+    private final Difficulty difficulty;
+
+    private final SudokuGenerator generator;
+
+    private final SplittableRandom random;
+
+    private final Queue<String> queue;
+
+    private final AtomicInteger size;
+
+    /** Number of scheduled generation tasks that have not completed yet. */
+    private final AtomicInteger pending;
+
+    /** {@link System#nanoTime()} when the bucket dropped below the watermark or {@code 0} if it is full. */
+    private final AtomicLong lagStart;
+
+    /** Number of consecutive failed generations. */
+    private final AtomicInteger failures;
+
+    /** {@link System#nanoTime()} until generation is suspended after failures. Only valid if failures &gt; 0. */
+    private final AtomicLong retryAt;
+
+    /** {@code true} if a delayed refill is scheduled for the end of the backoff. */
+    private final AtomicBoolean retryScheduled;
+
+    private Bucket(String key, Difficulty difficulty, SudokuGenerator generator) {
+
+      super();
+      this.key = key;
+      this.difficulty = difficulty;
+      this.generator = generator;
+      synchronized (PuzzlePool.this.random) {
+        this.random = PuzzlePool.this.random.split();
+      }
+      this.queue = new ConcurrentLinkedQueue<>();
+      this.size = new AtomicInteger();
+      this.pending = new AtomicInteger();
+      this.lagStart = new AtomicLong();
+      this.failures = new AtomicInteger();
+      this.retryAt = new AtomicLong();
+      this.retryScheduled = new AtomicBoolean();
+    }
+
+    private int getSize() {
+
+      return this.size.get();
+    }
+
+    private synchronized SplittableRandom split() {
+
+      return this.random.split();
+    }
+
+    private String poll() {
+
+      String puzzle = this.queue.poll();
+      if (puzzle != null) {
+        this.size.decrementAndGet();
+      }
+      return puzzle;
+    }
+
+    private void offer(String puzzle) {
+
+      this.queue.add(puzzle);
+      if (this.size.incrementAndGet() >= PuzzlePool.this.watermark) {
+        long start = this.lagStart.getAndSet(0);
+        if (start != 0) {
+          recordRefillLag(System.nanoTime() - start);
+        }
+      }
+    }
+
+    private void fail() {
+
+      int failureCount = this.failures.get() + 1;
+      // BACKOFF_MIN_MILLIS << 20 already exceeds BACKOFF_MAX_MILLIS, avoid overflow of the shift
+      long delayMillis = Math.min(BACKOFF_MIN_MILLIS << Math.min(failureCount - 1, 20), BACKOFF_MAX_MILLIS);
+      // set retryAt before failures so getBackoffNanos never sees failures with an outdated retryAt
+      this.retryAt.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+      this.failures.incrementAndGet();
+      LOG.debug("Backing off {} puzzles of difficulty {} for {}ms after {} failures.", this.key, this.difficulty,
+          delayMillis, failureCount);
+    }
+
+    private void succeed() {
+
+      this.failures.set(0);
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}.
+     * @return the remaining nanoseconds to back off or {@code 0} if generation shall proceed.
+     */
+    private long getBackoffNanos(long now) {
+
+      if (this.failures.get() == 0) {
+        return 0;
+      }
+      return Math.max(0, this.retryAt.get() - now);
+    }
+
+    private void startLag() {
+
+      if (this.lagStart.get() == 0) {
+        long now = System.nanoTime();
+        // 0 is reserved for "full"
+        this.lagStart.compareAndSet(0, (now == 0) ? 1 : now);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,166 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.time.Duration;
+
+/**
+ * Immutable snapshot of the statistics of a {@link PuzzlePool}.
+ *
+ * @see PuzzlePool#getStatistics()
+ */
+public class PuzzlePoolStatistics {
+
+  private final long hits;
+
+  private final long misses;
+
+  private final long generated;
+
+  private final long failed;
+
+  private final long generationNanos;
+
+  private final long uptimeNanos;
+
+  private final long refills;
+
+  private final long refillLagNanos;
+
+  private final long maxRefillLagNanos;
+
+  private final int backingOff;
+
+  PuzzlePoolStatistics(long hits, long misses, long generated, long failed, long generationNanos, long uptimeNanos,
+      long refills, long refillLagNanos, long maxRefillLagNanos, int backingOff) {
+
+    super();
+    this.hits = hits;
+    this.misses = misses;
+    this.generated = generated;
+    this.failed = failed;
+    this.generationNanos = generationNanos;
+    this.uptimeNanos = uptimeNanos;
+    this.refills = refills;
+    this.refillLagNanos = refillLagNanos;
+    this.maxRefillLagNanos = maxRefillLagNanos;
+    this.backingOff = backingOff;
+  }
+
+  /**
+   * @return the number of {@link PuzzlePool#take(String, Difficulty) takes} that returned a puzzle.
+   */
+  public long getHits() {
+
+    return this.hits;
+  }
+
+  /**
+   * @return the number of {@link PuzzlePool#take(String, Difficulty) takes} that returned {@code null} as the bucket
+   *         was empty.
+   */
+  public long getMisses() {
+
+    return this.misses;
+  }
+
+  /**
+   * @return the ratio of {@link #getHits() hits} to all takes in the range from {@code 0} to {@code 1} or {@code 1}
+   *         if nothing has been taken yet.
+   */
+  public double getHitRate() {
+
+    long takes = this.hits + this.misses;
+    if (takes == 0) {
+      return 1;
+    }
+    return (double) this.hits / takes;
+  }
+
+  /**
+   * @return the number of puzzles generated by the background threads.
+   */
+  public long getGenerated() {
+
+    return this.generated;
+  }
+
+  /**
+   * @return the number of generation attempts that failed to produce a puzzle of the requested difficulty within the
+   *         limits of the {@link SudokuGenerator}.
+   */
+  public long getFailed() {
+
+    return this.failed;
+  }
+
+  /**
+   * @return the number of {@link #getGenerated() generated} puzzles per second since the {@link PuzzlePool} was
+   *         created.
+   */
+  public double getGenerationRate() {
+
+    if (this.uptimeNanos <= 0) {
+      return 0;
+    }
+    return this.generated * 1e9 / this.uptimeNanos;
+  }
+
+  /**
+   * @return the average {@link Duration} a background thread spent per {@link #getGenerated() generated} puzzle
+   *         (including {@link #getFailed() failed} attempts).
+   */
+  public Duration getAverageGenerationTime() {
+
+    if (this.generated == 0) {
+      return Duration.ZERO;
+    }
+    return Duration.ofNanos(this.generationNanos / this.generated);
+  }
+
+  /**
+   * @return the number of times a bucket that dropped below the watermark has been topped up again.
+   */
+  public long getRefills() {
+
+    return this.refills;
+  }
+
+  /**
+   * @return the average {@link Duration} from a bucket dropping below the watermark until it was topped up again.
+   */
+  public Duration getAverageRefillLag() {
+
+    if (this.refills == 0) {
+      return Duration.ZERO;
+    }
+    return Duration.ofNanos(this.refillLagNanos / this.refills);
+  }
+
+  /**
+   * @return the maximum {@link Duration} from a bucket dropping below the watermark until it was topped up again.
+   */
+  public Duration getMaxRefillLag() {
+
+    return Duration.ofNanos(this.maxRefillLagNanos);
+  }
+
+  /**
+   * @return the number of buckets that currently suspend generation after {@link #getFailed() failed} attempts
+   *         (exponential backoff, e.g. because the requested difficulty is not reachable for the variant).
+   */
+  public int getBackingOff() {
+
+    return this.backingOff;
+  }
+
+  @Override
+  public String toString() {
+
+    return "hits=" + this.hits + ", misses=" + this.misses + ", generated=" + this.generated + ", failed="
+        + this.failed + ", rate=" + getGenerationRate() + "/s, refills=" + this.refills + ", avgLag="
+        + getAverageRefillLag().toMillis() + "ms, maxLag=" + getMaxRefillLag().toMillis() + "ms, backingOff="
+        + this.backingOff;
+  }
+
+}
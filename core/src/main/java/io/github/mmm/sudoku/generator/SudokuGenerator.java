@@ -0,0 +1,430 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.Difficulty;
+import io.github.mmm.sudoku.partitioning.Topology;
+import io.github.mmm.sudoku.solution.Hint;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+import io.github.mmm.sudoku.solution.batch.BatchSolver;
+import io.github.mmm.sudoku.solution.rating.DifficultyRater;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+import io.github.mmm.sudoku.solution.strategy.SolutionStrategy;
+import io.github.mmm.sudoku.solution.strategy.SolutionStrategyHiddenSingle;
+import io.github.mmm.sudoku.solution.strategy.SolutionStrategyNakedSingle;
+
+/**
+ * Generator for {@link Sudoku} puzzles of any variant that can be {@link Sudoku#builder() built}. First a random
+ * complete grid is {@link SudokuSearch#solve(SplittableRandom) filled}. Then the clues are removed in random order as
+ * long as the solution stays unique (verified via {@link SudokuSearch#count(int)}). The result is a minimal puzzle
+ * where no further clue can be removed.<br>
+ * A puzzle is represented as {@link String} with one character per cell (row by row) where empty cells are
+ * represented by {@code '.'} and values as digits or as letters for values from {@code 10} on (a=10, b=11, etc.)
+ * just like for {@link BatchSolver} (see {@link BatchSolver#format(int[])}).<br>
+ * The generation is reproducible: the same {@link SplittableRandom} seed always results in the same puzzle. A
+ * {@link SudokuGenerator} is thread-safe.
+ */
+public class SudokuGenerator {
+
+  /** Number of puzzles generated in a single task of {@link #generate(int, long, Executor)}. */
+  private static final int CHUNK_SIZE = 8;
+
+  /** Default for {@link #getMaxAttempts()}. */
+  private static final int DEFAULT_MAX_ATTEMPTS = 100;
+
+  /** Default for {@link #getTimeBudget()}. */
+  private static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(10);
+
+  private final Sudoku variant;
+
+  private final Topology topology;
+
+  private final int maxAttempts;
+
+  private final Duration timeBudget;
+
+  private final SudokuSolver solver;
+
+  private final DifficultyRater rater;
+
+  /**
+   * The constructor.
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to generate. Only its structure is used.
+   */
+  public SudokuGenerator(Sudoku variant) {
+
+    this(variant, DEFAULT_MAX_ATTEMPTS, DEFAULT_TIME_BUDGET);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to generate. Only its structure is used.
+   * @param maxAttempts the {@link #getMaxAttempts() maximum attempts}.
+   * @param timeBudget the {@link #getTimeBudget() time budget}.
+   */
+  public SudokuGenerator(Sudoku variant, int maxAttempts, Duration timeBudget) {
+
+    super();
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive:" + maxAttempts);
+    }
+    this.variant = variant.copy();
+    this.topology = variant.getTopology();
+    this.maxAttempts = maxAttempts;
+    this.timeBudget = timeBudget;
+    this.solver = SudokuSolver.get();
+    this.rater = new DifficultyRater(this.solver);
+  }
+
+  /**
+   * @return the {@link Topology} of the generated puzzles.
+   */
+  public Topology getTopology() {
+
+    return this.topology;
+  }
+
+  /**
+   * @return the maximum number of complete grids to try for a single puzzle of a requested {@link Difficulty}.
+   * @see #generate(Difficulty, SplittableRandom)
+   */
+  public int getMaxAttempts() {
+
+    return this.maxAttempts;
+  }
+
+  /**
+   * @return the maximum {@link Duration} to spend for a single puzzle of a requested {@link Difficulty}.
+   * @see #generate(Difficulty, SplittableRandom)
+   */
+  public Duration getTimeBudget() {
+
+    return this.timeBudget;
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return the values of the generated puzzle indexed by cell with {@code 0} for empty cells.
+   */
+  public int[] generateValues(SplittableRandom random) {
+
+    SudokuSearch search = new SudokuSearch(this.topology);
+    int[] values = fillGrid(search, random);
+    for (int cell : shuffleCells(random)) {
+      int value = values[cell];
+      values[cell] = 0;
+      if (!isUnique(search, values)) {
+        values[cell] = value;
+      }
+    }
+    return values;
+  }
+
+  private int[] fillGrid(SudokuSearch search, SplittableRandom random) {
+
+    search.reset();
+    if (!search.solve(random)) {
+      throw new IllegalStateException("Variant has no solution.");
+    }
+    int cellCount = this.topology.getCellCount();
+    int[] values = new int[cellCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      values[cell] = search.getSolution(cell);
+    }
+    return values;
+  }
+
+  private int[] shuffleCells(SplittableRandom random) {
+
+    int cellCount = this.topology.getCellCount();
+    int[] cells = new int[cellCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      cells[cell] = cell;
+    }
+    // Fisher-Yates shuffle
+    for (int i = cellCount - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int cell = cells[i];
+      cells[i] = cells[j];
+      cells[j] = cell;
+    }
+    return cells;
+  }
+
+  /**
+   * Generates a puzzle with the given {@link Difficulty} as {@link DifficultyRater rated}. The clues are removed only
+   * as long as the puzzle stays unique and does not get too hard. To avoid rating from scratch after every removal the
+   * rating of the current puzzle is kept: if the removed clue can be found again as naked or hidden single, the
+   * rating is simply extended by that step. Otherwise the puzzle is solved logically but aborted as soon as a step is
+   * too hard for the requested {@link Difficulty}. If the final puzzle turns out to be too easy, a new attempt is made
+   * with a new grid until the {@link #getMaxAttempts() maximum attempts} or the {@link #getTimeBudget() time budget}
+   * are exceeded.<br>
+   * The result is reproducible unless the {@link #getTimeBudget() time budget} is exceeded.
+   *
+   * @param difficulty the requested {@link Difficulty}.
+   * @param random the {@link SplittableRandom} to use.
+   * @return the generated puzzle as {@link String} or {@code null} if no puzzle of the requested {@link Difficulty}
+   *         could be generated within the limits.
+   */
+  public String generate(Difficulty difficulty, SplittableRandom random) {
+
+    double minScore = difficulty.getScore();
+    double maxScore = Double.MAX_VALUE;
+    Difficulty[] difficulties = Difficulty.values();
+    int next = difficulty.ordinal() + 1;
+    if (next < difficulties.length) {
+      maxScore = difficulties[next].getScore();
+    }
+    long deadline = System.nanoTime() + this.timeBudget.toNanos();
+    Sudoku template = copyVariant();
+    SudokuSearch search = new SudokuSearch(this.topology);
+    for (int attempt = 0; (attempt < this.maxAttempts) && (System.nanoTime() - deadline < 0); attempt++) {
+      int[] values = generateValues(template, search, random, maxScore, deadline);
+      if (values != null) {
+        double score = this.rater.rate(toSudoku(template, values)).getScore();
+        if ((score >= minScore) && (score < maxScore)) {
+          return BatchSolver.format(values);
+        }
+      }
+    }
+    return null;
+  }
+
+  private int[] generateValues(Sudoku template, SudokuSearch search, SplittableRandom random, double maxScore,
+      long deadline) {
+
+    int[] values = fillGrid(search, random);
+    Rating rating = new Rating();
+    for (int cell : shuffleCells(random)) {
+      if (System.nanoTime() - deadline >= 0) {
+        return null;
+      }
+      int value = values[cell];
+      values[cell] = 0;
+      if (!isUnique(search, values)) {
+        values[cell] = value;
+        continue;
+      }
+      Rating next;
+      int singleDifficulty = getSingleDifficulty(search, cell, value);
+      if (singleDifficulty > 0) {
+        next = rating.extend(singleDifficulty);
+      } else {
+        next = rate(template, values, maxScore);
+      }
+      if ((next == null) || (next.getScore() >= maxScore)) {
+        values[cell] = value; // too hard
+      } else {
+        rating = next;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * @param search the {@link SudokuSearch} {@link SudokuSearch#load(int[]) loaded} with the puzzle without the given
+   *        {@code cell}.
+   * @param cell the removed cell.
+   * @param value the removed value.
+   * @return the {@link SolutionStrategy#getDifficulty() difficulty} to find the removed value again as naked or hidden
+   *         single or {@code 0} if not a single.
+   */
+  private int getSingleDifficulty(SudokuSearch search, int cell, int value) {
+
+    long bit = 1L << (value - 1);
+    if (search.getCandidates(cell) == bit) {
+      return SolutionStrategyNakedSingle.INSTANCE.getDifficulty();
+    }
+    for (int unit : this.topology.getUnitsOfCell(cell)) {
+      if (this.topology.isUnitComplete(unit)) {
+        boolean hidden = true;
+        for (int other : this.topology.getUnit(unit)) {
+          if ((other != cell) && ((search.getCandidates(other) & bit) != 0)) {
+            hidden = false;
+            break;
+          }
+        }
+        if (hidden) {
+          return SolutionStrategyHiddenSingle.INSTANCE.getDifficulty();
+        }
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return the {@link Rating} or {@code null} if aborted because a step is too hard.
+   */
+  private Rating rate(Sudoku template, int[] values, double maxScore) {
+
+    Sudoku sudoku = toSudoku(template, values);
+    Rating rating = new Rating();
+    sudoku.change(() -> rating.solve(this.solver, sudoku, maxScore), false);
+    if (rating.aborted) {
+      return null;
+    }
+    return rating;
+  }
+
+  private static boolean isUnique(SudokuSearch search, int[] values) {
+
+    return search.load(values) && (search.count(2) == 1);
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return the generated puzzle as {@link String}.
+   */
+  public String generate(SplittableRandom random) {
+
+    return BatchSolver.format(generateValues(random));
+  }
+
+  /**
+   * @param random the {@link SplittableRandom} to use.
+   * @return a new {@link Sudoku} with the generated puzzle as {@link io.github.mmm.sudoku.field.Field#isGiven() given}
+   *         values that is already {@link Sudoku#setSpecified() specified}.
+   */
+  public Sudoku generateSudoku(SplittableRandom random) {
+
+    return toSudoku(copyVariant(), generateValues(random));
+  }
+
+  private Sudoku copyVariant() {
+
+    synchronized (this.variant) {
+      return this.variant.copy();
+    }
+  }
+
+  private Sudoku toSudoku(Sudoku template, int[] values) {
+
+    Sudoku sudoku = template.copy();
+    int size = this.topology.getSize();
+    for (int cell = 0; cell < values.length; cell++) {
+      if (values[cell] > 0) {
+        sudoku.setFieldGivenValue((cell % size) + 1, (cell / size) + 1, values[cell]);
+      }
+    }
+    sudoku.setSpecified();
+    return sudoku;
+  }
+
+  /**
+   * Generates the given number of puzzles in parallel on the given {@link Executor}. Each puzzle is generated with its
+   * own {@link SplittableRandom#split() split} of a {@link SplittableRandom} with the given {@code seed} so the result
+   * is reproducible and independent of the {@link Executor} and its number of threads.
+   *
+   * @param count the number of puzzles to generate.
+   * @param seed the seed for the {@link SplittableRandom}.
+   * @param executor the {@link Executor} to generate on (e.g. with a thread per CPU core).
+   * @return the {@link List} with the generated puzzles as {@link String}s.
+   */
+  public List<String> generate(int count, long seed, Executor executor) {
+
+    SplittableRandom root = new SplittableRandom(seed);
+    SplittableRandom[] randoms = new SplittableRandom[count];
+    for (int i = 0; i < count; i++) {
+      randoms[i] = root.split();
+    }
+    String[] puzzles = new String[count];
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int start = 0; start < count; start += CHUNK_SIZE) {
+      int chunkStart = start;
+      int chunkEnd = Math.min(start + CHUNK_SIZE, count);
+      futures.add(CompletableFuture.runAsync(() -> {
+        for (int i = chunkStart; i < chunkEnd; i++) {
+          puzzles[i] = generate(randoms[i]);
+        }
+      }, executor));
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return Arrays.asList(puzzles);
+  }
+
+  /**
+   * Figures of a logical solve path as used by {@link DifficultyRater}.
+   */
+  private static class Rating {
+
+    private int hardestStep;
+
+    private int weightedSum;
+
+    private int stepCount;
+
+    private boolean stuck;
+
+    private boolean aborted;
+
+    private Rating extend(int difficulty) {
+
+      Rating rating = new Rating();
+      rating.hardestStep = this.hardestStep;
+      rating.weightedSum = this.weightedSum;
+      rating.stepCount = this.stepCount;
+      rating.stuck = this.stuck;
+      rating.add(difficulty);
+      return rating;
+    }
+
+    private void add(int difficulty) {
+
+      if (difficulty > this.hardestStep) {
+        this.hardestStep = difficulty;
+      }
+      this.weightedSum += difficulty;
+      this.stepCount++;
+    }
+
+    private void solve(SudokuSolver solver, Sudoku sudoku, double maxScore) {
+
+      Hint hint = solver.findHint(sudoku);
+      while (hint != null) {
+        int difficulty = hint.getDifficulty();
+        if (difficulty >= maxScore) {
+          this.aborted = true;
+          return;
+        }
+        add(difficulty);
+        hint.apply();
+        hint = solver.findHint(sudoku);
+      }
+      int cellCount = sudoku.getSize() * sudoku.getSize();
+      for (int i = 1; i <= cellCount; i++) {
+        if (!sudoku.getField(i).hasValue()) {
+          this.stuck = true;
+          return;
+        }
+      }
+    }
+
+    private double getScore() {
+
+      if (this.stuck) {
+        return Difficulty.EXTREME.getScore();
+      }
+      return DifficultyRater.score(this.hardestStep, this.weightedSum, this.stepCount);
+    }
+  }
+
+}
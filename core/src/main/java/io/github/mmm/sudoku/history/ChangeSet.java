@@ -101,8 +101,9 @@ public class ChangeSet implements ChangeAware {
   @Override
   public void undo() {
 
-    for (SudokuChangeEvent<?> event : this.changes) {
-      event.undo();
+    // revert in reverse order as the same field may have been changed multiple times
+    for (int i = this.changes.size() - 1; i >= 0; i--) {
+      this.changes.get(i).undo();
     }
   }
 
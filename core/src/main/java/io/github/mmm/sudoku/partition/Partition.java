@@ -2,10 +2,14 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.partition;
 
+import java.util.Arrays;
+
 import io.github.mmm.sudoku.Sudoku;
 import io.github.mmm.sudoku.child.SudokuContainer;
 import io.github.mmm.sudoku.common.AttributeComplete;
+import io.github.mmm.sudoku.common.AttributeModificationCounter;
 import io.github.mmm.sudoku.common.AttributeSum;
+import io.github.mmm.sudoku.common.Candidates;
 import io.github.mmm.sudoku.field.AbstractFieldGroup;
 import io.github.mmm.sudoku.field.Field;
 import io.github.mmm.sudoku.partition.impl.PartitionMapImpl;
@@ -28,7 +32,8 @@ import io.github.mmm.sudoku.partitioning.Sum;
  * <li>{@link Sum} #5</li>
  * </ul>
  */
-public class Partition extends AbstractFieldGroup implements SudokuContainer, AttributeComplete, AttributeSum {
+public class Partition extends AbstractFieldGroup
+    implements SudokuContainer, AttributeComplete, AttributeSum, AttributeModificationCounter {
 
   private final Partitioning partitioning;
 
@@ -38,7 +43,13 @@ public class Partition extends AbstractFieldGroup implements SudokuContainer, At
 
   private final Shape shape;
 
-  private PartitionMap partitionMap;
+  private PartitionMapImpl partitionMap;
+
+  private int modificationCounter;
+
+  private Object[] hintFreeKeys;
+
+  private int[] hintFreeStates;
 
   /**
    * The constructor.
@@ -105,18 +116,90 @@ public class Partition extends AbstractFieldGroup implements SudokuContainer, At
   }
 
   /**
-   * @return the computed {@link PartitionMap}. Is only valid while the {@link Sudoku} remains unchanged. Otherwise this
-   *         method will compute a new map.
+   * @return the {@link PartitionMap}. It is computed on the first call and then kept up to date incrementally for each
+   *         change of a {@link Field} in this {@link Partition}.
    */
   public PartitionMap getPartitionMap() {
 
-    if ((this.partitionMap == null)
-        || (this.partitionMap.getModificationCounter() != getSudoku().getModificationCounter())) {
+    if (this.partitionMap == null) {
       this.partitionMap = new PartitionMapImpl(this);
     }
     return this.partitionMap;
   }
 
+  /**
+   * @return the number of changes to the {@link Field#getValue() values} or {@link Field#getCandidates() candidates}
+   *         of the {@link Field}s in this {@link Partition}.
+   */
+  @Override
+  public int getModificationCounter() {
+
+    return this.modificationCounter;
+  }
+
+  /**
+   * Internal method called by the {@link Sudoku} when a {@link Field} of this {@link Partition} has changed.
+   *
+   * @param fieldIndex the {@link #getField(int) index} of the {@link Field} that has changed.
+   * @param oldValue the {@link Field#getValue() value} before the change.
+   * @param oldCandidates the {@link Field#getCandidates() candidates} before the change.
+   */
+  public void onFieldChange(int fieldIndex, int oldValue, Candidates oldCandidates) {
+
+    this.modificationCounter++;
+    if (this.partitionMap != null) {
+      Field field = getField(fieldIndex);
+      this.partitionMap.update(fieldIndex, oldValue, oldCandidates, field.getValue(), field.getCandidates());
+    }
+  }
+
+  /**
+   * @param key the key identifying the search (e.g. the {@link io.github.mmm.sudoku.solution.strategy.SolutionStrategy}).
+   * @param state the current state relevant for the search (e.g. the {@link #getModificationCounter() modification
+   *        counter}).
+   * @return {@code true} if this {@link Partition} has been {@link #setHintFree(Object, int) marked as hint-free} for
+   *         the given {@code key} and {@code state}, {@code false} otherwise (needs to be searched).
+   */
+  public boolean isHintFree(Object key, int state) {
+
+    if (this.hintFreeKeys != null) {
+      for (int i = 0; i < this.hintFreeKeys.length; i++) {
+        if (this.hintFreeKeys[i] == key) {
+          return this.hintFreeStates[i] == state;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Marks this {@link Partition} as hint-free so it can be skipped by further searches until its state changes.
+   *
+   * @param key the key identifying the search (e.g. the {@link io.github.mmm.sudoku.solution.strategy.SolutionStrategy}).
+   * @param state the state relevant for the search that has been proven to have no hint.
+   * @see #isHintFree(Object, int)
+   */
+  public void setHintFree(Object key, int state) {
+
+    int length = 0;
+    if (this.hintFreeKeys != null) {
+      length = this.hintFreeKeys.length;
+      for (int i = 0; i < length; i++) {
+        if (this.hintFreeKeys[i] == key) {
+          this.hintFreeStates[i] = state;
+          return;
+        }
+      }
+      this.hintFreeKeys = Arrays.copyOf(this.hintFreeKeys, length + 1);
+      this.hintFreeStates = Arrays.copyOf(this.hintFreeStates, length + 1);
+    } else {
+      this.hintFreeKeys = new Object[1];
+      this.hintFreeStates = new int[1];
+    }
+    this.hintFreeKeys[length] = key;
+    this.hintFreeStates[length] = state;
+  }
+
   /**
    * @return the {@link Shape} of this {@link Partition}.
    */
@@ -9,8 +9,10 @@ import io.github.mmm.sudoku.field.Field;
 import io.github.mmm.sudoku.solution.Hint;
 
 /**
- * A {@link PartitionMap} is computed from a {@link Partition} to compute a {@link Hint}. It is a temporary index for
- * the current state of the {@link Partition} that becomes obsolete if the {@link Sudoku} is updated.
+ * A {@link PartitionMap} is computed from a {@link Partition} to compute a {@link Hint}. It is an index for the current
+ * state of the {@link Partition} that is updated incrementally whenever a {@link Field} of the {@link Partition}
+ * changes. The {@link AggregatedFieldGroup}s and {@link CandidatesFieldGroup}s it returns are snapshots and not
+ * modified by such updates.
  */
 public interface PartitionMap extends AttributeModificationCounter {
 
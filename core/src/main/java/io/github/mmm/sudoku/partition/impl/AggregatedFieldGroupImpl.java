@@ -2,6 +2,7 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.partition.impl;
 
+import io.github.mmm.sudoku.common.Candidates;
 import io.github.mmm.sudoku.field.AggregatedFieldGroup;
 import io.github.mmm.sudoku.partition.Partition;
 
@@ -24,6 +25,12 @@ public class AggregatedFieldGroupImpl extends IndexedFieldGroupImpl implements A
     this.candidate = candidate;
   }
 
+  AggregatedFieldGroupImpl(Partition partition, int candidate, Candidates fieldIndexes) {
+
+    super(partition, fieldIndexes);
+    this.candidate = candidate;
+  }
+
   @Override
   public int getCandidate() {
 
@@ -34,9 +34,14 @@ public class IndexedFieldGroupImpl implements IndexedFieldGroup {
 
   IndexedFieldGroupImpl(Partition partition, int fieldIndex) {
 
+    this(partition, Candidates.ofValue(fieldIndex));
+  }
+
+  IndexedFieldGroupImpl(Partition partition, Candidates fieldIndexes) {
+
     super();
     this.partition = partition;
-    this.fieldIndexes = Candidates.ofValue(fieldIndex);
+    this.fieldIndexes = fieldIndexes;
     this.locked = true;
   }
 
@@ -71,21 +76,21 @@ public class IndexedFieldGroupImpl implements IndexedFieldGroup {
    */
   private class IndexedFieldGroupIterator extends AbstractIterator<Field> {
 
-    private int i;
+    private int index;
 
     IndexedFieldGroupIterator() {
 
       super();
-      this.i = 1;
       findFirst();
     }
 
     @Override
     protected Field findNext() {
 
-      int index = IndexedFieldGroupImpl.this.fieldIndexes.getCandidate(this.i++);
-      if (index > 0) {
-        return IndexedFieldGroupImpl.this.partition.getField(index);
+      int next = IndexedFieldGroupImpl.this.fieldIndexes.getNextCandidate(this.index);
+      if (next > 0) {
+        this.index = next;
+        return IndexedFieldGroupImpl.this.partition.getField(next);
       }
       return null;
     }
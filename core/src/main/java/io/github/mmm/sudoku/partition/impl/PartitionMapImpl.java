@@ -12,17 +12,24 @@ import io.github.mmm.sudoku.partition.Partition;
 import io.github.mmm.sudoku.partition.PartitionMap;
 
 /**
- * Implementation of {@link PartitionMap}.
+ * Implementation of {@link PartitionMap}. Once created it is kept up to date via
+ * {@link #update(int, int, Candidates, int, Candidates)} so only the indexes affected by a change are recomputed.
  */
 public class PartitionMapImpl implements PartitionMap {
 
   private final Partition partition;
 
-  private final int modificationCounter;
+  /** Bit-mask of the field indexes without value per candidate (index is candidate - 1). */
+  private final long[] candidateFields;
 
-  private AggregatedFieldGroupImpl[] counts;
+  /** Bit-mask of the field indexes with the value (index is value - 1). */
+  private final long[] valueFields;
 
-  private CandidatesFieldGroupIterable[] tuples;
+  private final AggregatedFieldGroupImpl[] counts;
+
+  private final boolean[] countsValid;
+
+  private final CandidatesFieldGroupIterable[] tuples;
 
   /**
    * The constructor.
@@ -33,7 +40,17 @@ public class PartitionMapImpl implements PartitionMap {
 
     super();
     this.partition = partition;
-    this.modificationCounter = partition.getSudoku().getModificationCounter();
+    int size = partition.getSudoku().getSize();
+    this.candidateFields = new long[size];
+    this.valueFields = new long[size];
+    this.counts = new AggregatedFieldGroupImpl[size];
+    this.countsValid = new boolean[size];
+    this.tuples = new CandidatesFieldGroupIterable[Math.max(size - 2, 0)];
+    int fieldCount = partition.getFieldCount();
+    for (int fieldIndex = 1; fieldIndex <= fieldCount; fieldIndex++) {
+      Field field = partition.getField(fieldIndex);
+      add(fieldIndex, field.getValue(), field.getCandidates());
+    }
   }
 
   @Override
@@ -45,7 +62,85 @@ public class PartitionMapImpl implements PartitionMap {
   @Override
   public int getModificationCounter() {
 
-    return this.modificationCounter;
+    return this.partition.getModificationCounter();
+  }
+
+  /**
+   * Internal method to update this map after a {@link Field} of the {@link #getPartition() partition} has changed.
+   *
+   * @param fieldIndex the {@link Partition#getField(int) index} of the changed {@link Field}.
+   * @param oldValue the {@link Field#getValue() value} before the change.
+   * @param oldCandidates the {@link Field#getCandidates() candidates} before the change.
+   * @param newValue the {@link Field#getValue() value} after the change.
+   * @param newCandidates the {@link Field#getCandidates() candidates} after the change.
+   */
+  public void update(int fieldIndex, int oldValue, Candidates oldCandidates, int newValue, Candidates newCandidates) {
+
+    if ((oldValue == Field.UNDEFINED) && (newValue == Field.UNDEFINED)) {
+      // only candidates changed
+      long fieldBit = 1L << (fieldIndex - 1);
+      long newBits = newCandidates.getEncodedBitValue();
+      long changedBits = oldCandidates.getEncodedBitValue() ^ newBits;
+      while (changedBits != 0) {
+        int i = Long.numberOfTrailingZeros(changedBits);
+        changedBits &= changedBits - 1;
+        if ((newBits & (1L << i)) == 0) {
+          this.candidateFields[i] &= ~fieldBit;
+        } else {
+          this.candidateFields[i] |= fieldBit;
+        }
+        this.countsValid[i] = false;
+      }
+      invalidateTuples(oldCandidates);
+      invalidateTuples(newCandidates);
+    } else {
+      remove(fieldIndex, oldValue, oldCandidates);
+      add(fieldIndex, newValue, newCandidates);
+    }
+  }
+
+  private void add(int fieldIndex, int value, Candidates candidates) {
+
+    long fieldBit = 1L << (fieldIndex - 1);
+    if (value != Field.UNDEFINED) {
+      this.valueFields[value - 1] |= fieldBit;
+      this.countsValid[value - 1] = false;
+    } else {
+      long bits = candidates.getEncodedBitValue();
+      while (bits != 0) {
+        int i = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        this.candidateFields[i] |= fieldBit;
+        this.countsValid[i] = false;
+      }
+      invalidateTuples(candidates);
+    }
+  }
+
+  private void remove(int fieldIndex, int value, Candidates candidates) {
+
+    long fieldBit = 1L << (fieldIndex - 1);
+    if (value != Field.UNDEFINED) {
+      this.valueFields[value - 1] &= ~fieldBit;
+      this.countsValid[value - 1] = false;
+    } else {
+      long bits = candidates.getEncodedBitValue();
+      while (bits != 0) {
+        int i = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        this.candidateFields[i] &= ~fieldBit;
+        this.countsValid[i] = false;
+      }
+      invalidateTuples(candidates);
+    }
+  }
+
+  private void invalidateTuples(Candidates candidates) {
+
+    int count = candidates.getInclusionCount();
+    if ((count >= 2) && (count - 2 < this.tuples.length)) {
+      this.tuples[count - 2] = null;
+    }
   }
 
   @Override
@@ -54,39 +149,27 @@ public class PartitionMapImpl implements PartitionMap {
     if ((candidate < 1) || (candidate > this.partition.getSudoku().getSize())) {
       throw new IndexOutOfBoundsException(candidate);
     }
-    return getCounts()[candidate - 1];
-  }
-
-  private AggregatedFieldGroupImpl[] getCounts() {
-
-    if (this.counts == null) {
-      this.counts = computeCounts();
+    int i = candidate - 1;
+    if (!this.countsValid[i]) {
+      this.counts[i] = computeCount(candidate);
+      this.countsValid[i] = true;
     }
-    return this.counts;
+    return this.counts[i];
   }
 
-  private AggregatedFieldGroupImpl[] computeCounts() {
+  private AggregatedFieldGroupImpl computeCount(int candidate) {
 
-    int size = this.partition.getSudoku().getSize();
-    AggregatedFieldGroupImpl[] result = new AggregatedFieldGroupImpl[size];
-    int fieldCount = this.partition.getFieldCount();
-    for (int fieldIndex = 1; fieldIndex <= fieldCount; fieldIndex++) {
-      Field field = this.partition.getField(fieldIndex);
-      if (field.hasValue()) {
-        int value = field.getValue();
-        result[value - 1] = new AggregatedFieldGroupImpl(this.partition, value, fieldIndex);
-      } else {
-        for (int candidate = 1; candidate <= size; candidate++) {
-          if (field.hasCandidate(candidate)) {
-            if (result[candidate - 1] == null) {
-              result[candidate - 1] = new AggregatedFieldGroupImpl(this.partition, candidate);
-            }
-            result[candidate - 1].add(fieldIndex);
-          }
-        }
-      }
+    long valueBits = this.valueFields[candidate - 1];
+    if (valueBits != 0) {
+      // if the value is present (more than once in case of an error) the last field wins
+      int fieldIndex = Long.SIZE - Long.numberOfLeadingZeros(valueBits);
+      return new AggregatedFieldGroupImpl(this.partition, candidate, fieldIndex);
     }
-    return result;
+    long fieldBits = this.candidateFields[candidate - 1];
+    if (fieldBits == 0) {
+      return null;
+    }
+    return new AggregatedFieldGroupImpl(this.partition, candidate, Candidates.of(fieldBits));
   }
 
   @Override
@@ -95,7 +178,7 @@ public class PartitionMapImpl implements PartitionMap {
     if ((count < 2) || (count >= this.partition.getSudoku().getSize())) {
       return Collections.emptySet();
     }
-    return getTuples()[count - 2];
+    return getTuples(count);
   }
 
   @Override
@@ -104,41 +187,37 @@ public class PartitionMapImpl implements PartitionMap {
     if ((count < 2) || (count >= this.partition.getSudoku().getSize())) {
       return null;
     }
-    CandidatesFieldGroupIterable iterable = getTuples()[count - 2];
-    return iterable.first;
+    return getTuples(count).first;
   }
 
-  private CandidatesFieldGroupIterable[] getTuples() {
+  private CandidatesFieldGroupIterable getTuples(int count) {
 
-    if (this.tuples == null) {
-      this.tuples = computeTuples();
+    CandidatesFieldGroupIterable iterable = this.tuples[count - 2];
+    if (iterable == null) {
+      iterable = computeTuples(count);
+      this.tuples[count - 2] = iterable;
     }
-    return this.tuples;
+    return iterable;
   }
 
-  private CandidatesFieldGroupIterable[] computeTuples() {
+  private CandidatesFieldGroupIterable computeTuples(int count) {
 
-    int size = this.partition.getSudoku().getSize();
-    CandidatesFieldGroupIterable[] result = new CandidatesFieldGroupIterable[size - 2];
-    for (int fieldIndex = 1; fieldIndex <= size; fieldIndex++) {
+    CandidatesFieldGroupIterable result = null;
+    int fieldCount = this.partition.getFieldCount();
+    for (int fieldIndex = 1; fieldIndex <= fieldCount; fieldIndex++) {
       Field field = this.partition.getField(fieldIndex);
       if (!field.hasValue()) {
         Candidates candidates = field.getCandidates();
-        int count = candidates.getInclusionCount();
-        if ((count >= 2) && (count < size)) {
-          CandidatesFieldGroupIterable iterable = result[count - 2];
-          if (iterable == null) {
-            iterable = new CandidatesFieldGroupIterable(null);
-            result[count - 2] = iterable;
+        if (candidates.getInclusionCount() == count) {
+          if (result == null) {
+            result = new CandidatesFieldGroupIterable(null);
           }
-          iterable.add(this.partition, candidates, fieldIndex);
+          result.add(this.partition, candidates, fieldIndex);
         }
       }
     }
-    for (int i = 0; i < result.length; i++) {
-      if (result[i] == null) {
-        result[i] = CandidatesFieldGroupIterable.EMPTY;
-      }
+    if (result == null) {
+      return CandidatesFieldGroupIterable.EMPTY;
     }
     return result;
   }
@@ -69,7 +69,7 @@ public abstract class FlexiblePartitioning extends Partitioning {
       while (y <= size && rows[y - 1].getInclusionCount() == 0) {
         y++;
       }
-      if (i == partitions.length) {
+      if (i == partitions.length - 1) {
         assert (y == size + 1);
       } else {
         x = rows[y - 1].getLowestCandidate();
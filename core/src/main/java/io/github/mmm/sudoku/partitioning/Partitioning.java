@@ -85,7 +85,13 @@ public abstract class Partitioning extends SudokuChildObject
       }
     }
     this.index = index;
-    this.partitions = function.createPartitions(this);
+    Topology topology = sudoku.getTopology();
+    if (topology == null) {
+      this.partitions = function.createPartitions(this);
+    } else {
+      // structure of the variant is already known (copy) and shared
+      this.partitions = topology.createPartitions(this);
+    }
   }
 
   /**
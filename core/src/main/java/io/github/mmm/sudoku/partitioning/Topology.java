@@ -0,0 +1,447 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.partitioning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partition.Shape;
+
+/**
+ * The {@link Topology} is the static structure of a {@link Sudoku} derived from its {@link Partitioning}s as flat index
+ * tables. It does not contain any state (like {@link Field#getValue() values} or {@link Field#getCandidates()
+ * candidates}) and is therefore immutable and can be used by engines (e.g. solvers) that operate on primitive arrays
+ * instead of the {@link Field} objects. Further, it is shared by all {@link Sudoku} instances of the same variant
+ * including their {@link Sudoku#copy() copies} that create their {@link Partition}s from it instead of computing them
+ * again (see {@link Sudoku#getTopology()}).<br>
+ * <b>ATTENTION:</b> Other than {@link Sudoku} a {@link Topology} uses {@code 0} based indexes. A cell is the index of a
+ * {@link Field} computed as <code>(y-1) * {@link #getSize() size} + (x-1)</code> what is the same as
+ * {@link Sudoku#getField(int)} minus one. A unit is the index of a {@link Partition} in the order of all
+ * {@link Partition}s of all {@link Partitioning}s.
+ */
+public final class Topology {
+
+  private final int size;
+
+  private final int cellCount;
+
+  private final long allMask;
+
+  private final int[][] units;
+
+  private final int[] unitSums;
+
+  private final boolean withSums;
+
+  private final boolean[] unitsComplete;
+
+  private final int[][] unitsOfCell;
+
+  private final int[][] peers;
+
+  private final int[] partitioningUnits;
+
+  private final Shape[] unitShapes;
+
+  private final List<List<String>> styles;
+
+  private final String type;
+
+  private final String key;
+
+  private Topology(int size, int[][] units, int[] unitSums, boolean[] unitsComplete, int[] partitioningUnits,
+      Shape[] unitShapes, List<List<String>> styles, String type) {
+
+    super();
+    this.size = size;
+    this.partitioningUnits = partitioningUnits;
+    this.unitShapes = unitShapes;
+    this.styles = styles;
+    this.type = type;
+    this.cellCount = size * size;
+    this.allMask = (2L << (size - 1)) - 1;
+    this.units = units;
+    this.unitSums = unitSums;
+    boolean hasSum = false;
+    for (int sum : unitSums) {
+      if (sum > 0) {
+        hasSum = true;
+        break;
+      }
+    }
+    this.withSums = hasSum;
+    this.unitsComplete = unitsComplete;
+    int[] counts = new int[this.cellCount];
+    for (int[] unit : units) {
+      for (int cell : unit) {
+        counts[cell]++;
+      }
+    }
+    this.unitsOfCell = new int[this.cellCount][];
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      this.unitsOfCell[cell] = new int[counts[cell]];
+      counts[cell] = 0;
+    }
+    for (int unit = 0; unit < units.length; unit++) {
+      for (int cell : units[unit]) {
+        this.unitsOfCell[cell][counts[cell]++] = unit;
+      }
+    }
+    this.peers = new int[this.cellCount][];
+    boolean[] seen = new boolean[this.cellCount];
+    int[] buffer = new int[this.cellCount];
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      int peerCount = 0;
+      for (int unit : this.unitsOfCell[cell]) {
+        for (int peer : units[unit]) {
+          if ((peer != cell) && !seen[peer]) {
+            seen[peer] = true;
+            buffer[peerCount++] = peer;
+          }
+        }
+      }
+      int[] cellPeers = Arrays.copyOf(buffer, peerCount);
+      Arrays.sort(cellPeers);
+      for (int peer : cellPeers) {
+        seen[peer] = false;
+      }
+      this.peers[cell] = cellPeers;
+    }
+    this.key = type + "-" + size + "x" + size + "-" + Long.toHexString(fingerprint(units, unitSums));
+  }
+
+  /**
+   * @return a 64-bit FNV-1a hash of the units and their sums that is stable across JVMs (unlike
+   *         {@link Object#hashCode()} of arrays).
+   */
+  private static long fingerprint(int[][] units, int[] unitSums) {
+
+    long hash = 0xcbf29ce484222325L;
+    for (int unit = 0; unit < units.length; unit++) {
+      hash = (hash ^ unitSums[unit]) * 0x100000001b3L;
+      for (int cell : units[unit]) {
+        hash = (hash ^ cell) * 0x100000001b3L;
+      }
+      // separate the units so moving a cell to the next unit changes the hash
+      hash = (hash ^ -1) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /**
+   * @return the {@link Sudoku#getSize() size} of the {@link Sudoku}.
+   */
+  public int getSize() {
+
+    return this.size;
+  }
+
+  /**
+   * @return the total number of cells ({@link Field}s) what is {@link #getSize() size}².
+   */
+  public int getCellCount() {
+
+    return this.cellCount;
+  }
+
+  /**
+   * @return the bit mask with all {@link Field#getValue() values} from {@code 1} to {@link #getSize() size} as bits
+   *         ({@code 1} &lt;&lt; (value-1)).
+   */
+  public long getAllMask() {
+
+    return this.allMask;
+  }
+
+  /**
+   * @return the total number of units ({@link Partition}s of all {@link Partitioning}s).
+   */
+  public int getUnitCount() {
+
+    return this.units.length;
+  }
+
+  /**
+   * @param unit the index of the unit in the range from {@code 0} to <code>{@link #getUnitCount()}-1</code>.
+   * @return the cells of the requested unit. Do not modify the array.
+   */
+  public int[] getUnit(int unit) {
+
+    return this.units[unit];
+  }
+
+  /**
+   * @param unit the index of the unit in the range from {@code 0} to <code>{@link #getUnitCount()}-1</code>.
+   * @return the {@link Partition#getSum() sum} of the unit or {@code -1} if undefined.
+   */
+  public int getUnitSum(int unit) {
+
+    return this.unitSums[unit];
+  }
+
+  /**
+   * @param unit the index of the unit in the range from {@code 0} to <code>{@link #getUnitCount()}-1</code>.
+   * @return {@code true} if the unit is {@link Partition#isComplete() complete}, {@code false} otherwise.
+   */
+  public boolean isUnitComplete(int unit) {
+
+    return this.unitsComplete[unit];
+  }
+
+  /**
+   * @param cell the index of the cell in the range from {@code 0} to <code>{@link #getCellCount()}-1</code>.
+   * @return the units containing the given cell. Do not modify the array.
+   */
+  public int[] getUnitsOfCell(int cell) {
+
+    return this.unitsOfCell[cell];
+  }
+
+  /**
+   * @param cell the index of the cell in the range from {@code 0} to <code>{@link #getCellCount()}-1</code>.
+   * @return the distinct and sorted peers of the given cell (all other cells sharing at least one unit with it). Do not
+   *         modify the array.
+   */
+  public int[] getPeers(int cell) {
+
+    return this.peers[cell];
+  }
+
+  /**
+   * @return the {@link Sudoku#getPartitioningCount() number of partitionings}.
+   */
+  public int getPartitioningCount() {
+
+    return this.partitioningUnits.length - 1;
+  }
+
+  /**
+   * @param partitioningIndex the {@link Partitioning#getIndex() index} of the {@link Partitioning}.
+   * @return the unit of the first {@link Partition} of the specified {@link Partitioning}. The units of its other
+   *         {@link Partition}s follow in ascending order.
+   */
+  public int getFirstUnit(int partitioningIndex) {
+
+    return this.partitioningUnits[partitioningIndex - 1];
+  }
+
+  /**
+   * @param partitioningIndex the {@link Partitioning#getIndex() index} of the {@link Partitioning}.
+   * @return the {@link Partitioning#getPartitionCount() number of partitions} of the specified {@link Partitioning}.
+   */
+  public int getPartitionCount(int partitioningIndex) {
+
+    return this.partitioningUnits[partitioningIndex] - this.partitioningUnits[partitioningIndex - 1];
+  }
+
+  /**
+   * @return {@code true} if at least one unit has a {@link #getUnitSum(int) sum} (Sumdoku or Killer), {@code false}
+   *         otherwise.
+   */
+  public boolean hasSums() {
+
+    return this.withSums;
+  }
+
+  /**
+   * @param unit the index of the unit in the range from {@code 0} to <code>{@link #getUnitCount()}-1</code>.
+   * @return the {@link Partition#getShape() shape} of the unit. May be {@code null}.
+   */
+  public Shape getShape(int unit) {
+
+    return this.unitShapes[unit];
+  }
+
+  /**
+   * @param cell the index of the cell in the range from {@code 0} to <code>{@link #getCellCount()}-1</code>.
+   * @return the {@link Field#getStyles() styles} of the given cell.
+   */
+  public List<String> getStyles(int cell) {
+
+    return this.styles.get(cell);
+  }
+
+  /**
+   * @return the {@link Sudoku#getType() type} of the {@link Sudoku}.
+   */
+  public String getType() {
+
+    return this.type;
+  }
+
+  /**
+   * @return the key that identifies the variant by its structure. Other than the {@link #getType() type} it
+   *         distinguishes sizes (e.g. 9x9 and 16x16 "Sudoku") and layouts (e.g. different Jigsaw shapes or Killer
+   *         cages). It is stable across JVMs and can be persisted.
+   */
+  public String getKey() {
+
+    return this.key;
+  }
+
+  /**
+   * Creates the {@link Partition}s for a new {@link Partitioning} of the same variant from this {@link Topology}.
+   *
+   * @param partitioning the {@link Partitioning} to create the {@link Partition}s for.
+   * @return the created {@link Partition}s.
+   */
+  public Partition[] createPartitions(Partitioning partitioning) {
+
+    Sudoku sudoku = partitioning.getSudoku();
+    int partitioningIndex = partitioning.getIndex();
+    int firstUnit = getFirstUnit(partitioningIndex);
+    Partition[] partitions = new Partition[getPartitionCount(partitioningIndex)];
+    for (int i = 0; i < partitions.length; i++) {
+      int unit = firstUnit + i;
+      int[] cells = this.units[unit];
+      Field[] fields = new Field[cells.length];
+      for (int fieldIndex = 0; fieldIndex < cells.length; fieldIndex++) {
+        fields[fieldIndex] = sudoku.getField(cells[fieldIndex] + 1);
+      }
+      partitions[i] = new Partition(partitioning, i + 1, this.unitShapes[unit], fields);
+    }
+    return partitions;
+  }
+
+  /**
+   * Derives a {@link Topology} with an additional {@link Sum} {@link Partitioning} without building a {@link Sudoku}.
+   * This is intended for engines (e.g. a generator checking many candidate cage layouts) and the {@link #getShape(int)
+   * shapes} of the added units are {@code null}.
+   *
+   * @param cages the cells of the cages (the {@link Sum} {@link Partition}s) in the order of their top-left cell.
+   * @param sums the {@link Partition#getSum() sums} of the cages.
+   * @return the new {@link Topology} with the given cages as additional units.
+   */
+  public Topology withSums(int[][] cages, int[] sums) {
+
+    int baseCount = this.units.length;
+    int unitCount = baseCount + cages.length;
+    int[][] newUnits = Arrays.copyOf(this.units, unitCount);
+    int[] newUnitSums = Arrays.copyOf(this.unitSums, unitCount);
+    boolean[] newUnitsComplete = Arrays.copyOf(this.unitsComplete, unitCount);
+    for (int i = 0; i < cages.length; i++) {
+      newUnits[baseCount + i] = cages[i];
+      newUnitSums[baseCount + i] = sums[i];
+      newUnitsComplete[baseCount + i] = (cages[i].length == this.size);
+    }
+    int[] newPartitioningUnits = Arrays.copyOf(this.partitioningUnits, this.partitioningUnits.length + 1);
+    newPartitioningUnits[this.partitioningUnits.length] = unitCount;
+    String newType = this.type;
+    if (newType.endsWith("Sudoku")) {
+      newType = newType.substring(0, newType.length() - 6) + "Sumdoku";
+    }
+    return new Topology(this.size, newUnits, newUnitSums, newUnitsComplete, newPartitioningUnits,
+        Arrays.copyOf(this.unitShapes, unitCount), this.styles, newType);
+  }
+
+  /**
+   * Derives a {@link Topology} where the units of an existing {@link Partitioning} are replaced without building a
+   * {@link Sudoku}. This is intended for engines (e.g. a generator checking many candidate Jigsaw layouts) and the
+   * {@link #getShape(int) shapes} of the replaced units are {@code null} and their {@link #getUnitSum(int) sums}
+   * undefined.
+   *
+   * @param partitioningIndex the {@link Partitioning#getIndex() index} of the {@link Partitioning} to replace.
+   * @param partitions the cells of the new {@link Partition}s. Has to have the same length as
+   *        {@link #getPartitionCount(int) partitions} of the replaced {@link Partitioning}.
+   * @return the new {@link Topology} with the given partitions as units.
+   */
+  public Topology withUnits(int partitioningIndex, int[][] partitions) {
+
+    int firstUnit = getFirstUnit(partitioningIndex);
+    int partitionCount = getPartitionCount(partitioningIndex);
+    if (partitions.length != partitionCount) {
+      throw new IllegalArgumentException(
+          "Expected " + partitionCount + " partitions but got " + partitions.length + ".");
+    }
+    int[][] newUnits = this.units.clone();
+    int[] newUnitSums = this.unitSums.clone();
+    boolean[] newUnitsComplete = this.unitsComplete.clone();
+    Shape[] newUnitShapes = this.unitShapes.clone();
+    for (int i = 0; i < partitionCount; i++) {
+      int unit = firstUnit + i;
+      newUnits[unit] = partitions[i];
+      newUnitSums[unit] = Field.UNDEFINED;
+      newUnitsComplete[unit] = (partitions[i].length == this.size);
+      newUnitShapes[unit] = null;
+    }
+    return new Topology(this.size, newUnits, newUnitSums, newUnitsComplete, this.partitioningUnits, newUnitShapes,
+        this.styles, this.type);
+  }
+
+  /**
+   * @param cell the index of the cell in the range from {@code 0} to <code>{@link #getCellCount()}-1</code>.
+   * @return the {@link Field#getX() x-coordinate} of the given cell.
+   */
+  public int getX(int cell) {
+
+    return (cell % this.size) + 1;
+  }
+
+  /**
+   * @param cell the index of the cell in the range from {@code 0} to <code>{@link #getCellCount()}-1</code>.
+   * @return the {@link Field#getY() y-coordinate} of the given cell.
+   */
+  public int getY(int cell) {
+
+    return (cell / this.size) + 1;
+  }
+
+  /**
+   * @param field the {@link Field}.
+   * @return the index of the cell for the given {@link Field}.
+   */
+  public int getCell(Field field) {
+
+    return field.getCell();
+  }
+
+  /**
+   * @param sudoku the {@link Sudoku} to derive the {@link Topology} from.
+   * @return the {@link Topology} of the given {@link Sudoku}.
+   * @see Sudoku#getTopology()
+   */
+  public static Topology of(Sudoku sudoku) {
+
+    int size = sudoku.getSize();
+    int partitioningCount = sudoku.getPartitioningCount();
+    int[] partitioningUnits = new int[partitioningCount + 1];
+    int unitCount = 0;
+    for (Partitioning partitioning : sudoku) {
+      partitioningUnits[partitioning.getIndex() - 1] = unitCount;
+      unitCount += partitioning.getPartitionCount();
+    }
+    partitioningUnits[partitioningCount] = unitCount;
+    int[][] units = new int[unitCount][];
+    int[] unitSums = new int[unitCount];
+    boolean[] unitsComplete = new boolean[unitCount];
+    Shape[] unitShapes = new Shape[unitCount];
+    int unit = 0;
+    for (Partitioning partitioning : sudoku) {
+      for (Partition partition : partitioning) {
+        int fieldCount = partition.getFieldCount();
+        int[] cells = new int[fieldCount];
+        for (int fieldIndex = 1; fieldIndex <= fieldCount; fieldIndex++) {
+          Field field = partition.getField(fieldIndex);
+          cells[fieldIndex - 1] = (field.getY() - 1) * size + (field.getX() - 1);
+        }
+        units[unit] = cells;
+        unitSums[unit] = partition.getSum();
+        unitsComplete[unit] = partition.isComplete();
+        unitShapes[unit] = partition.getShape();
+        unit++;
+      }
+    }
+    int cellCount = size * size;
+    List<List<String>> styles = new ArrayList<>(cellCount);
+    for (int cell = 0; cell < cellCount; cell++) {
+      styles.add(sudoku.getField(cell + 1).getStyles());
+    }
+    return new Topology(size, units, unitSums, unitsComplete, partitioningUnits, unitShapes, List.copyOf(styles),
+        sudoku.getType());
+  }
+
+}
@@ -0,0 +1,169 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution;
+
+import java.util.Arrays;
+
+import io.github.mmm.sudoku.common.AttributeDifficulty;
+
+/**
+ * The path of {@link Hint}s {@link SudokuSolver#solveLogically(io.github.mmm.sudoku.Sudoku) applied to solve} a
+ * {@link io.github.mmm.sudoku.Sudoku} logically. To stay compact it does not keep the {@link Hint}s but only the
+ * {@link #getStrategy(int) strategy}, {@link #getDifficulty(int) difficulty} and {@link #getEliminations(int)
+ * eliminations} of each step.
+ */
+public class SolvePath implements AttributeDifficulty {
+
+  private String[] strategies;
+
+  private int[] difficulties;
+
+  private int[] eliminations;
+
+  private int stepCount;
+
+  private int remainingCount;
+
+  /**
+   * The constructor.
+   */
+  public SolvePath() {
+
+    super();
+    this.strategies = new String[32];
+    this.difficulties = new int[32];
+    this.eliminations = new int[32];
+  }
+
+  /**
+   * @param strategy the {@link #getStrategy(int) strategy}.
+   * @param difficulty the {@link #getDifficulty(int) difficulty}.
+   * @param eliminationCount the {@link #getEliminations(int) eliminations}.
+   */
+  void add(String strategy, int difficulty, int eliminationCount) {
+
+    if (this.stepCount == this.strategies.length) {
+      int capacity = this.stepCount * 2;
+      this.strategies = Arrays.copyOf(this.strategies, capacity);
+      this.difficulties = Arrays.copyOf(this.difficulties, capacity);
+      this.eliminations = Arrays.copyOf(this.eliminations, capacity);
+    }
+    this.strategies[this.stepCount] = strategy;
+    this.difficulties[this.stepCount] = difficulty;
+    this.eliminations[this.stepCount] = eliminationCount;
+    this.stepCount++;
+  }
+
+  /**
+   * @param remainingCount the {@link #getRemainingCount() remaining count}.
+   */
+  void setRemainingCount(int remainingCount) {
+
+    this.remainingCount = remainingCount;
+  }
+
+  /**
+   * @return the number of steps ({@link Hint}s applied).
+   */
+  public int getStepCount() {
+
+    return this.stepCount;
+  }
+
+  /**
+   * @param i the index of the step in the range from {@code 0} to <code>{@link #getStepCount()}-1</code>.
+   * @return the {@link io.github.mmm.sudoku.solution.strategy.SolutionStrategy#getName() name of the strategy} that
+   *         found the {@link Hint}.
+   */
+  public String getStrategy(int i) {
+
+    checkIndex(i);
+    return this.strategies[i];
+  }
+
+  /**
+   * @param i the index of the step in the range from {@code 0} to <code>{@link #getStepCount()}-1</code>.
+   * @return the {@link Hint#getDifficulty() difficulty} of the {@link Hint}.
+   */
+  public int getDifficulty(int i) {
+
+    checkIndex(i);
+    return this.difficulties[i];
+  }
+
+  /**
+   * @param i the index of the step in the range from {@code 0} to <code>{@link #getStepCount()}-1</code>.
+   * @return the number of {@link io.github.mmm.sudoku.field.Field#getCandidates() candidates} eliminated by the
+   *         {@link Hint}. This includes the candidates of {@link io.github.mmm.sudoku.field.Field}s that got their
+   *         {@link io.github.mmm.sudoku.field.Field#getValue() value} filled in.
+   */
+  public int getEliminations(int i) {
+
+    checkIndex(i);
+    return this.eliminations[i];
+  }
+
+  private void checkIndex(int i) {
+
+    if ((i < 0) || (i >= this.stepCount)) {
+      throw new IndexOutOfBoundsException(i);
+    }
+  }
+
+  /**
+   * @return the maximum {@link #getDifficulty(int) difficulty} of all steps or {@code 0} if there are no steps.
+   */
+  @Override
+  public int getDifficulty() {
+
+    int max = 0;
+    for (int i = 0; i < this.stepCount; i++) {
+      if (this.difficulties[i] > max) {
+        max = this.difficulties[i];
+      }
+    }
+    return max;
+  }
+
+  /**
+   * @return the number of {@link io.github.mmm.sudoku.field.Field}s that do not
+   *         {@link io.github.mmm.sudoku.field.Field#hasValue() have a value} after the last step.
+   */
+  public int getRemainingCount() {
+
+    return this.remainingCount;
+  }
+
+  /**
+   * @return {@code true} if the {@link io.github.mmm.sudoku.Sudoku} was completely solved by the logical steps,
+   *         {@code false} otherwise (no further {@link Hint} could be found).
+   */
+  public boolean isSolved() {
+
+    return this.remainingCount == 0;
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder sb = new StringBuilder(this.stepCount * 24);
+    sb.append(this.stepCount);
+    sb.append(" step(s), ");
+    if (isSolved()) {
+      sb.append("solved");
+    } else {
+      sb.append(this.remainingCount);
+      sb.append(" field(s) remaining");
+    }
+    for (int i = 0; i < this.stepCount; i++) {
+      sb.append('\n');
+      sb.append(this.strategies[i]);
+      sb.append(" (");
+      sb.append(this.difficulties[i]);
+      sb.append("): -");
+      sb.append(this.eliminations[i]);
+    }
+    return sb.toString();
+  }
+
+}
@@ -1,10 +1,20 @@
 package io.github.mmm.sudoku.solution;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+
 import io.github.mmm.sudoku.Sudoku;
-import io.github.mmm.sudoku.common.Candidates;
+import io.github.mmm.sudoku.common.SumCombinations;
 import io.github.mmm.sudoku.field.Field;
-import io.github.mmm.sudoku.history.ChangeSet;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partitioning.Partitioning;
+import io.github.mmm.sudoku.partitioning.Topology;
+import io.github.mmm.sudoku.solution.search.DancingLinks;
+import io.github.mmm.sudoku.solution.search.ParallelSudokuSearch;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
 import io.github.mmm.sudoku.solution.strategy.SolutionStrategy;
+import io.github.mmm.sudoku.solution.strategy.SolutionStrategyByPartition;
 import io.github.mmm.sudoku.solution.strategy.SolutionStrategyHiddenPair;
 import io.github.mmm.sudoku.solution.strategy.SolutionStrategyHiddenSingle;
 import io.github.mmm.sudoku.solution.strategy.SolutionStrategyHiddenTriplet;
@@ -56,20 +66,169 @@ public class SudokuSolver implements Solver {
   }
 
   /**
+   * Solves the given {@link Sudoku} logically by applying {@link #findHint(Sudoku) hints} until the {@link Sudoku} is
+   * solved or no further {@link Hint} can be found. Runs in the fast mode of {@link Sudoku#change(Runnable, boolean)}
+   * without history and events, e.g. to grade large amounts of puzzles.
+   *
+   * @param sudoku the {@link Sudoku} to solve.
+   * @return the {@link SolvePath} with the applied steps.
+   */
+  public SolvePath solveLogically(Sudoku sudoku) {
+
+    return solveLogically(sudoku, false);
+  }
+
+  /**
+   * Solves the given {@link Sudoku} logically by applying {@link #findHint(Sudoku) hints} until the {@link Sudoku} is
+   * solved or no further {@link Hint} can be found.
+   *
+   * @param sudoku the {@link Sudoku} to solve.
+   * @param withHistory - {@code true} to record the entire run as a single {@link Sudoku#getLastChange() change} that
+   *        can be {@link Sudoku#undo() undone} at once, {@code false} to record no history at all and apply the changes
+   *        in the fast mode without events (see {@link Sudoku#change(Runnable, boolean)}).
+   * @return the {@link SolvePath} with the applied steps.
+   */
+  public SolvePath solveLogically(Sudoku sudoku, boolean withHistory) {
+
+    SolvePath path = new SolvePath();
+    sudoku.change(() -> solveLogically(sudoku, path), withHistory);
+    return path;
+  }
+
+  private void solveLogically(Sudoku sudoku, SolvePath path) {
+
+    Hint hint = findHint(sudoku);
+    while (hint != null) {
+      int eliminations = sudoku.getEliminationCounter();
+      hint.apply();
+      List<HintStep> steps = hint.getSteps();
+      String strategy = "";
+      if (!steps.isEmpty()) {
+        strategy = steps.get(0).getName();
+      }
+      path.add(strategy, hint.getDifficulty(), sudoku.getEliminationCounter() - eliminations);
+      hint = findHint(sudoku);
+    }
+    int size = sudoku.getSize();
+    int max = size * size;
+    int remainingCount = 0;
+    for (int i = 1; i <= max; i++) {
+      if (!sudoku.getField(i).hasValue()) {
+        remainingCount++;
+      }
+    }
+    path.setRemainingCount(remainingCount);
+  }
+
+  /**
+   * Same as {@link #findHint(Sudoku)} but scans the {@link Partition}s of each {@link SolutionStrategyByPartition
+   * partition based strategy} concurrently on the given {@link ForkJoinPool}. This reduces the latency for large
+   * {@link Sudoku}s (e.g. 16x16) or such with many layers. The result is deterministic and the same {@link Hint} as
+   * returned by {@link #findHint(Sudoku)}. As the strategies are tried in order of their difficulty, no more difficult
+   * strategy is started before all cheaper ones have been finished without a {@link Hint}.
+   *
+   * @param sudoku the {@link Sudoku} to find a {@link Hint} for. Must not be modified concurrently.
+   * @param pool the {@link ForkJoinPool} to use.
+   * @return the {@link Hint} or {@code null} if no {@link Hint} could be found.
+   */
+  public Hint findHint(Sudoku sudoku, ForkJoinPool pool) {
+
+    prepareConcurrentAccess(sudoku);
+    for (SolutionStrategy strategy : this.strategies) {
+      Hint hint;
+      if (strategy instanceof SolutionStrategyByPartition byPartition) {
+        hint = byPartition.findHint(sudoku, pool);
+      } else {
+        hint = strategy.findHint(sudoku);
+      }
+      if (hint != null) {
+        return hint;
+      }
+    }
+    return null;
+  }
+
+  private static void prepareConcurrentAccess(Sudoku sudoku) {
+
+    // lazy initialization is not thread-safe so do it up-front
+    for (Partitioning partitioning : sudoku) {
+      for (Partition partition : partitioning) {
+        partition.getPartitionMap();
+      }
+    }
+  }
+
+  /**
+   * Computes the solution of the given {@link Sudoku} using {@link SudokuSearch}. The search operates on a lightweight
+   * state without firing events or recording history. Only the result is written back via
+   * {@link Field#setSolution(int)} at the end. For {@link Topology#hasSums() sums} beyond a {@link Topology#getSize()
+   * size} of {@link SumCombinations#MAX_SIZE} {@link DancingLinks} is used instead (see {@link SudokuSearch}).
+   *
    * @param sudoku the {@link Sudoku} to solve.
    * @param fillValues - {@code true} to also {@link Field#setValue(int) fill in the values}, {@code false} to only
    *        compute and {@link Field#setSolution(int) set the solutions}.
+   * @return {@code true} if a solution has been found, {@code false} otherwise (the {@link Sudoku} is inconsistent and
+   *         has no solution).
    */
-  public void solve(Sudoku sudoku, boolean fillValues) {
+  public boolean solve(Sudoku sudoku, boolean fillValues) {
+
+    Topology topology = sudoku.getTopology();
+    if (!isSearchSupported(topology)) {
+      DancingLinks dlx = new DancingLinks(topology);
+      if (!dlx.load(sudoku) || !dlx.solve()) {
+        return false;
+      }
+      setSolutions(sudoku, dlx::getSolution, fillValues);
+      return true;
+    }
+    SudokuSearch search = new SudokuSearch(topology);
+    if (!search.load(sudoku) || !search.solve()) {
+      return false;
+    }
+    setSolutions(sudoku, search::getSolution, fillValues);
+    return true;
+  }
+
+  /**
+   * Computes the solution of the given {@link Sudoku} like {@link #solve(Sudoku, boolean)} but using a
+   * {@link ParallelSudokuSearch} to utilize multiple CPU cores. This is useful for hard and large {@link Sudoku}s (e.g.
+   * 16x16) but has more overhead for simple ones. Falls back to {@link #solve(Sudoku, boolean)} if the {@link Topology}
+   * is not supported by {@link SudokuSearch}.
+   *
+   * @param sudoku the {@link Sudoku} to solve.
+   * @param fillValues - {@code true} to also {@link Field#setValue(int) fill in the values}, {@code false} to only
+   *        compute and {@link Field#setSolution(int) set the solutions}.
+   * @param pool the {@link ForkJoinPool} to run the search on. Its {@link ForkJoinPool#getParallelism() parallelism}
+   *        determines the number of threads to use.
+   * @return {@code true} if a solution has been found, {@code false} otherwise (the {@link Sudoku} is inconsistent and
+   *         has no solution).
+   */
+  public boolean solve(Sudoku sudoku, boolean fillValues, ForkJoinPool pool) {
+
+    if (!isSearchSupported(sudoku.getTopology())) {
+      return solve(sudoku, fillValues);
+    }
+    ParallelSudokuSearch search = new ParallelSudokuSearch(sudoku.getTopology(), pool);
+    if (!search.solve(sudoku)) {
+      return false;
+    }
+    setSolutions(sudoku, search::getSolution, fillValues);
+    return true;
+  }
+
+  private static boolean isSearchSupported(Topology topology) {
+
+    return !topology.hasSums() || (topology.getSize() <= SumCombinations.MAX_SIZE);
+  }
+
+  private void setSolutions(Sudoku sudoku, IntUnaryOperator solutions, boolean fillValues) {
 
-    Sudoku copy = sudoku.copy();
-    doSolve(copy);
     int size = sudoku.getSize();
     int max = size * size;
     for (int i = 1; i <= max; i++) {
       Field field = sudoku.getField(i);
       if (!field.hasSolution()) {
-        field.setSolution(copy.getField(i).getValue());
+        field.setSolution(solutions.applyAsInt(i - 1));
       }
       if (fillValues && !field.hasValue()) {
         sudoku.setFieldValue(field, field.getSolution());
@@ -77,56 +236,62 @@ public class SudokuSolver implements Solver {
     }
   }
 
-  private void doSolve(Sudoku sudoku) {
+  /**
+   * Counts the solutions of the given {@link Sudoku} using {@link DancingLinks}. Only the {@link Field#getValue()
+   * values} are considered and the {@link Sudoku} is not modified. The search stops as soon as {@code limit} solutions
+   * have been found so e.g. a uniqueness check with a {@code limit} of {@code 2} is cheap. If the {@link Sudoku}
+   * {@link Topology#hasSums() has sums} {@link SudokuSearch} is used instead as it propagates the sums while
+   * {@link DancingLinks} can only check them (except beyond a {@link Topology#getSize() size} of
+   * {@link SumCombinations#MAX_SIZE} that is not supported by {@link SudokuSearch}).
+   *
+   * @param sudoku the {@link Sudoku} to count the solutions of.
+   * @param limit the maximum number of solutions to count.
+   * @return the number of solutions in the range from {@code 0} to {@code limit}.
+   */
+  public int countSolutions(Sudoku sudoku, int limit) {
 
-    int size = sudoku.getSize();
-    int max = size * size;
-    for (int i = 1; i <= max; i++) {
-      Field field = sudoku.getField(i);
-      if (!field.hasValue()) {
-        if (field.hasSolution()) {
-          field.setValue(field.getSolution());
-        } else {
-          doSolve(sudoku, i, max, false);
-        }
+    Topology topology = sudoku.getTopology();
+    if (topology.hasSums() && isSearchSupported(topology)) {
+      SudokuSearch search = new SudokuSearch(topology);
+      if (!search.load(sudoku)) {
+        return 0;
       }
+      return search.count(limit);
     }
+    DancingLinks dlx = new DancingLinks(topology);
+    if (!dlx.load(sudoku)) {
+      return 0;
+    }
+    return dlx.count(limit);
   }
 
-  private boolean doSolve(Sudoku sudoku, int i, int max, boolean recursion) {
+  /**
+   * Counts the solutions of the given {@link Sudoku} like {@link #countSolutions(Sudoku, int)} but using a
+   * {@link ParallelSudokuSearch} to utilize multiple CPU cores. Falls back to {@link #countSolutions(Sudoku, int)} if
+   * the {@link Topology} is not supported by {@link SudokuSearch}.
+   *
+   * @param sudoku the {@link Sudoku} to count the solutions of.
+   * @param limit the maximum number of solutions to count.
+   * @param pool the {@link ForkJoinPool} to run the search on.
+   * @return the number of solutions in the range from {@code 0} to {@code limit}.
+   */
+  public int countSolutions(Sudoku sudoku, int limit, ForkJoinPool pool) {
 
-    Field field = sudoku.getField(i);
-    boolean error = false;
-    if (field.isGiven() || field.hasSolution()) {
-      if (i < max) {
-        error = doSolve(sudoku, i + 1, max, true);
-      }
-    } else {
-      Candidates candidates = field.getCandidates();
-      int count = candidates.getInclusionCount();
-      ChangeSet checkpoint = sudoku.getLastChange();
-      if (count > 0) {
-        for (int candidateIndex = 1; candidateIndex <= count; candidateIndex++) {
-          int candidate = candidates.getCandidate(candidateIndex);
-          error = sudoku.setFieldValue(field, candidate);
-          System.out.println(field + " set to value " + candidate);
-          if (!error) {
-            if (i < max) {
-              error = doSolve(sudoku, i + 1, max, true);
-            }
-          }
-          if (error) {
-            boolean undoSuccess = sudoku.undo(checkpoint);
-            assert undoSuccess;
-          } else {
-            break;
-          }
-        }
-      } else {
-        error = true;
-      }
+    if (!isSearchSupported(sudoku.getTopology())) {
+      return countSolutions(sudoku, limit);
     }
-    return error;
+    return new ParallelSudokuSearch(sudoku.getTopology(), pool).count(sudoku, limit);
+  }
+
+  /**
+   * @param sudoku the {@link Sudoku} to check.
+   * @return {@code true} if the given {@link Sudoku} has exactly one solution, {@code false} otherwise (no or multiple
+   *         solutions).
+   * @see #countSolutions(Sudoku, int)
+   */
+  public boolean isUnique(Sudoku sudoku) {
+
+    return countSolutions(sudoku, 2) == 1;
   }
 
   /**
@@ -141,8 +306,8 @@ public class SudokuSolver implements Solver {
   }
 
   /**
-   * @return the singleton instance of {@link SudokuSolver}. May not be thread-safe. To ensure no concurrency problems
-   *         occur, use {@link #of()} instead.
+   * @return the singleton instance of {@link SudokuSolver}. It is thread-safe as long as each thread operates on its
+   *         own {@link Sudoku} as the build-in {@link SolutionStrategy strategies} are stateless.
    */
   public static SudokuSolver get() {
 
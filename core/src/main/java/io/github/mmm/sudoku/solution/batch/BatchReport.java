@@ -0,0 +1,110 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.batch;
+
+/**
+ * Report with the statistics of a
+ * {@link BatchSolver#solve(java.util.stream.Stream, boolean, java.util.function.Consumer) batch}.
+ */
+public class BatchReport {
+
+  private final LatencyHistogram latencies;
+
+  private final long failureCount;
+
+  private final long elapsedNanos;
+
+  /**
+   * The constructor.
+   *
+   * @param latencies the {@link LatencyHistogram} with the {@link BatchResult#getNanos() durations} of all puzzles.
+   * @param failureCount the {@link #getFailureCount() failure count}.
+   * @param elapsedNanos the {@link #getElapsedNanos() elapsed time}.
+   */
+  BatchReport(LatencyHistogram latencies, long failureCount, long elapsedNanos) {
+
+    super();
+    this.latencies = latencies;
+    this.failureCount = failureCount;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * @return the total number of puzzles processed.
+   */
+  public long getCount() {
+
+    return this.latencies.getCount();
+  }
+
+  /**
+   * @return the number of puzzles that have been {@link BatchResult#isSolved() solved}.
+   */
+  public long getSolvedCount() {
+
+    return this.latencies.getCount() - this.failureCount;
+  }
+
+  /**
+   * @return the number of puzzles that could not be {@link BatchResult#isSolved() solved}.
+   */
+  public long getFailureCount() {
+
+    return this.failureCount;
+  }
+
+  /**
+   * @return the wall-clock time in nanoseconds for the entire batch.
+   */
+  public long getElapsedNanos() {
+
+    return this.elapsedNanos;
+  }
+
+  /**
+   * @return the throughput in puzzles per second.
+   */
+  public double getThroughput() {
+
+    if (this.elapsedNanos == 0) {
+      return 0;
+    }
+    return this.latencies.getCount() * 1_000_000_000.0 / this.elapsedNanos;
+  }
+
+  /**
+   * @param percentile the percentile in the range from {@code 0} to {@code 100}.
+   * @return the {@link BatchResult#getNanos() latency} in nanoseconds that the given percentage of all puzzles did not
+   *         exceed. As the latencies are recorded in a histogram of fixed size, the value is rounded up by less than
+   *         1/32 (about 3%).
+   */
+  public long getLatency(double percentile) {
+
+    return this.latencies.getValue(percentile);
+  }
+
+  /**
+   * @return the median {@link #getLatency(double) latency} in nanoseconds.
+   */
+  public long getLatencyP50() {
+
+    return getLatency(50);
+  }
+
+  /**
+   * @return the 99th percentile {@link #getLatency(double) latency} in nanoseconds.
+   */
+  public long getLatencyP99() {
+
+    return getLatency(99);
+  }
+
+  @Override
+  public String toString() {
+
+    return getCount() + " puzzle(s) in " + (this.elapsedNanos / 1_000_000) + "ms (" + Math.round(getThroughput())
+        + "/s), " + this.failureCount + " failure(s), latency p50=" + (getLatencyP50() / 1000) + "us p99="
+        + (getLatencyP99() / 1000) + "us";
+  }
+
+}
@@ -0,0 +1,100 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.batch;
+
+/**
+ * Result of a single puzzle {@link BatchSolver#solve(java.util.stream.Stream, boolean, java.util.function.Consumer)
+ * solved in a batch}.
+ */
+public class BatchResult {
+
+  private final long index;
+
+  private final String puzzle;
+
+  private final String solution;
+
+  private final String error;
+
+  private final long nanos;
+
+  /**
+   * The constructor.
+   *
+   * @param index the {@link #getIndex() index}.
+   * @param puzzle the {@link #getPuzzle() puzzle}.
+   * @param solution the {@link #getSolution() solution}.
+   * @param error the {@link #getError() error}.
+   * @param nanos the {@link #getNanos() duration in nanoseconds}.
+   */
+  public BatchResult(long index, String puzzle, String solution, String error, long nanos) {
+
+    super();
+    this.index = index;
+    this.puzzle = puzzle;
+    this.solution = solution;
+    this.error = error;
+    this.nanos = nanos;
+  }
+
+  /**
+   * @return the zero-based position of the {@link #getPuzzle() puzzle} in the input.
+   */
+  public long getIndex() {
+
+    return this.index;
+  }
+
+  /**
+   * @return the puzzle as given.
+   */
+  public String getPuzzle() {
+
+    return this.puzzle;
+  }
+
+  /**
+   * @return the solution in the same format as the {@link #getPuzzle() puzzle} or {@code null} if not
+   *         {@link #isSolved() solved}.
+   */
+  public String getSolution() {
+
+    return this.solution;
+  }
+
+  /**
+   * @return the reason why the {@link #getPuzzle() puzzle} could not be solved or {@code null} if {@link #isSolved()
+   *         solved}.
+   */
+  public String getError() {
+
+    return this.error;
+  }
+
+  /**
+   * @return {@code true} if solved, {@code false} otherwise (the {@link #getPuzzle() puzzle} is invalid or has no
+   *         solution).
+   */
+  public boolean isSolved() {
+
+    return this.solution != null;
+  }
+
+  /**
+   * @return the duration in nanoseconds it took to solve the {@link #getPuzzle() puzzle}.
+   */
+  public long getNanos() {
+
+    return this.nanos;
+  }
+
+  @Override
+  public String toString() {
+
+    if (this.solution == null) {
+      return "#" + this.index + ": " + this.error;
+    }
+    return "#" + this.index + ": " + this.solution;
+  }
+
+}
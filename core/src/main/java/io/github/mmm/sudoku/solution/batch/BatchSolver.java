@@ -0,0 +1,297 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.batch;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.partitioning.Topology;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+
+/**
+ * Solver for large amounts of puzzles of the same variant. All puzzles share the {@link Topology} of the variant and
+ * are solved with an independent {@link SudokuSearch} on the given {@link Executor} so no {@link Sudoku} objects,
+ * events or shared solution strategies are involved. E.g. use
+ * {@link java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()} for a virtual thread per puzzle or
+ * {@link java.util.concurrent.Executors#newFixedThreadPool(int)} for a dedicated thread per CPU core. The
+ * {@link Executor} has to run or reject (throw {@link RejectedExecutionException}) each task. Rejected puzzles are
+ * reported as failed {@link BatchResult} while silently discarded tasks can not be detected.<br>
+ * A puzzle is given as {@link String} with one character per cell (row by row). Empty cells are represented by
+ * {@code '.'} or {@code '0'}, values as digits or as letters for values from {@code 10} on (a=10, b=11, etc.).
+ * Therefore only variants up to a {@link Topology#getSize() size} of {@value #MAX_SIZE} are supported. This format is
+ * also used by the generators and raters and can be converted via {@link #parse(String, int)} and
+ * {@link #format(int[])}.
+ */
+public class BatchSolver {
+
+  /** The maximum supported {@link Topology#getSize() size} as a value has to be encoded as a single character. */
+  public static final int MAX_SIZE = Character.MAX_RADIX - 1;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchSolver.class);
+
+  private static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+  private final Topology topology;
+
+  private final Executor executor;
+
+  private final int maxInFlight;
+
+  /**
+   * The constructor.
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to solve. Only its structure is used.
+   * @param executor the {@link Executor} to solve the puzzles on.
+   */
+  public BatchSolver(Sudoku variant, Executor executor) {
+
+    this(variant.getTopology(), executor, DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param topology the {@link Topology} of the variant to solve.
+   * @param executor the {@link Executor} to solve the puzzles on.
+   * @param maxInFlight the maximum number of puzzles submitted to the {@link Executor} that have not yet been passed to
+   *        the consumer. Limits the memory consumption for large or infinite {@link Stream}s.
+   */
+  public BatchSolver(Topology topology, Executor executor, int maxInFlight) {
+
+    super();
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive:" + maxInFlight);
+    }
+    if (topology.getSize() > MAX_SIZE) {
+      throw new IllegalArgumentException(
+          "Size " + topology.getSize() + " exceeds the maximum of " + MAX_SIZE + " for the single character format.");
+    }
+    this.topology = topology;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * @return the {@link Topology} shared by all puzzles.
+   */
+  public Topology getTopology() {
+
+    return this.topology;
+  }
+
+  /**
+   * Solves all given puzzles. The {@link Consumer} is always called from the calling thread so it does not need to be
+   * thread-safe.
+   *
+   * @param puzzles the {@link Stream} of puzzles to solve.
+   * @param ordered - {@code true} to pass the {@link BatchResult}s to the {@link Consumer} in the order of the input,
+   *        {@code false} to pass them as soon as they are completed.
+   * @param consumer the {@link Consumer} receiving the {@link BatchResult} of each puzzle.
+   * @return the {@link BatchReport} with the statistics.
+   */
+  public BatchReport solve(Stream<String> puzzles, boolean ordered, Consumer<BatchResult> consumer) {
+
+    long start = System.nanoTime();
+    Statistics statistics = new Statistics(consumer);
+    Iterator<String> iterator = puzzles.iterator();
+    long index = 0;
+    if (ordered) {
+      ArrayDeque<CompletableFuture<BatchResult>> pending = new ArrayDeque<>();
+      while (iterator.hasNext()) {
+        String puzzle = iterator.next();
+        long puzzleIndex = index++;
+        pending.add(submit(puzzleIndex, puzzle));
+        if (pending.size() >= this.maxInFlight) {
+          statistics.accept(pending.poll().join());
+        }
+      }
+      while (!pending.isEmpty()) {
+        statistics.accept(pending.poll().join());
+      }
+    } else {
+      LinkedBlockingQueue<BatchResult> completed = new LinkedBlockingQueue<>();
+      int inFlight = 0;
+      while (iterator.hasNext()) {
+        String puzzle = iterator.next();
+        long puzzleIndex = index++;
+        submit(puzzleIndex, puzzle).thenAccept(completed::add);
+        inFlight++;
+        if (inFlight >= this.maxInFlight) {
+          statistics.accept(take(completed));
+          inFlight--;
+        }
+      }
+      while (inFlight > 0) {
+        statistics.accept(take(completed));
+        inFlight--;
+      }
+    }
+    BatchReport report = statistics.createReport(System.nanoTime() - start);
+    LOG.info("Batch completed: {}", report);
+    return report;
+  }
+
+  /**
+   * @param index the {@link BatchResult#getIndex() index}.
+   * @param puzzle the {@link BatchResult#getPuzzle() puzzle}.
+   * @return the {@link CompletableFuture} that always completes normally with a {@link BatchResult} - also in case of
+   *         an {@link Error} (e.g. {@link StackOverflowError}) or if the {@link Executor} rejected the task. Otherwise
+   *         the number of puzzles in flight would never drain and the caller would block forever.
+   */
+  private CompletableFuture<BatchResult> submit(long index, String puzzle) {
+
+    CompletableFuture<BatchResult> future;
+    try {
+      future = CompletableFuture.supplyAsync(() -> solve(index, puzzle), this.executor);
+    } catch (RejectedExecutionException e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    return future.handle((result, error) -> (result != null) ? result : failure(index, puzzle, error));
+  }
+
+  private static BatchResult failure(long index, String puzzle, Throwable error) {
+
+    Throwable cause = error;
+    if (cause instanceof CompletionException) {
+      cause = cause.getCause();
+    }
+    return new BatchResult(index, puzzle, null, String.valueOf(cause), 0);
+  }
+
+  private static BatchResult take(LinkedBlockingQueue<BatchResult> queue) {
+
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for batch results.", e);
+    }
+  }
+
+  /**
+   * Solves a single puzzle in the calling thread.
+   *
+   * @param index the {@link BatchResult#getIndex() index}.
+   * @param puzzle the {@link BatchResult#getPuzzle() puzzle}.
+   * @return the {@link BatchResult}.
+   */
+  public BatchResult solve(long index, String puzzle) {
+
+    long start = System.nanoTime();
+    String solution = null;
+    String error = null;
+    try {
+      int[] values = parse(puzzle, this.topology.getSize());
+      SudokuSearch search = new SudokuSearch(this.topology);
+      if (search.load(values) && search.solve()) {
+        for (int cell = 0; cell < values.length; cell++) {
+          values[cell] = search.getSolution(cell);
+        }
+        solution = format(values);
+      } else {
+        error = "No solution.";
+      }
+    } catch (RuntimeException e) {
+      error = e.toString();
+    }
+    return new BatchResult(index, puzzle, solution, error, System.nanoTime() - start);
+  }
+
+  /**
+   * Parses a puzzle in the single character format described in {@link BatchSolver}.
+   *
+   * @param puzzle the puzzle with one character per cell (row by row).
+   * @param size the {@link Topology#getSize() size} of the variant.
+   * @return the values indexed by cell with {@code 0} for empty cells.
+   * @throws IllegalArgumentException if the puzzle has the wrong length or contains an illegal character.
+   */
+  public static int[] parse(String puzzle, int size) {
+
+    if (size > MAX_SIZE) {
+      throw new IllegalArgumentException(
+          "Size " + size + " exceeds the maximum of " + MAX_SIZE + " for the single character format.");
+    }
+    int cellCount = size * size;
+    if (puzzle.length() != cellCount) {
+      throw new IllegalArgumentException("Expected " + cellCount + " characters but found " + puzzle.length());
+    }
+    int[] values = new int[cellCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      char c = puzzle.charAt(cell);
+      if (c != '.') {
+        int value = Character.digit(c, Character.MAX_RADIX);
+        if ((value < 0) || (value > size)) {
+          throw new IllegalArgumentException("Illegal character '" + c + "' at index " + cell);
+        }
+        values[cell] = value;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Formats values in the single character format described in {@link BatchSolver}.
+   *
+   * @param values the values indexed by cell with {@code 0} for empty cells.
+   * @return the puzzle with one character per cell (row by row) and {@code '.'} for empty cells.
+   * @throws IllegalArgumentException if a value exceeds {@link #MAX_SIZE}.
+   */
+  public static String format(int[] values) {
+
+    char[] chars = new char[values.length];
+    for (int cell = 0; cell < values.length; cell++) {
+      int value = values[cell];
+      if ((value < 0) || (value > MAX_SIZE)) {
+        throw new IllegalArgumentException("Illegal value " + value + " at index " + cell);
+      } else if (value == 0) {
+        chars[cell] = '.';
+      } else {
+        chars[cell] = Character.forDigit(value, Character.MAX_RADIX);
+      }
+    }
+    return new String(chars);
+  }
+
+  private static class Statistics implements Consumer<BatchResult> {
+
+    private final Consumer<BatchResult> consumer;
+
+    private final LatencyHistogram latencies;
+
+    private long failureCount;
+
+    private Statistics(Consumer<BatchResult> consumer) {
+
+      super();
+      this.consumer = consumer;
+      this.latencies = new LatencyHistogram();
+    }
+
+    @Override
+    public void accept(BatchResult result) {
+
+      this.latencies.record(result.getNanos());
+      if (!result.isSolved()) {
+        this.failureCount++;
+      }
+      this.consumer.accept(result);
+    }
+
+    private BatchReport createReport(long elapsedNanos) {
+
+      return new BatchReport(this.latencies, this.failureCount, elapsedNanos);
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.batch;
+
+/**
+ * Histogram of latencies in nanoseconds with a fixed memory footprint regardless of the number of recorded values so
+ * it can be used for large or infinite batches. Values are counted in log-scaled buckets: each power of two is split
+ * into {@value #SUB_BUCKETS} linear sub-buckets so a {@link #getValue(double) percentile} has a relative error of at
+ * most {@code 1/}{@value #SUB_BUCKETS}. Values below {@value #SUB_BUCKETS} are counted exactly.<br>
+ * <b>ATTENTION:</b> This class is not thread-safe.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+
+  /** Buckets for all exponents up to {@code 62} as {@link #record(long) recorded} values are not negative. */
+  private static final int BUCKET_COUNT = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final long[] buckets;
+
+  private long count;
+
+  private long max;
+
+  LatencyHistogram() {
+
+    super();
+    this.buckets = new long[BUCKET_COUNT];
+  }
+
+  /**
+   * @param nanos the latency to record. Negative values are treated as {@code 0}.
+   */
+  void record(long nanos) {
+
+    long value = Math.max(nanos, 0);
+    this.buckets[getBucket(value)]++;
+    this.count++;
+    if (value > this.max) {
+      this.max = value;
+    }
+  }
+
+  /**
+   * @return the number of {@link #record(long) recorded} values.
+   */
+  long getCount() {
+
+    return this.count;
+  }
+
+  /**
+   * @param percentile the percentile in the range from {@code 0} to {@code 100}.
+   * @return the upper bound of the bucket containing the value that the given percentage of all {@link #record(long)
+   *         recorded} values did not exceed or {@code 0} if empty.
+   */
+  long getValue(double percentile) {
+
+    if (this.count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile / 100 * this.count);
+    if (rank < 1) {
+      rank = 1;
+    } else if (rank > this.count) {
+      rank = this.count;
+    }
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      seen += this.buckets[bucket];
+      if (seen >= rank) {
+        return Math.min(getUpperBound(bucket), this.max);
+      }
+    }
+    return this.max;
+  }
+
+  private static int getBucket(long value) {
+
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+  }
+
+  private static long getUpperBound(int bucket) {
+
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    long lowerBound = ((long) (SUB_BUCKETS + (bucket & SUB_BUCKET_MASK))) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+
+}
@@ -0,0 +1,164 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.rating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.Difficulty;
+import io.github.mmm.sudoku.solution.SolvePath;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+import io.github.mmm.sudoku.solution.batch.BatchSolver;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+
+/**
+ * Rates the {@link Difficulty} of {@link Sudoku} puzzles from their {@link SudokuSolver#solveLogically(Sudoku) logical
+ * solve path}. The score is the {@link DifficultyRating#getHardestStep() hardest step} plus a bonus for the effort of
+ * all steps beyond the trivial ones (derived from the {@link DifficultyRating#getWeightedSum() weighted sum} and the
+ * {@link DifficultyRating#getStepCount() step count}) that is limited so it can raise the rating by about one
+ * {@link Difficulty} at most. If the strategies get stuck the score is {@link Difficulty#EXTREME} plus the
+ * {@link SudokuSearch#getGuessDepth() guess depth} measured by {@link SudokuSearch}.<br>
+ * The rating is deterministic and a {@link DifficultyRater} is thread-safe.
+ */
+public class DifficultyRater {
+
+  /** Maximum bonus for the effort of all steps. */
+  private static final double MAX_BONUS = 9;
+
+  /** Effort (sum of step difficulties beyond trivial ones) per point of bonus. */
+  private static final double EFFORT_PER_BONUS = 10;
+
+  /** Number of puzzles rated in a single task of {@link #rate(Sudoku, List, Executor)}. */
+  private static final int CHUNK_SIZE = 32;
+
+  private final SudokuSolver solver;
+
+  /**
+   * The constructor.
+   */
+  public DifficultyRater() {
+
+    this(SudokuSolver.get());
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param solver the {@link SudokuSolver} with the strategies to rate with.
+   */
+  public DifficultyRater(SudokuSolver solver) {
+
+    super();
+    this.solver = solver;
+  }
+
+  /**
+   * @param sudoku the {@link Sudoku} to rate. Will not be modified.
+   * @return the {@link DifficultyRating}.
+   */
+  public DifficultyRating rate(Sudoku sudoku) {
+
+    Sudoku copy = sudoku.copy();
+    if (!copy.isSpecified()) {
+      copy.setSpecified();
+    }
+    return rateInPlace(copy);
+  }
+
+  /**
+   * Rates all given puzzles in parallel on the given {@link Executor} (e.g. a {@link java.util.concurrent.ForkJoinPool}
+   * or a fixed thread pool with a thread per CPU core).
+   *
+   * @param variant an (empty) {@link Sudoku} of the variant to rate. Only its structure is used.
+   * @param puzzles the puzzles to rate. Each puzzle is given as {@link String} with one character per cell (row by row)
+   *        in the same format as for {@link BatchSolver} (see {@link BatchSolver#parse(String, int)}).
+   * @param executor the {@link Executor} to rate on.
+   * @return the {@link List} of {@link DifficultyRating}s in the order of the given {@code puzzles}.
+   */
+  public List<DifficultyRating> rate(Sudoku variant, List<String> puzzles, Executor executor) {
+
+    int count = puzzles.size();
+    DifficultyRating[] ratings = new DifficultyRating[count];
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int start = 0; start < count; start += CHUNK_SIZE) {
+      int chunkStart = start;
+      int chunkEnd = Math.min(start + CHUNK_SIZE, count);
+      // copy in the calling thread so the task exclusively owns its template
+      Sudoku template = variant.copy();
+      futures.add(CompletableFuture.runAsync(() -> {
+        for (int i = chunkStart; i < chunkEnd; i++) {
+          Sudoku sudoku = template.copy();
+          load(sudoku, puzzles.get(i));
+          ratings[i] = rateInPlace(sudoku);
+        }
+      }, executor));
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return Arrays.asList(ratings);
+  }
+
+  /**
+   * @param hardestStep the {@link DifficultyRating#getHardestStep() hardest step}.
+   * @param weightedSum the {@link DifficultyRating#getWeightedSum() weighted sum}.
+   * @param stepCount the {@link DifficultyRating#getStepCount() step count}.
+   * @return the {@link DifficultyRating#getScore() score} of a puzzle that can be solved logically with the given
+   *         figures.
+   */
+  public static double score(int hardestStep, int weightedSum, int stepCount) {
+
+    return hardestStep + Math.min(MAX_BONUS, (weightedSum - stepCount) / EFFORT_PER_BONUS);
+  }
+
+  private static void load(Sudoku sudoku, String puzzle) {
+
+    int size = sudoku.getSize();
+    int[] values = BatchSolver.parse(puzzle, size);
+    for (int cell = 0; cell < values.length; cell++) {
+      if (values[cell] > 0) {
+        sudoku.setFieldGivenValue((cell % size) + 1, (cell / size) + 1, values[cell]);
+      }
+    }
+    sudoku.setSpecified();
+  }
+
+  private DifficultyRating rateInPlace(Sudoku sudoku) {
+
+    SolvePath path = this.solver.solveLogically(sudoku);
+    int stepCount = path.getStepCount();
+    int hardestStep = 0;
+    int weightedSum = 0;
+    for (int i = 0; i < stepCount; i++) {
+      int difficulty = path.getDifficulty(i);
+      weightedSum += difficulty;
+      if (difficulty > hardestStep) {
+        hardestStep = difficulty;
+      }
+    }
+    double score;
+    int guessDepth = 0;
+    if (path.isSolved()) {
+      score = score(hardestStep, weightedSum, stepCount);
+    } else {
+      SudokuSearch search = new SudokuSearch(sudoku.getTopology());
+      if (!search.load(sudoku) || !search.solve()) {
+        throw new IllegalArgumentException("Sudoku has no solution.");
+      }
+      guessDepth = Math.max(1, search.getGuessDepth()); // propagation of search may be stronger in rare cases
+      score = Difficulty.EXTREME.getScore() + guessDepth;
+    }
+    return new DifficultyRating(score, hardestStep, weightedSum, stepCount, guessDepth);
+  }
+
+}
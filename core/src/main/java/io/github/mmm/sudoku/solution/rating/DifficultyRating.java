@@ -0,0 +1,124 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.rating;
+
+import io.github.mmm.sudoku.common.Difficulty;
+
+/**
+ * The rating of a {@link io.github.mmm.sudoku.Sudoku} puzzle computed by {@link DifficultyRater}.
+ */
+public class DifficultyRating {
+
+  private final double score;
+
+  private final Difficulty difficulty;
+
+  private final int hardestStep;
+
+  private final int weightedSum;
+
+  private final int stepCount;
+
+  private final int guessDepth;
+
+  /**
+   * The constructor.
+   *
+   * @param score the {@link #getScore() score}.
+   * @param hardestStep the {@link #getHardestStep() hardest step}.
+   * @param weightedSum the {@link #getWeightedSum() weighted sum}.
+   * @param stepCount the {@link #getStepCount() step count}.
+   * @param guessDepth the {@link #getGuessDepth() guess depth}.
+   */
+  public DifficultyRating(double score, int hardestStep, int weightedSum, int stepCount, int guessDepth) {
+
+    super();
+    this.score = score;
+    this.difficulty = Difficulty.ofScore(score);
+    this.hardestStep = hardestStep;
+    this.weightedSum = weightedSum;
+    this.stepCount = stepCount;
+    this.guessDepth = guessDepth;
+  }
+
+  /**
+   * @return the computed score.
+   * @see Difficulty#ofScore(double)
+   */
+  public double getScore() {
+
+    return this.score;
+  }
+
+  /**
+   * @return the {@link Difficulty} {@link Difficulty#ofScore(double) of} the {@link #getScore() score}.
+   */
+  public Difficulty getDifficulty() {
+
+    return this.difficulty;
+  }
+
+  /**
+   * @return the highest {@link io.github.mmm.sudoku.solution.Hint#getDifficulty() difficulty} of all logical steps.
+   */
+  public int getHardestStep() {
+
+    return this.hardestStep;
+  }
+
+  /**
+   * @return the sum of the {@link io.github.mmm.sudoku.solution.Hint#getDifficulty() difficulties} of all logical
+   *         steps.
+   */
+  public int getWeightedSum() {
+
+    return this.weightedSum;
+  }
+
+  /**
+   * @return the number of logical steps.
+   */
+  public int getStepCount() {
+
+    return this.stepCount;
+  }
+
+  /**
+   * @return the {@link io.github.mmm.sudoku.solution.search.SudokuSearch#getGuessDepth() number of nested guesses}
+   *         required after the logical steps got stuck or {@code 0} if the puzzle could be solved logically.
+   */
+  public int getGuessDepth() {
+
+    return this.guessDepth;
+  }
+
+  /**
+   * @return {@code true} if the puzzle could be solved by logical steps only, {@code false} otherwise (guessing was
+   *         required).
+   */
+  public boolean isSolvedLogically() {
+
+    return this.guessDepth == 0;
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder sb = new StringBuilder(64);
+    sb.append(this.difficulty);
+    sb.append(" (");
+    sb.append(String.format("%.1f", this.score));
+    sb.append("): ");
+    sb.append(this.stepCount);
+    sb.append(" step(s), hardest ");
+    sb.append(this.hardestStep);
+    sb.append(", sum ");
+    sb.append(this.weightedSum);
+    if (this.guessDepth > 0) {
+      sb.append(", guess depth ");
+      sb.append(this.guessDepth);
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,406 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.search;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partitioning.Partitioning;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Solver for a {@link Sudoku} based on Knuth's Dancing Links (DLX) for exact cover problems. The exact cover matrix is
+ * generated from the {@link Topology} and therefore works for any combination of {@link Partitioning}s without
+ * variant specific code:
+ * <ul>
+ * <li>Each row represents a cell with a value.</li>
+ * <li>Each cell is a primary column (the cell has exactly one value).</li>
+ * <li>Each value of a {@link Partition#isComplete() complete} {@link Partition} is a primary column (the value occurs
+ * exactly once).</li>
+ * <li>Each value of an incomplete {@link Partition} is a secondary column (the value occurs at most once).</li>
+ * </ul>
+ * {@link Partition#getSum() Sums} are not expressible as exact cover and are checked incrementally whenever a row is
+ * selected.<br>
+ * The matrix is allocated once in flat {@code int} arrays so {@link #solve() solving} and {@link #count(int) counting}
+ * do not allocate any objects.<br>
+ * <b>ATTENTION:</b> An instance of {@link DancingLinks} is stateful and not thread-safe. Create a new instance for each
+ * thread while the {@link Topology} can be shared.
+ */
+public class DancingLinks {
+
+  private static final int ROOT = 0;
+
+  private final Topology topology;
+
+  private final int size;
+
+  private final int cellCount;
+
+  private final int[] left;
+
+  private final int[] right;
+
+  private final int[] up;
+
+  private final int[] down;
+
+  private final int[] column;
+
+  private final int[] row;
+
+  private final int[] columnSize;
+
+  private final int[] rowStart;
+
+  private final boolean[] covered;
+
+  private final int[] values;
+
+  private final int[] unitSums;
+
+  private final int[] unitCounts;
+
+  private final int[] solution;
+
+  private final int[] stack;
+
+  private int stackSize;
+
+  private boolean solved;
+
+  private int limit;
+
+  private int count;
+
+  /**
+   * The constructor.
+   *
+   * @param topology the {@link Topology} of the {@link Sudoku} to solve.
+   */
+  public DancingLinks(Topology topology) {
+
+    super();
+    this.topology = topology;
+    this.size = topology.getSize();
+    this.cellCount = topology.getCellCount();
+    int unitCount = topology.getUnitCount();
+    int columnCount = this.cellCount + unitCount * this.size;
+    int rowCount = this.cellCount * this.size;
+    int nodeCount = 1 + columnCount;
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      nodeCount += (1 + topology.getUnitsOfCell(cell).length) * this.size;
+    }
+    this.left = new int[nodeCount];
+    this.right = new int[nodeCount];
+    this.up = new int[nodeCount];
+    this.down = new int[nodeCount];
+    this.column = new int[nodeCount];
+    this.row = new int[nodeCount];
+    this.columnSize = new int[columnCount + 1];
+    this.rowStart = new int[rowCount];
+    this.covered = new boolean[columnCount + 1];
+    this.values = new int[this.cellCount];
+    this.unitSums = new int[unitCount];
+    this.unitCounts = new int[unitCount];
+    this.solution = new int[this.cellCount];
+    this.stack = new int[this.cellCount];
+    // column headers: primary columns are linked into the root list, secondary columns only to themselves
+    this.left[ROOT] = ROOT;
+    this.right[ROOT] = ROOT;
+    for (int header = 1; header <= columnCount; header++) {
+      this.up[header] = header;
+      this.down[header] = header;
+      this.column[header] = header;
+      this.row[header] = -1;
+      boolean primary = true;
+      if (header > this.cellCount) {
+        int unit = (header - 1 - this.cellCount) / this.size;
+        primary = topology.isUnitComplete(unit);
+      }
+      if (primary) {
+        this.left[header] = this.left[ROOT];
+        this.right[header] = ROOT;
+        this.right[this.left[ROOT]] = header;
+        this.left[ROOT] = header;
+      } else {
+        this.left[header] = header;
+        this.right[header] = header;
+      }
+    }
+    int node = columnCount + 1;
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      int[] cellUnits = topology.getUnitsOfCell(cell);
+      for (int value = 1; value <= this.size; value++) {
+        int rowIndex = cell * this.size + value - 1;
+        int first = node;
+        this.rowStart[rowIndex] = first;
+        this.left[first] = first;
+        this.right[first] = first;
+        node = addNode(node, first, rowIndex, 1 + cell);
+        for (int unit : cellUnits) {
+          node = addNode(node, first, rowIndex, getColumn(unit, value));
+        }
+      }
+    }
+  }
+
+  private int getColumn(int unit, int value) {
+
+    return 1 + this.cellCount + unit * this.size + value - 1;
+  }
+
+  private int addNode(int node, int first, int rowIndex, int header) {
+
+    this.column[node] = header;
+    this.row[node] = rowIndex;
+    this.up[node] = this.up[header];
+    this.down[node] = header;
+    this.down[this.up[header]] = node;
+    this.up[header] = node;
+    this.columnSize[header]++;
+    this.left[node] = this.left[first];
+    this.right[node] = first;
+    this.right[this.left[first]] = node;
+    this.left[first] = node;
+    return node + 1;
+  }
+
+  /**
+   * @return the {@link Topology}.
+   */
+  public Topology getTopology() {
+
+    return this.topology;
+  }
+
+  /**
+   * Resets this solver to an empty board without any values.
+   */
+  public void reset() {
+
+    while (this.stackSize > 0) {
+      unselect(this.stack[--this.stackSize]);
+    }
+    this.solved = false;
+  }
+
+  /**
+   * {@link #reset() Resets} this solver and assigns all {@link Field#getValue() values} of the given {@link Sudoku}.
+   * Existing {@link Field#getSolution() solutions} are ignored so that {@link #count(int) counting} considers all
+   * possible solutions.
+   *
+   * @param sudoku the {@link Sudoku} to load. Has to have the same {@link Topology}.
+   * @return {@code true} if successfully loaded, {@code false} if the {@link Sudoku} is inconsistent.
+   */
+  public boolean load(Sudoku sudoku) {
+
+    reset();
+    int[] values = sudoku.getState().getValues();
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      int value = values[cell];
+      if ((value != Field.UNDEFINED) && !assign(cell, value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Assigns the given {@code value} to the given {@code cell}.
+   *
+   * @param cell the index of the cell.
+   * @param value the value to assign in the range from {@code 1} to {@link Topology#getSize() size}.
+   * @return {@code true} if successful, {@code false} if the assignment contradicts a previous assignment (what leaves
+   *         the state unmodified).
+   */
+  public boolean assign(int cell, int value) {
+
+    int rowIndex = cell * this.size + value - 1;
+    int first = this.rowStart[rowIndex];
+    int node = first;
+    do {
+      if (this.covered[this.column[node]]) {
+        return (this.values[cell] == value);
+      }
+      node = this.right[node];
+    } while (node != first);
+    if (!select(first)) {
+      unselect(first);
+      return false;
+    }
+    this.stack[this.stackSize++] = first;
+    return true;
+  }
+
+  private void cover(int header) {
+
+    this.covered[header] = true;
+    this.right[this.left[header]] = this.right[header];
+    this.left[this.right[header]] = this.left[header];
+    for (int i = this.down[header]; i != header; i = this.down[i]) {
+      for (int j = this.right[i]; j != i; j = this.right[j]) {
+        this.down[this.up[j]] = this.down[j];
+        this.up[this.down[j]] = this.up[j];
+        this.columnSize[this.column[j]]--;
+      }
+    }
+  }
+
+  private void uncover(int header) {
+
+    for (int i = this.up[header]; i != header; i = this.up[i]) {
+      for (int j = this.left[i]; j != i; j = this.left[j]) {
+        this.columnSize[this.column[j]]++;
+        this.down[this.up[j]] = j;
+        this.up[this.down[j]] = j;
+      }
+    }
+    this.right[this.left[header]] = header;
+    this.left[this.right[header]] = header;
+    this.covered[header] = false;
+  }
+
+  /**
+   * Selects the row of the given node by covering all its columns and updating the sums.
+   *
+   * @param node the first node of the row to select.
+   * @return {@code true} if the sums are still valid, {@code false} otherwise. In both cases the selection has to be
+   *         reverted via {@link #unselect(int)}.
+   */
+  private boolean select(int node) {
+
+    int rowIndex = this.row[node];
+    int cell = rowIndex / this.size;
+    int value = rowIndex % this.size + 1;
+    this.values[cell] = value;
+    int j = node;
+    do {
+      cover(this.column[j]);
+      j = this.right[j];
+    } while (j != node);
+    boolean valid = true;
+    for (int unit : this.topology.getUnitsOfCell(cell)) {
+      int unitSum = this.unitSums[unit] + value;
+      this.unitSums[unit] = unitSum;
+      int unitCount = this.unitCounts[unit] + 1;
+      this.unitCounts[unit] = unitCount;
+      int sum = this.topology.getUnitSum(unit);
+      if ((sum > 0) && ((unitSum > sum) || ((unitCount == this.topology.getUnit(unit).length) && (unitSum != sum)))) {
+        valid = false;
+      }
+    }
+    return valid;
+  }
+
+  private void unselect(int node) {
+
+    int rowIndex = this.row[node];
+    int cell = rowIndex / this.size;
+    int value = rowIndex % this.size + 1;
+    for (int unit : this.topology.getUnitsOfCell(cell)) {
+      this.unitSums[unit] -= value;
+      this.unitCounts[unit]--;
+    }
+    int j = this.left[node];
+    while (j != node) {
+      uncover(this.column[j]);
+      j = this.left[j];
+    }
+    uncover(this.column[node]);
+    this.values[cell] = 0;
+  }
+
+  /**
+   * Searches for the first solution.
+   *
+   * @return {@code true} if a solution was found, {@code false} otherwise (no solution exists).
+   */
+  public boolean solve() {
+
+    return count(1) > 0;
+  }
+
+  /**
+   * Counts the solutions up to the given {@code limit}.
+   *
+   * @param limit the maximum number of solutions to count. The search stops as soon as this limit is reached.
+   * @return the number of solutions found. Will be in the range from {@code 0} to {@code limit}.
+   */
+  public int count(int limit) {
+
+    this.limit = limit;
+    this.count = 0;
+    this.solved = false;
+    if (limit > 0) {
+      search();
+    }
+    return this.count;
+  }
+
+  /**
+   * @return {@code true} if exactly one solution exists, {@code false} otherwise.
+   */
+  public boolean isUnique() {
+
+    return count(2) == 1;
+  }
+
+  private void search() {
+
+    int header = this.right[ROOT];
+    if (header == ROOT) {
+      if (this.count == 0) {
+        System.arraycopy(this.values, 0, this.solution, 0, this.cellCount);
+        this.solved = true;
+      }
+      this.count++;
+      return;
+    }
+    int minSize = this.columnSize[header];
+    for (int c = this.right[header]; (c != ROOT) && (minSize > 1); c = this.right[c]) {
+      int columnSize = this.columnSize[c];
+      if (columnSize < minSize) {
+        minSize = columnSize;
+        header = c;
+      }
+    }
+    if (minSize == 0) {
+      return;
+    }
+    for (int node = this.down[header]; node != header; node = this.down[node]) {
+      int first = this.rowStart[this.row[node]];
+      if (select(first)) {
+        this.stack[this.stackSize++] = first;
+        search();
+        this.stackSize--;
+      }
+      unselect(first);
+      if (this.count >= this.limit) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the value of the given cell in the first solution found by the last call of {@link #count(int)} or
+   *         {@link #solve()}.
+   */
+  public int getSolution(int cell) {
+
+    if (!this.solved) {
+      throw new IllegalStateException("No solution found.");
+    }
+    return this.solution[cell];
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the currently assigned value of the given cell or {@code 0} if not assigned.
+   */
+  public int getValue(int cell) {
+
+    return this.values[cell];
+  }
+
+}
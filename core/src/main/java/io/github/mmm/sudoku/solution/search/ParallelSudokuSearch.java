@@ -0,0 +1,276 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Parallel variant of {@link SudokuSearch} based on a {@link ForkJoinPool}. The search tree is split at the cell with
+ * the fewest candidates (see {@link SudokuSearch#selectCell()}) into one task per candidate until there are enough
+ * tasks to keep all workers busy via work stealing. Each task then continues with a sequential {@link SudokuSearch} on
+ * its own copy of the state. As soon as a solution (or the requested number of solutions) has been found, all other
+ * tasks are cancelled cooperatively.<br>
+ * A pending task only holds a snapshot of the values and candidates (shared by all tasks of the same split) and the
+ * assignment to apply. The {@link SudokuSearch} with its trail (what is large for big sizes) is only borrowed while a
+ * task is computed and reused afterwards so there are never more of them than tasks computed at the same time.<br>
+ * <b>ATTENTION:</b> If the {@link Sudoku} has multiple solutions, the solution found is not deterministic. An instance
+ * of {@link ParallelSudokuSearch} must not be used for multiple searches at the same time.
+ */
+public class ParallelSudokuSearch {
+
+  /** The number of tasks per {@link ForkJoinPool#getParallelism() worker} to create by splitting. */
+  private static final int TASKS_PER_WORKER = 32;
+
+  private final Topology topology;
+
+  private final ForkJoinPool pool;
+
+  private final int targetTasks;
+
+  private final AtomicInteger count;
+
+  private final LongAdder nodeCount;
+
+  private final LongAdder backtrackCount;
+
+  private volatile boolean done;
+
+  private final ConcurrentLinkedQueue<Worker> idleWorkers;
+
+  private volatile int[] solution;
+
+  private int limit;
+
+  /**
+   * The constructor.
+   *
+   * @param topology the {@link Topology} of the {@link Sudoku} to solve.
+   * @param pool the {@link ForkJoinPool} to use. Its {@link ForkJoinPool#getParallelism() parallelism} determines how
+   *        many threads are used.
+   */
+  public ParallelSudokuSearch(Topology topology, ForkJoinPool pool) {
+
+    super();
+    this.topology = topology;
+    this.pool = pool;
+    this.targetTasks = pool.getParallelism() * TASKS_PER_WORKER;
+    this.count = new AtomicInteger();
+    this.nodeCount = new LongAdder();
+    this.backtrackCount = new LongAdder();
+    this.idleWorkers = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * @return the {@link Topology}.
+   */
+  public Topology getTopology() {
+
+    return this.topology;
+  }
+
+  /**
+   * @param sudoku the {@link Sudoku} to solve. Has to have the same {@link Topology}.
+   * @return {@code true} if a solution was found, {@code false} otherwise (no solution exists).
+   * @see SudokuSearch#load(Sudoku)
+   */
+  public boolean solve(Sudoku sudoku) {
+
+    return count(sudoku, 1) > 0;
+  }
+
+  /**
+   * @param sudoku the {@link Sudoku} to count the solutions of. Has to have the same {@link Topology}.
+   * @param limit the maximum number of solutions to count. All tasks are cancelled as soon as this limit is reached.
+   * @return the number of solutions found. Will be in the range from {@code 0} to {@code limit}.
+   * @see SudokuSearch#load(Sudoku)
+   */
+  public int count(Sudoku sudoku, int limit) {
+
+    this.limit = limit;
+    this.count.set(0);
+    this.done = false;
+    this.solution = null;
+    this.nodeCount.reset();
+    this.backtrackCount.reset();
+    if (limit <= 0) {
+      return 0;
+    }
+    int cellCount = this.topology.getCellCount();
+    int[] values = new int[cellCount];
+    long[] masks = new long[cellCount];
+    Worker root = acquireWorker();
+    try {
+      if (!root.load(sudoku) || !root.propagate()) {
+        return 0;
+      }
+      root.save(values, masks);
+    } finally {
+      this.idleWorkers.add(root);
+    }
+    this.pool.invoke(new SearchTask(values, masks, -1, 0, 1));
+    return Math.min(this.count.get(), limit);
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the value of the given cell in the first solution found by the last call of {@link #solve(Sudoku)} or
+   *         {@link #count(Sudoku, int)}.
+   */
+  public int getSolution(int cell) {
+
+    int[] values = this.solution;
+    if (values == null) {
+      throw new IllegalStateException("No solution found.");
+    }
+    return values[cell];
+  }
+
+  /**
+   * @return the total number of nodes visited by all tasks of the last search.
+   * @see SudokuSearch#getNodeCount()
+   */
+  public long getNodeCount() {
+
+    return this.nodeCount.sum();
+  }
+
+  /**
+   * @return the total number of dead ends hit by all tasks of the last search.
+   * @see SudokuSearch#getBacktrackCount()
+   */
+  public long getBacktrackCount() {
+
+    return this.backtrackCount.sum();
+  }
+
+  private Worker acquireWorker() {
+
+    Worker worker = this.idleWorkers.poll();
+    if (worker == null) {
+      worker = new Worker(this.topology);
+    }
+    return worker;
+  }
+
+  private class Worker extends SudokuSearch {
+
+    private Worker(Topology topology) {
+
+      super(topology);
+    }
+
+    @Override
+    protected boolean onSolution() {
+
+      int solutionCount = ParallelSudokuSearch.this.count.incrementAndGet();
+      if (solutionCount == 1) {
+        int cellCount = getTopology().getCellCount();
+        int[] values = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+          values[cell] = getValue(cell);
+        }
+        ParallelSudokuSearch.this.solution = values;
+      }
+      if (solutionCount >= ParallelSudokuSearch.this.limit) {
+        ParallelSudokuSearch.this.done = true;
+      }
+      return ParallelSudokuSearch.this.done;
+    }
+
+    @Override
+    protected boolean isCancelled() {
+
+      return ParallelSudokuSearch.this.done;
+    }
+  }
+
+  private class SearchTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The propagated state of the parent shared by all its child tasks. Must not be modified. */
+    private final int[] values;
+
+    /** The candidates of the parent shared by all its child tasks. Must not be modified. */
+    private final long[] masks;
+
+    /** The cell to assign or {@code -1} for the root task. */
+    private final int cell;
+
+    private final int value;
+
+    private final long estimatedTasks;
+
+    private SearchTask(int[] values, long[] masks, int cell, int value, long estimatedTasks) {
+
+      super();
+      this.values = values;
+      this.masks = masks;
+      this.cell = cell;
+      this.value = value;
+      this.estimatedTasks = estimatedTasks;
+    }
+
+    @Override
+    protected void compute() {
+
+      if (ParallelSudokuSearch.this.done) {
+        return;
+      }
+      List<SearchTask> tasks;
+      Worker worker = acquireWorker();
+      try {
+        tasks = split(worker);
+      } finally {
+        ParallelSudokuSearch.this.idleWorkers.add(worker);
+      }
+      if (tasks != null) {
+        invokeAll(tasks);
+      }
+    }
+
+    /**
+     * @param worker the {@link Worker} to use. Must not be used by the returned child tasks.
+     * @return the child tasks to invoke or {@code null} if this task has been completed.
+     */
+    private List<SearchTask> split(Worker worker) {
+
+      worker.load(this.values, this.masks);
+      if ((this.cell >= 0) && !(worker.assign(this.cell, this.value) && worker.propagate())) {
+        ParallelSudokuSearch.this.backtrackCount.increment();
+        return null;
+      }
+      int splitCell = worker.selectCell();
+      if ((splitCell < 0) || (this.estimatedTasks >= ParallelSudokuSearch.this.targetTasks)) {
+        worker.count(Integer.MAX_VALUE);
+        ParallelSudokuSearch.this.nodeCount.add(worker.getNodeCount());
+        ParallelSudokuSearch.this.backtrackCount.add(worker.getBacktrackCount());
+        return null;
+      }
+      ParallelSudokuSearch.this.nodeCount.increment();
+      int cellCount = ParallelSudokuSearch.this.topology.getCellCount();
+      int[] childValues = new int[cellCount];
+      long[] childMasks = new long[cellCount];
+      worker.save(childValues, childMasks);
+      long mask = childMasks[splitCell];
+      long childTasks = this.estimatedTasks * Long.bitCount(mask);
+      List<SearchTask> tasks = new ArrayList<>(Long.bitCount(mask));
+      while (mask != 0) {
+        long bit = mask & -mask;
+        mask = mask ^ bit;
+        tasks.add(new SearchTask(childValues, childMasks, splitCell, Long.numberOfTrailingZeros(bit) + 1, childTasks));
+      }
+      return tasks;
+    }
+  }
+
+}
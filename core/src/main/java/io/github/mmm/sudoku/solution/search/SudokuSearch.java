@@ -0,0 +1,671 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.search;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.SumCombinations;
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Backtracking search engine to solve a {@link Sudoku}. Other than the {@link Sudoku} itself it operates on flat
+ * arrays with the candidates of each cell as {@code long} bit mask and uses the precomputed peers of the
+ * {@link Topology}. It does not fire any events, records no history and does not allocate any objects during the
+ * search. Changes are recorded on a preallocated trail so backtracking is done by simply restoring the previous masks.
+ * <br>
+ * Before each branching naked singles and hidden singles are {@link #propagate() propagated} until a fixpoint is
+ * reached. For units with a {@link Topology#getUnitSum(int) sum} (cages of a Sumdoku or Killer) the candidates are
+ * further restricted by the {@link SumCombinations} of the remaining sum (see {@link #propagate()}). Then the search
+ * branches on the cell with the fewest candidates (minimum remaining values).<br>
+ * <b>ATTENTION:</b> An instance of {@link SudokuSearch} is stateful and not thread-safe. Create a new instance for each
+ * thread while the {@link Topology} can be shared.
+ */
+public class SudokuSearch {
+
+  private final Topology topology;
+
+  private final int cellCount;
+
+  private final int[] values;
+
+  private final long[] masks;
+
+  private final int[] trailCells;
+
+  private final long[] trailMasks;
+
+  private final int[] solution;
+
+  private final int[] queue;
+
+  private int queueSize;
+
+  private int trailSize;
+
+  private boolean solved;
+
+  private int limit;
+
+  private int count;
+
+  private long nodeCount;
+
+  private long backtrackCount;
+
+  private int depth;
+
+  private SplittableRandom random;
+
+  private int guessDepth;
+
+  private final int[] sumUnits;
+
+  private final SumCombinations sumCombinations;
+
+  /**
+   * The constructor.
+   *
+   * @param topology the {@link Topology} of the {@link Sudoku} to solve. If it {@link Topology#hasSums() has sums}, its
+   *        {@link Topology#getSize() size} must not exceed {@link SumCombinations#MAX_SIZE}.
+   */
+  public SudokuSearch(Topology topology) {
+
+    super();
+    this.topology = topology;
+    this.cellCount = topology.getCellCount();
+    this.values = new int[this.cellCount];
+    this.masks = new long[this.cellCount];
+    int trailCapacity = this.cellCount * (topology.getSize() + 1);
+    this.trailCells = new int[trailCapacity];
+    this.trailMasks = new long[trailCapacity];
+    this.solution = new int[this.cellCount];
+    this.queue = new int[this.cellCount];
+    int unitCount = topology.getUnitCount();
+    int sumUnitCount = 0;
+    for (int unit = 0; unit < unitCount; unit++) {
+      if (topology.getUnitSum(unit) > 0) {
+        sumUnitCount++;
+      }
+    }
+    this.sumUnits = new int[sumUnitCount];
+    sumUnitCount = 0;
+    for (int unit = 0; unit < unitCount; unit++) {
+      if (topology.getUnitSum(unit) > 0) {
+        this.sumUnits[sumUnitCount++] = unit;
+      }
+    }
+    if (sumUnitCount == 0) {
+      this.sumCombinations = null;
+    } else {
+      if (topology.getSize() > SumCombinations.MAX_SIZE) {
+        throw new IllegalArgumentException("Sums are only supported up to a size of " + SumCombinations.MAX_SIZE
+            + " but the size is " + topology.getSize() + " - use DancingLinks instead.");
+      }
+      this.sumCombinations = SumCombinations.of(topology.getSize());
+    }
+    // empty board like reset() that must not be called here as it is overridable
+    Arrays.fill(this.masks, topology.getAllMask());
+  }
+
+  /**
+   * @return the {@link Topology}.
+   */
+  public Topology getTopology() {
+
+    return this.topology;
+  }
+
+  /**
+   * Resets this search to an empty board where all cells have all candidates.
+   */
+  public void reset() {
+
+    long allMask = this.topology.getAllMask();
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      this.values[cell] = 0;
+      this.masks[cell] = allMask;
+    }
+    this.trailSize = 0;
+    this.queueSize = 0;
+    this.solved = false;
+  }
+
+  /**
+   * {@link #reset() Resets} this search and {@link #assign(int, int) assigns} all {@link Field#getValue() values} of
+   * the given {@link Sudoku}. Existing {@link Field#getSolution() solutions} are ignored.
+   *
+   * @param sudoku the {@link Sudoku} to load. Has to have the same {@link Topology}.
+   * @return {@code true} if successfully loaded, {@code false} if the {@link Sudoku} is inconsistent.
+   */
+  public boolean load(Sudoku sudoku) {
+
+    return load(sudoku.getState().getValues());
+  }
+
+  /**
+   * {@link #reset() Resets} this search and {@link #assign(int, int) assigns} the given values.
+   *
+   * @param cellValues the values indexed by cell with {@code 0} (or {@link Field#UNDEFINED}) for unassigned cells.
+   * @return {@code true} if successfully loaded, {@code false} if the values are inconsistent.
+   */
+  public boolean load(int[] cellValues) {
+
+    reset();
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      int value = cellValues[cell];
+      if ((value > 0) && !assign(cell, value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Resets this search to the given state as {@link #save(int[], long[]) saved} before (e.g. by another
+   * {@link SudokuSearch} of the same {@link Topology}). Other than {@link #load(int[])} no {@link #assign(int, int)
+   * assignments} are replayed so the state has to be consistent and {@link #propagate() propagated}.
+   *
+   * @param cellValues the values indexed by cell with {@code 0} for unassigned cells.
+   * @param cellMasks the candidates as bit mask indexed by cell.
+   */
+  public void load(int[] cellValues, long[] cellMasks) {
+
+    System.arraycopy(cellValues, 0, this.values, 0, this.cellCount);
+    System.arraycopy(cellMasks, 0, this.masks, 0, this.cellCount);
+    this.trailSize = 0;
+    this.queueSize = 0;
+    this.solved = false;
+  }
+
+  /**
+   * Saves the current state (values and candidates) into the given arrays so it can be restored via
+   * {@link #load(int[], long[])} without keeping this {@link SudokuSearch} with its trail.
+   *
+   * @param cellValues the array to store the values indexed by cell. Has a length of {@link Topology#getCellCount()}.
+   * @param cellMasks the array to store the candidates indexed by cell. Has a length of
+   *        {@link Topology#getCellCount()}.
+   */
+  public void save(int[] cellValues, long[] cellMasks) {
+
+    System.arraycopy(this.values, 0, cellValues, 0, this.cellCount);
+    System.arraycopy(this.masks, 0, cellMasks, 0, this.cellCount);
+  }
+
+  /**
+   * Assigns the given {@code value} to the given {@code cell} and excludes it from the candidates of all peers. Peers
+   * that are reduced to a single candidate are queued for {@link #propagate() propagation}.
+   *
+   * @param cell the index of the cell.
+   * @param value the value to assign in the range from {@code 1} to {@link Topology#getSize() size}.
+   * @return {@code true} if successful, {@code false} if a contradiction was detected. In the latter case the state is
+   *         undefined and has to be reverted.
+   */
+  public boolean assign(int cell, int value) {
+
+    int current = this.values[cell];
+    if (current != 0) {
+      return (current == value);
+    }
+    long bit = 1L << (value - 1);
+    long mask = this.masks[cell];
+    if ((mask & bit) == 0) {
+      return false;
+    }
+    push(~cell, mask);
+    this.values[cell] = value;
+    this.masks[cell] = bit;
+    for (int peer : this.topology.getPeers(cell)) {
+      long peerMask = this.masks[peer];
+      if ((peerMask & bit) != 0) {
+        if (this.values[peer] != 0) {
+          return false;
+        }
+        push(peer, peerMask);
+        peerMask = peerMask & ~bit;
+        this.masks[peer] = peerMask;
+        if (peerMask == 0) {
+          return false;
+        } else if ((peerMask & (peerMask - 1)) == 0) {
+          this.queue[this.queueSize++] = peer;
+        }
+      }
+    }
+    return checkSums(cell);
+  }
+
+  private boolean checkSums(int cell) {
+
+    for (int unit : this.topology.getUnitsOfCell(cell)) {
+      int sum = this.topology.getUnitSum(unit);
+      if (sum > 0) {
+        int[] cells = this.topology.getUnit(unit);
+        int assignedSum = 0;
+        int assignedCount = 0;
+        for (int unitCell : cells) {
+          int value = this.values[unitCell];
+          if (value != 0) {
+            assignedSum += value;
+            assignedCount++;
+          }
+        }
+        if ((assignedSum > sum) || ((assignedCount == cells.length) && (assignedSum != sum))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private void push(int cell, long mask) {
+
+    this.trailCells[this.trailSize] = cell;
+    this.trailMasks[this.trailSize] = mask;
+    this.trailSize++;
+  }
+
+  private void undo(int mark) {
+
+    this.queueSize = 0;
+    while (this.trailSize > mark) {
+      this.trailSize--;
+      int cell = this.trailCells[this.trailSize];
+      if (cell < 0) {
+        cell = ~cell;
+        this.values[cell] = 0;
+      }
+      this.masks[cell] = this.trailMasks[this.trailSize];
+    }
+  }
+
+  /**
+   * Propagates naked singles (cells with only one candidate left) and hidden singles (values with only one possible
+   * cell left in a {@link Topology#isUnitComplete(int) complete} unit) until a fixpoint is reached. Then the
+   * {@link Topology#getUnitSum(int) sums} are propagated: the remaining sum of each cage has to be in the bounds of the
+   * smallest and largest sum of the remaining candidates, the candidates of its unassigned cells are restricted to the
+   * union of all {@link SumCombinations combinations} that fit into these candidates and values contained in all such
+   * combinations that fit into a single cell only are assigned to it. This is repeated until nothing changes.
+   *
+   * @return {@code true} if successful, {@code false} if a contradiction was detected. In the latter case the state is
+   *         undefined and has to be reverted.
+   */
+  public boolean propagate() {
+
+    boolean changed = true;
+    while (changed) {
+      while (this.queueSize > 0) {
+        int cell = this.queue[--this.queueSize];
+        if ((this.values[cell] == 0) && !assign(cell, Long.numberOfTrailingZeros(this.masks[cell]) + 1)) {
+          this.queueSize = 0;
+          return false;
+        }
+      }
+      changed = false;
+      long allMask = this.topology.getAllMask();
+      int unitCount = this.topology.getUnitCount();
+      for (int unit = 0; unit < unitCount; unit++) {
+        if (this.topology.isUnitComplete(unit)) {
+          int[] cells = this.topology.getUnit(unit);
+          long assigned = 0;
+          long once = 0;
+          long twice = 0;
+          for (int cell : cells) {
+            long mask = this.masks[cell];
+            if (this.values[cell] == 0) {
+              twice = twice | (once & mask);
+              once = once | mask;
+            } else {
+              assigned = assigned | mask;
+            }
+          }
+          if ((once | assigned) != allMask) {
+            this.queueSize = 0;
+            return false;
+          }
+          long hidden = once & ~twice & ~assigned;
+          while (hidden != 0) {
+            long bit = hidden & -hidden;
+            hidden = hidden ^ bit;
+            if (!assignHidden(cells, bit)) {
+              this.queueSize = 0;
+              return false;
+            }
+            changed = true;
+          }
+        }
+      }
+      if (!changed && (this.sumUnits.length > 0)) {
+        int result = propagateSums();
+        if (result < 0) {
+          this.queueSize = 0;
+          return false;
+        }
+        changed = (result > 0);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return {@code -1} if a contradiction was detected, {@code 1} if candidates have been reduced, {@code 0} otherwise.
+   */
+  private int propagateSums() {
+
+    int result = 0;
+    for (int unit : this.sumUnits) {
+      int[] cells = this.topology.getUnit(unit);
+      int rest = this.topology.getUnitSum(unit);
+      int free = 0;
+      long available = 0;
+      for (int cell : cells) {
+        int value = this.values[cell];
+        if (value == 0) {
+          free++;
+          available = available | this.masks[cell];
+        } else {
+          rest -= value;
+        }
+      }
+      if (free == 0) {
+        continue;
+      }
+      if ((Long.bitCount(available) < free) || (rest < getLowestSum(available, free))
+          || (rest > getHighestSum(available, free))) {
+        return -1;
+      }
+      // sums are only supported up to SumCombinations.MAX_SIZE (see constructor) so the mask fits into an int
+      long possible = this.sumCombinations.getUnion(rest, free, (int) available);
+      if (possible == 0) {
+        return -1;
+      }
+      long required = this.sumCombinations.getIntersection(rest, free, (int) available);
+      for (int cell : cells) {
+        long mask = this.masks[cell];
+        if ((this.values[cell] == 0) && ((mask & ~possible) != 0)) {
+          long newMask = mask & possible;
+          if (newMask == 0) {
+            return -1;
+          }
+          push(cell, mask);
+          this.masks[cell] = newMask;
+          if ((newMask & (newMask - 1)) == 0) {
+            this.queue[this.queueSize++] = cell;
+          }
+          result = 1;
+        }
+      }
+      while (required != 0) {
+        long bit = required & -required;
+        required = required ^ bit;
+        int target = -1;
+        for (int cell : cells) {
+          if ((this.values[cell] == 0) && ((this.masks[cell] & bit) != 0)) {
+            if (target >= 0) {
+              target = -2;
+              break;
+            }
+            target = cell;
+          }
+        }
+        if (target == -1) {
+          return -1;
+        } else if ((target >= 0) && (this.masks[target] != bit)) {
+          push(target, this.masks[target]);
+          this.masks[target] = bit;
+          this.queue[this.queueSize++] = target;
+          result = 1;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static int getLowestSum(long mask, int count) {
+
+    int sum = 0;
+    long remaining = mask;
+    for (int i = 0; i < count; i++) {
+      sum += Long.numberOfTrailingZeros(remaining) + 1;
+      remaining = remaining & (remaining - 1);
+    }
+    return sum;
+  }
+
+  private static int getHighestSum(long mask, int count) {
+
+    int sum = 0;
+    long remaining = mask;
+    for (int i = 0; i < count; i++) {
+      int value = Long.SIZE - Long.numberOfLeadingZeros(remaining);
+      sum += value;
+      remaining = remaining ^ (1L << (value - 1));
+    }
+    return sum;
+  }
+
+  private boolean assignHidden(int[] cells, long bit) {
+
+    for (int cell : cells) {
+      if ((this.masks[cell] & bit) != 0) {
+        return assign(cell, Long.numberOfTrailingZeros(bit) + 1);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Searches for the first solution from the current state.
+   *
+   * @return {@code true} if a solution was found, {@code false} otherwise (no solution exists).
+   */
+  public boolean solve() {
+
+    return count(1) > 0;
+  }
+
+  /**
+   * Searches for a random solution from the current state by trying the candidates of each branching in random order.
+   * E.g. to fill a random complete grid from an empty board.
+   *
+   * @param randomGenerator the {@link SplittableRandom} to choose the candidates.
+   * @return {@code true} if a solution was found, {@code false} otherwise (no solution exists).
+   */
+  public boolean solve(SplittableRandom randomGenerator) {
+
+    this.random = randomGenerator;
+    try {
+      return count(1) > 0;
+    } finally {
+      this.random = null;
+    }
+  }
+
+  /**
+   * Counts the solutions from the current state up to the given {@code limit}. The state is restored afterwards.
+   *
+   * @param limit the maximum number of solutions to count. The search stops as soon as this limit is reached.
+   * @return the number of solutions found. Will be in the range from {@code 0} to {@code limit}.
+   */
+  public int count(int limit) {
+
+    this.limit = limit;
+    this.count = 0;
+    this.solved = false;
+    this.nodeCount = 0;
+    this.backtrackCount = 0;
+    this.depth = 0;
+    this.guessDepth = 0;
+    if (limit > 0) {
+      int mark = this.trailSize;
+      search();
+      undo(mark);
+    }
+    return this.count;
+  }
+
+  /**
+   * @return {@code true} if the search shall stop, {@code false} to continue.
+   */
+  private boolean search() {
+
+    if (isCancelled()) {
+      return true;
+    }
+    this.nodeCount++;
+    if (!propagate()) {
+      this.backtrackCount++;
+      return false;
+    }
+    int cell = selectCell();
+    if (cell < 0) {
+      return onSolution();
+    }
+    int mark = this.trailSize;
+    long mask = this.masks[cell];
+    this.depth++;
+    while (mask != 0) {
+      long bit;
+      if (this.random == null) {
+        bit = mask & -mask;
+      } else {
+        bit = randomBit(mask);
+      }
+      mask = mask ^ bit;
+      if (assign(cell, Long.numberOfTrailingZeros(bit) + 1)) {
+        if (search()) {
+          this.depth--;
+          return true;
+        }
+      } else {
+        this.backtrackCount++;
+      }
+      undo(mark);
+    }
+    this.depth--;
+    return false;
+  }
+
+  private long randomBit(long mask) {
+
+    long remaining = mask;
+    for (int i = this.random.nextInt(Long.bitCount(mask)); i > 0; i--) {
+      remaining = remaining & (remaining - 1);
+    }
+    return remaining & -remaining;
+  }
+
+  /**
+   * Called whenever a solution has been found (all cells are assigned).
+   *
+   * @return {@code true} if the search shall stop, {@code false} to continue.
+   */
+  protected boolean onSolution() {
+
+    if (this.count == 0) {
+      storeSolution();
+    }
+    this.count++;
+    return (this.count >= this.limit);
+  }
+
+  /**
+   * Stores the current values as solution so it is available via {@link #getSolution(int)}.
+   */
+  protected void storeSolution() {
+
+    System.arraycopy(this.values, 0, this.solution, 0, this.cellCount);
+    this.solved = true;
+    this.guessDepth = this.depth;
+  }
+
+  /**
+   * @return {@code true} if the search shall be aborted (e.g. because another thread already found the result),
+   *         {@code false} otherwise.
+   */
+  protected boolean isCancelled() {
+
+    return false;
+  }
+
+  /**
+   * @return the index of the unassigned cell with the fewest candidates or {@code -1} if all cells are assigned.
+   */
+  public int selectCell() {
+
+    int bestCell = -1;
+    int bestCount = Integer.MAX_VALUE;
+    for (int cell = 0; cell < this.cellCount; cell++) {
+      if (this.values[cell] == 0) {
+        int candidateCount = Long.bitCount(this.masks[cell]);
+        if (candidateCount < bestCount) {
+          bestCell = cell;
+          bestCount = candidateCount;
+          if (candidateCount <= 1) {
+            break;
+          }
+        }
+      }
+    }
+    return bestCell;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the candidates of the given cell as bit mask ({@code 1} &lt;&lt; (value-1)).
+   */
+  public long getCandidates(int cell) {
+
+    return this.masks[cell];
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the value of the given cell in the first solution found by the last call of {@link #solve()} or
+   *         {@link #count(int)}.
+   */
+  public int getSolution(int cell) {
+
+    if (!this.solved) {
+      throw new IllegalStateException("No solution found.");
+    }
+    return this.solution[cell];
+  }
+
+  /**
+   * @return the number of nodes visited by the last call of {@link #solve()} or {@link #count(int)}.
+   */
+  public long getNodeCount() {
+
+    return this.nodeCount;
+  }
+
+  /**
+   * @return the number of dead ends (contradictions) hit by the last call of {@link #solve()} or {@link #count(int)}.
+   */
+  public long getBacktrackCount() {
+
+    return this.backtrackCount;
+  }
+
+  /**
+   * @return the number of nested guesses (branchings after {@link #propagate() propagation} got stuck) on the path to
+   *         the first solution found by the last call of {@link #solve()} or {@link #count(int)}. Will be {@code 0} if
+   *         the solution was found by propagation only.
+   */
+  public int getGuessDepth() {
+
+    return this.guessDepth;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the currently assigned value of the given cell or {@code 0} if not assigned.
+   */
+  public int getValue(int cell) {
+
+    return this.values[cell];
+  }
+
+}
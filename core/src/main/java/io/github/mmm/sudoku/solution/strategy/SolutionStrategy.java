@@ -21,7 +21,9 @@ import io.github.mmm.sudoku.solution.HintStepPartitionMarking;
 import io.github.mmm.sudoku.solution.Solver;
 
 /**
- * Strategy to find a {@link Hint}.
+ * Strategy to find a {@link Hint}. Implementations are typically shared singletons and therefore have to be stateless
+ * so they can be used concurrently for different {@link io.github.mmm.sudoku.Sudoku}s. Keep scratch data in local
+ * variables of the call.
  */
 public abstract class SolutionStrategy implements Solver, AttributeDifficulty, Comparable<SolutionStrategy> {
 
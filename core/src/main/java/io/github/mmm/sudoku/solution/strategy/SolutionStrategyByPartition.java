@@ -2,34 +2,186 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.solution.strategy;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import io.github.mmm.sudoku.Sudoku;
 import io.github.mmm.sudoku.partition.Partition;
 import io.github.mmm.sudoku.partitioning.Partitioning;
 import io.github.mmm.sudoku.solution.Hint;
 
 /**
- * Strategy to find a {@link Hint}.
+ * Strategy to find a {@link Hint} by scanning the {@link Partition}s one by one. A {@link Partition} where nothing was
+ * found is {@link Partition#setHintFree(Object, int) marked as hint-free} for its current {@link #getState(Partition)
+ * state} and skipped by subsequent calls until one of its {@link io.github.mmm.sudoku.field.Field}s changes. Hence
+ * repeated "hint, apply, hint" loops only rescan what was touched by the previous {@link Hint}.
  */
 public abstract class SolutionStrategyByPartition extends SolutionStrategy {
 
+  /** Minimum number of {@link Partition}s to scan in a single task of {@link #findHint(Sudoku, ForkJoinPool)}. */
+  private static final int MIN_PARTITIONS_PER_TASK = 2;
+
   @Override
   public Hint findHint(Sudoku sudoku) {
 
     for (Partitioning partitioning : sudoku) {
       for (Partition partition : partitioning) {
-        Hint hint = findHint(partition);
-        if (hint != null) {
-          return hint;
+        int state = getState(partition);
+        if (!partition.isHintFree(this, state)) {
+          Hint hint = findHint(partition);
+          if (hint != null) {
+            return hint;
+          }
+          partition.setHintFree(this, state);
         }
       }
     }
     return null;
   }
 
+  /**
+   * Same as {@link #findHint(Sudoku)} but scans the {@link Partition}s concurrently on the given {@link ForkJoinPool}.
+   * The result is deterministic and always the {@link Hint} the sequential scan would return (from the first
+   * {@link Partition} in order). Once a {@link Hint} is found, {@link Partition}s ordered after it are skipped.
+   * {@link Partition#getPartitionMap() Partition maps} and {@link io.github.mmm.sudoku.field.Field#getPartition(int)
+   * field partitions} have to be initialized before as their lazy initialization is not thread-safe.
+   *
+   * @param sudoku the {@link Sudoku} to search.
+   * @param pool the {@link ForkJoinPool} to scan the {@link Partition}s on.
+   * @return the {@link Hint} or {@code null} if none was found.
+   */
+  public Hint findHint(Sudoku sudoku, ForkJoinPool pool) {
+
+    int total = 0;
+    for (Partitioning partitioning : sudoku) {
+      total += partitioning.getPartitionCount();
+    }
+    Partition[] partitions = new Partition[total];
+    int[] states = new int[total];
+    int count = 0;
+    for (Partitioning partitioning : sudoku) {
+      for (Partition partition : partitioning) {
+        int state = getState(partition);
+        if (!partition.isHintFree(this, state)) {
+          partitions[count] = partition;
+          states[count] = state;
+          count++;
+        }
+      }
+    }
+    // about 4 tasks per thread to balance load without too much scheduling overhead
+    int threshold = Math.max(MIN_PARTITIONS_PER_TASK, count / (4 * pool.getParallelism()));
+    PartitionSearch search = new PartitionSearch(partitions, states, threshold);
+    PartitionTask task = new PartitionTask(search, 0, count);
+    if ((count <= threshold) || (pool.getParallelism() == 1)) {
+      task.compute(); // not worth the hand-over to the pool
+    } else {
+      pool.invoke(task);
+    }
+    int first = search.first.get();
+    if (first < count) {
+      return search.hints[first];
+    }
+    return null;
+  }
+
+  private Hint findHint(PartitionSearch search, int i) {
+
+    if (i > search.first.get()) {
+      return null; // a hint from a partition before was already found
+    }
+    Partition partition = search.partitions[i];
+    Hint hint = findHint(partition);
+    if (hint == null) {
+      partition.setHintFree(this, search.states[i]);
+    } else {
+      search.hints[i] = hint;
+      search.first.accumulateAndGet(i, Math::min);
+    }
+    return hint;
+  }
+
+  /**
+   * @param partition the {@link Partition}.
+   * @return the state of the given {@link Partition} the result of {@link #findHint(Partition)} depends on. Has to
+   *         change whenever a {@link Hint} might have become available. By default the
+   *         {@link Partition#getModificationCounter() modification counter} as most strategies only consider the
+   *         {@link io.github.mmm.sudoku.field.Field}s of the {@link Partition} itself.
+   */
+  protected int getState(Partition partition) {
+
+    return partition.getModificationCounter();
+  }
+
   /**
    * @param partition the {@link Partition} to scan.
    * @return the next {@link Hint} found in the given {@link Partition} by this {@link SolutionStrategy} or {@code null}
    *         if nothing found.
    */
   protected abstract Hint findHint(Partition partition);
+
+  private static class PartitionSearch {
+
+    private final Partition[] partitions;
+
+    private final int[] states;
+
+    private final Hint[] hints;
+
+    /** Index of the first {@link Partition} where a {@link Hint} was found. */
+    private final AtomicInteger first;
+
+    /** Number of {@link Partition}s to scan in a single task. */
+    private final int threshold;
+
+    private PartitionSearch(Partition[] partitions, int[] states, int threshold) {
+
+      super();
+      this.partitions = partitions;
+      this.states = states;
+      this.threshold = threshold;
+      this.hints = new Hint[partitions.length];
+      this.first = new AtomicInteger(partitions.length);
+    }
+  }
+
+  private class PartitionTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient PartitionSearch search;
+
+    private final int start;
+
+    private final int end;
+
+    private PartitionTask(PartitionSearch search, int start, int end) {
+
+      super();
+      this.search = search;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+
+      if (this.start > this.search.first.get()) {
+        return;
+      }
+      int length = this.end - this.start;
+      if (length <= this.search.threshold) {
+        for (int i = this.start; i < this.end; i++) {
+          if (findHint(this.search, i) != null) {
+            return;
+          }
+        }
+      } else {
+        int middle = this.start + length / 2;
+        invokeAll(new PartitionTask(this.search, this.start, middle), new PartitionTask(this.search, middle, this.end));
+      }
+    }
+  }
+
 }
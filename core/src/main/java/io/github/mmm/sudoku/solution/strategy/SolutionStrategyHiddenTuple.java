@@ -2,8 +2,7 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.solution.strategy;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,13 +21,9 @@ public abstract class SolutionStrategyHiddenTuple extends SolutionStrategyTuple
 
   private static final Logger LOG = LoggerFactory.getLogger(SolutionStrategyTuple.class);
 
-  // ATTENTION: stateful: not applicable for concurrent computations
-  private final List<AggregatedFieldGroup> groups;
-
   SolutionStrategyHiddenTuple(int tupleSize) {
 
     super(tupleSize);
-    this.groups = new ArrayList<>();
   }
 
   @Override
@@ -36,16 +31,18 @@ public abstract class SolutionStrategyHiddenTuple extends SolutionStrategyTuple
 
     PartitionMap partitionMap = partition.getPartitionMap();
     int size = partition.getSudoku().getSize();
-    this.groups.clear();
+    // scratch buffer per call so this strategy can be used concurrently
+    AggregatedFieldGroup[] groups = new AggregatedFieldGroup[size];
+    int groupCount = 0;
     for (int candidate = 1; candidate <= size; candidate++) {
       AggregatedFieldGroup group = partitionMap.getByCandidate(candidate);
       int fieldCount = group.getFieldCount();
       if ((fieldCount > 1) && (fieldCount <= this.tupleSize)) {
-        this.groups.add(group);
+        groups[groupCount++] = group;
       }
     }
-    if (this.groups.size() >= this.tupleSize) {
-      return findHiddenTuple(partition, this.groups.toArray(AggregatedFieldGroup[]::new));
+    if (groupCount >= this.tupleSize) {
+      return findHiddenTuple(partition, Arrays.copyOf(groups, groupCount));
     }
     return null;
   }
@@ -87,12 +84,14 @@ public abstract class SolutionStrategyHiddenTuple extends SolutionStrategyTuple
           Field[] fields = new Field[this.tupleSize];
           int j = 0;
           boolean hasHint = false;
-          for (int fieldIndex : newFieldIndexes.toIncludedArray()) {
+          int fieldIndex = newFieldIndexes.getNextCandidate(0);
+          while (fieldIndex > 0) {
             Field field = partition.getField(fieldIndex);
             if (!hasHint) {
               hasHint = field.hasOtherCandidatesThan(newCandidates);
             }
             fields[j++] = field;
+            fieldIndex = newFieldIndexes.getNextCandidate(fieldIndex);
           }
           if (hasHint) {
             return hint(mark(partition), mark(fields), intersect(newCandidates, fields));
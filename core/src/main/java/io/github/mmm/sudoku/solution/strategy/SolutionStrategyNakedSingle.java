@@ -4,6 +4,7 @@ package io.github.mmm.sudoku.solution.strategy;
 
 import io.github.mmm.sudoku.Sudoku;
 import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.field.FieldState;
 import io.github.mmm.sudoku.solution.Hint;
 
 /**
@@ -22,13 +23,17 @@ public class SolutionStrategyNakedSingle extends SolutionStrategy {
   public Hint findHint(Sudoku sudoku) {
 
     int size = sudoku.getSize();
-    for (int x = 1; x <= size; x++) {
-      for (int y = 1; y <= size; y++) {
-        Field field = sudoku.getField(x, y);
-        if (!field.hasValue()) {
-          int value = field.getSingle();
-          if (value != Field.UNDEFINED) {
-            return hint(setValue(field, value));
+    // scan the flat state arrays instead of the Field objects
+    FieldState state = sudoku.getState();
+    int[] values = state.getValues();
+    long[] candidates = state.getCandidateMasks();
+    for (int x = 0; x < size; x++) {
+      for (int cell = x; cell < values.length; cell += size) {
+        if (values[cell] == Field.UNDEFINED) {
+          long bits = candidates[cell];
+          if (Long.bitCount(bits) == 1) {
+            Field field = sudoku.getField(cell + 1);
+            return hint(setValue(field, Long.numberOfTrailingZeros(bits) + 1));
           }
         }
       }
@@ -62,7 +62,7 @@ public abstract class SolutionStrategyNakedTuple extends SolutionStrategyTuple {
           if (tupleCount == this.tupleSize) {
             return findHintForNakedTuple(partition, candidates, currentFieldIndexes);
           }
-          if (currentCandidates == candidates) {
+          if (currentCandidates.getEncodedBitValue() == candidates.getEncodedBitValue()) {
             assert (tupleCount < this.tupleSize);
             fieldIndexes = currentFieldIndexes;
           } else {
@@ -73,6 +73,28 @@ public class SolutionStrategyPartitionIntersection extends SolutionStrategyByPar
     return null;
   }
 
+  /**
+   * @param partition the {@link Partition}.
+   * @return the sum of the {@link Partition#getModificationCounter() modification counters} of the given
+   *         {@link Partition} and all {@link Partition}s intersecting it as eliminations are done outside of the given
+   *         {@link Partition}.
+   */
+  @Override
+  protected int getState(Partition partition) {
+
+    int state = 0;
+    int partitioningCount = partition.getSudoku().getPartitioningCount();
+    for (Field field : partition) {
+      for (int partitioningIndex = 1; partitioningIndex <= partitioningCount; partitioningIndex++) {
+        Partition fieldPartition = field.getPartition(partitioningIndex);
+        if (fieldPartition != null) {
+          state += fieldPartition.getModificationCounter();
+        }
+      }
+    }
+    return state;
+  }
+
   private void addFields(List<Field> fields, FieldGroup group, FieldGroup exclusion, int value) {
 
     for (Field field : group) {
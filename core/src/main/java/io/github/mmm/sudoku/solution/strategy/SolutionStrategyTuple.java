@@ -40,11 +40,12 @@ public abstract class SolutionStrategyTuple extends SolutionStrategyByPartition
 
   Field[] getFields(Field[] fields, Candidates fieldIndexes) {
 
-    int size = fieldIndexes.getInclusionCount();
-    Field[] result = new Field[size];
-    for (int i = 1; i <= size; i++) {
-      int fieldIndex = fieldIndexes.getCandidate(i);
-      result[i - 1] = fields[fieldIndex - 1];
+    Field[] result = new Field[fieldIndexes.getInclusionCount()];
+    int i = 0;
+    int fieldIndex = fieldIndexes.getNextCandidate(0);
+    while (fieldIndex > 0) {
+      result[i++] = fields[fieldIndex - 1];
+      fieldIndex = fieldIndexes.getNextCandidate(fieldIndex);
     }
     return result;
   }
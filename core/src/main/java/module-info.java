@@ -25,6 +25,8 @@ module io.github.mmm.sudoku {
 
   exports io.github.mmm.sudoku.field;
 
+  exports io.github.mmm.sudoku.generator;
+
   exports io.github.mmm.sudoku.history;
 
   exports io.github.mmm.sudoku.partition;
@@ -33,6 +35,12 @@ module io.github.mmm.sudoku {
 
   exports io.github.mmm.sudoku.solution;
 
+  exports io.github.mmm.sudoku.solution.batch;
+
+  exports io.github.mmm.sudoku.solution.rating;
+
+  exports io.github.mmm.sudoku.solution.search;
+
   exports io.github.mmm.sudoku.solution.strategy;
 
   exports io.github.mmm.sudoku.style;
@@ -0,0 +1,147 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.history.ChangeSet;
+import io.github.mmm.sudoku.partition.Shape;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+
+/**
+ * Test of {@link Sudoku}.
+ */
+class SudokuTest extends Assertions {
+
+  /** Test that {@link Sudoku#copy()} shares the {@link Sudoku#getTopology() topology} but not the state. */
+  @Test
+  void testCopy() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(Sudoku.builder().withBoxes().with9x9().withHyper().build(),
+        SudokuTestSupport.HYPER);
+    SudokuSolver.get().solve(sudoku, false);
+
+    // act
+    Sudoku copy = sudoku.copy();
+
+    // assert
+    assertThat(copy.getTopology()).isNotNull().isSameAs(sudoku.getTopology());
+    assertThat(copy.getType()).isEqualTo(sudoku.getType());
+    assertThat(copy.isSpecified()).isTrue();
+    assertThat(copy.validate().getProgress()).isEqualTo(sudoku.validate().getProgress());
+    for (int i = 1; i <= 81; i++) {
+      Field field = sudoku.getField(i);
+      Field copyField = copy.getField(i);
+      assertThat(copyField).isNotSameAs(field);
+      assertThat(copyField.getValue()).isEqualTo(field.getValue());
+      assertThat(copyField.isGiven()).isEqualTo(field.isGiven());
+      assertThat(copyField.getSolution()).isEqualTo(field.getSolution());
+      assertThat(copyField.getCandidates()).isEqualTo(field.getCandidates());
+      assertThat(copyField.getStyles()).isEqualTo(field.getStyles());
+      for (int p = 1; p <= sudoku.getPartitioningCount(); p++) {
+        if (field.getPartition(p) == null) {
+          assertThat(copyField.getPartition(p)).isNull();
+        } else {
+          assertThat(copyField.getPartition(p).getSudoku()).isSameAs(copy);
+          assertThat(copyField.getPartition(p).getIndex()).isEqualTo(field.getPartition(p).getIndex());
+        }
+      }
+    }
+    assertThat(copy.getState()).isNotSameAs(sudoku.getState());
+    assertThat(copy.getEliminationCounter()).isEqualTo(sudoku.getEliminationCounter());
+    Field free = null;
+    for (int i = 1; (free == null) && (i <= 81); i++) {
+      if (!copy.getField(i).hasValue()) {
+        free = copy.getField(i);
+      }
+    }
+    free.setValue(free.getSolution());
+    assertThat(sudoku.getField(free.getCell() + 1).hasValue()).isFalse();
+    assertThat(Sudoku.builder().withBoxes().with9x9().withHyper().build().getTopology())
+        .isSameAs(sudoku.getTopology());
+  }
+
+  /** Test that the {@link Sudoku#getTopology() topologies} of per-board layouts do not evict the cached variants. */
+  @Test
+  void testTopologyCache() {
+
+    // arrange
+    Sudoku hyper = Sudoku.builder().withBoxes().with9x9().withHyper().build();
+    Shape[] rows = new Shape[5];
+    Arrays.fill(rows, new Shape(5));
+    Sudoku jigsaw = null;
+
+    // act
+    for (int i = 0; i < 100; i++) {
+      jigsaw = Sudoku.builder().withJigsaw(rows).with5x5().build();
+    }
+
+    // assert
+    assertThat(Sudoku.builder().withBoxes().with9x9().withHyper().build().getTopology())
+        .isSameAs(hyper.getTopology());
+    assertThat(jigsaw.copy().getTopology()).isSameAs(jigsaw.getTopology());
+  }
+
+  /** Test that {@link Sudoku#change(Runnable, boolean)} without history neither fires nor records events. */
+  @Test
+  void testChangeWithoutHistory() {
+
+    // arrange
+    Sudoku sudoku = new Sudoku();
+    Field field = sudoku.getField(1);
+    AtomicInteger eventCount = new AtomicInteger();
+    sudoku.addListener(event -> eventCount.incrementAndGet());
+    int modificationCounter = sudoku.getModificationCounter();
+    ChangeSet lastChange = sudoku.getLastChange();
+
+    // act
+    sudoku.change(() -> {
+      field.setValue(5);
+      field.setSolution(5);
+      field.setError(true);
+      field.setMarked(true);
+    }, false);
+
+    // assert
+    assertThat(eventCount.get()).isZero();
+    assertThat(sudoku.getLastChange()).isSameAs(lastChange);
+    assertThat(sudoku.getModificationCounter()).isEqualTo(modificationCounter + 4);
+    assertThat(field.getValue()).isEqualTo(5);
+    assertThat(field.getSolution()).isEqualTo(5);
+    assertThat(field.isError()).isTrue();
+    assertThat(field.isMarked()).isTrue();
+    field.setMarked(false);
+    assertThat(eventCount.get()).isEqualTo(1);
+  }
+
+  /** Test of {@link Sudoku#getField(int)} and {@link Sudoku#getField(int, int)}. */
+  @Test
+  void testGetField() {
+
+    // arrange
+    Sudoku sudoku = new Sudoku();
+
+    // act
+    Field field = sudoku.getField(3, 2);
+
+    // assert
+    assertThat(sudoku.getField(9 + 3)).isSameAs(field);
+    assertThat(field.getCell()).isEqualTo(9 + 2);
+    assertThat(field.getX()).isEqualTo(3);
+    assertThat(field.getY()).isEqualTo(2);
+    assertThat(field.getPartition(1).getField(field.getPartitionFieldIndex(1))).isSameAs(field);
+    assertThatThrownBy(() -> sudoku.getField(10, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> sudoku.getField(1, 0)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> sudoku.getField(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> sudoku.getField(82)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> field.getPartition(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> field.getPartition(4)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+}
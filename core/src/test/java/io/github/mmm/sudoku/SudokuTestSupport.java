@@ -0,0 +1,113 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku;
+
+import org.assertj.core.api.Assertions;
+
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partitioning.Partitioning;
+
+/**
+ * Helper for tests that need a {@link Sudoku} puzzle.
+ */
+public final class SudokuTestSupport extends Assertions {
+
+  /** A classic 9x9 {@link Sudoku} known to be hard for naive backtracking. */
+  public static final String HARD = "8........" //
+      + "..36....." //
+      + ".7..9.2.." //
+      + ".5...7..." //
+      + "....457.." //
+      + "...1...3." //
+      + "..1....68" //
+      + "..85...1." //
+      + ".9....4..";
+
+  /** The unique solution of {@link #HARD}. */
+  public static final String HARD_SOLUTION = "812753649" //
+      + "943682175" //
+      + "675491283" //
+      + "154237896" //
+      + "369845721" //
+      + "287169534" //
+      + "521974368" //
+      + "438526917" //
+      + "796318452";
+
+  /** A 9x9 {@link Sudoku} puzzle with {@link io.github.mmm.sudoku.partitioning.Hyper} layer. */
+  public static final String HYPER = ".7.9....." //
+      + "...1..6.." //
+      + "52......." //
+      + "...54...." //
+      + ".13...75." //
+      + "....23..." //
+      + ".......64" //
+      + "..1..7..." //
+      + ".....8.9.";
+
+  private SudokuTestSupport() {
+
+  }
+
+  /**
+   * @param sudoku the empty {@link Sudoku}.
+   * @param givens the given values as {@link String} with one character per {@link Field} (row by row) and '.' for
+   *        empty. Values above 9 are encoded as letters (a=10, b=11, etc.).
+   * @return the given {@link Sudoku} after the givens have been set.
+   */
+  public static Sudoku given(Sudoku sudoku, String givens) {
+
+    int size = sudoku.getSize();
+    for (int i = 0; i < givens.length(); i++) {
+      char c = givens.charAt(i);
+      if (c != '.') {
+        sudoku.setFieldGivenValue((i % size) + 1, (i / size) + 1, Character.digit(c, 36));
+      }
+    }
+    sudoku.setSpecified();
+    return sudoku;
+  }
+
+  /**
+   * @param sudoku the {@link Sudoku} to get the solution from.
+   * @return the {@link Field#getSolution() solutions} as {@link String} in the same format as for
+   *         {@link #given(Sudoku, String)}.
+   */
+  public static String solution(Sudoku sudoku) {
+
+    int size = sudoku.getSize();
+    StringBuilder sb = new StringBuilder(size * size);
+    for (int i = 1; i <= size * size; i++) {
+      sb.append(Character.forDigit(sudoku.getField(i).getSolution(), 36));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param sudoku the solved {@link Sudoku} to verify.
+   */
+  public static void verifySolution(Sudoku sudoku) {
+
+    for (Partitioning partitioning : sudoku) {
+      for (Partition partition : partitioning) {
+        boolean[] used = new boolean[sudoku.getSize() + 1];
+        int sum = 0;
+        for (Field field : partition) {
+          int solution = field.getSolution();
+          assertThat(solution).isGreaterThan(0);
+          assertThat(used[solution]).as(partition.toString()).isFalse();
+          used[solution] = true;
+          sum += solution;
+          if (field.isGiven()) {
+            assertThat(solution).isEqualTo(field.getValue());
+          }
+        }
+        if (partition.getSum() > 0) {
+          assertThat(sum).isEqualTo(partition.getSum());
+        }
+      }
+    }
+  }
+
+}
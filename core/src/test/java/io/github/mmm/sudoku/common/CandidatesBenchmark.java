@@ -0,0 +1,156 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.common;
+
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark of the {@link Candidates} operations that iterate the set bits. {@link Candidates#getCandidate(int)} is
+ * compared with the former loop that shifts one bit at a time ({@link #getCandidateByShifting(long, int)}) as
+ * baseline. As JMH is not part of the build, each operation is measured in warmed-up rounds and the last round is
+ * significant. This is a plain {@link #main(String[]) main program} rather than a test so it is not run by the build.
+ */
+final class CandidatesBenchmark {
+
+  private static final int ROUNDS = 5;
+
+  private static final int REPETITIONS = 2000;
+
+  private static long sink;
+
+  private CandidatesBenchmark() {
+
+  }
+
+  /**
+   * @param args the command-line arguments (ignored).
+   */
+  public static void main(String[] args) {
+
+    SplittableRandom random = new SplittableRandom(1);
+    Candidates[] candidates9 = new Candidates[1024];
+    Candidates[] candidates16 = new Candidates[1024];
+    for (int i = 0; i < candidates9.length; i++) {
+      candidates9[i] = Candidates.of(random.nextInt(1 << 9));
+      candidates16[i] = Candidates.of(random.nextInt(1 << 16));
+    }
+    for (int round = 1; round <= ROUNDS; round++) {
+      System.out.printf("Round %d (ns/call):%n", round);
+      System.out.printf("  getCandidate           9-bit %6.1f  16-bit %6.1f%n", getCandidate(candidates9, false),
+          getCandidate(candidates16, false));
+      System.out.printf("  baseline (shifting)    9-bit %6.1f  16-bit %6.1f%n", getCandidate(candidates9, true),
+          getCandidate(candidates16, true));
+      System.out.printf("  getNextCandidate loop  9-bit %6.1f  16-bit %6.1f%n", getNextCandidate(candidates9),
+          getNextCandidate(candidates16));
+      System.out.printf("  forEach                9-bit %6.1f  16-bit %6.1f%n", forEach(candidates9),
+          forEach(candidates16));
+      System.out.printf("  toIncludedArray       16-bit %6.1f%n", toIncludedArray(candidates16));
+      System.out.printf("  toString              16-bit %6.1f%n", toString(candidates16));
+    }
+    // print the sink so the JIT can not eliminate the measured calls as dead code
+    System.out.println("Checksum: " + sink);
+  }
+
+  /** @return the nanoseconds per {@link Candidates#getCandidate(int)} call (or its baseline). */
+  private static double getCandidate(Candidates[] candidates, boolean baseline) {
+
+    long calls = 0;
+    long start = System.nanoTime();
+    for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+      for (Candidates candidate : candidates) {
+        int count = candidate.getInclusionCount();
+        for (int i = 1; i <= count; i++) {
+          if (baseline) {
+            sink += getCandidateByShifting(candidate.getEncodedBitValue(), i);
+          } else {
+            sink += candidate.getCandidate(i);
+          }
+        }
+        calls += count;
+      }
+    }
+    return (System.nanoTime() - start) / (double) calls;
+  }
+
+  /** @return the nanoseconds per {@link Candidates} iterated via {@link Candidates#getNextCandidate(int)}. */
+  private static double getNextCandidate(Candidates[] candidates) {
+
+    long start = System.nanoTime();
+    for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+      for (Candidates candidate : candidates) {
+        int value = candidate.getNextCandidate(0);
+        while (value > 0) {
+          sink += value;
+          value = candidate.getNextCandidate(value);
+        }
+      }
+    }
+    return (System.nanoTime() - start) / ((double) REPETITIONS * candidates.length);
+  }
+
+  /** @return the nanoseconds per {@link Candidates#forEach(java.util.function.IntConsumer)} call. */
+  private static double forEach(Candidates[] candidates) {
+
+    long start = System.nanoTime();
+    for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+      for (Candidates candidate : candidates) {
+        candidate.forEach(value -> sink += value);
+      }
+    }
+    return (System.nanoTime() - start) / ((double) REPETITIONS * candidates.length);
+  }
+
+  /** @return the nanoseconds per {@link Candidates#toIncludedArray()} call. */
+  private static double toIncludedArray(Candidates[] candidates) {
+
+    long start = System.nanoTime();
+    for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+      for (Candidates candidate : candidates) {
+        sink += candidate.toIncludedArray().length;
+      }
+    }
+    return (System.nanoTime() - start) / ((double) REPETITIONS * candidates.length);
+  }
+
+  /** @return the nanoseconds per {@link Candidates#toString()} call. */
+  private static double toString(Candidates[] candidates) {
+
+    int repetitions = REPETITIONS / 4;
+    long start = System.nanoTime();
+    for (int repetition = 0; repetition < repetitions; repetition++) {
+      for (Candidates candidate : candidates) {
+        sink += candidate.toString().length();
+      }
+    }
+    return (System.nanoTime() - start) / ((double) repetitions * candidates.length);
+  }
+
+  /**
+   * The former implementation of {@link Candidates#getCandidate(int)} as baseline.
+   *
+   * @param bits the {@link Candidates#getEncodedBitValue() bits}.
+   * @param index the 1-based index of the requested candidate.
+   * @return the requested candidate or {@code -1} if not found.
+   */
+  private static int getCandidateByShifting(long bits, int index) {
+
+    if ((bits == 0) || (index < 1)) {
+      return -1;
+    }
+    int i = index;
+    int result = 1;
+    long rest = bits;
+    while (rest != 0) {
+      if ((rest & 1) == 1) {
+        i--;
+        if (i == 0) {
+          return result;
+        }
+      }
+      result++;
+      rest = rest >>> 1;
+    }
+    return -1;
+  }
+
+}
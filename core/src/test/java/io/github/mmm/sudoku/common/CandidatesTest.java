@@ -1,6 +1,8 @@
 package io.github.mmm.sudoku.common;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -51,6 +53,57 @@ class CandidatesTest extends Assertions {
     assertThat(candidates).hasToString("{1,3,5,7,9}");
   }
 
+  @Test
+  void testBeyond32Bits() {
+
+    // arrange
+    Candidates candidates;
+    // act
+    candidates = Candidates.ofValues(1, 32, 33, 64);
+    // assert
+    verify(candidates);
+    assertThat(candidates.getEncodedBitValue()).isEqualTo(0x8000000180000001L);
+    assertThat(candidates.getInclusionCount()).isEqualTo(4);
+    assertThat(candidates.has(33)).isTrue();
+    assertThat(candidates.has(34)).isFalse();
+    assertThat(candidates.has(64)).isTrue();
+    assertThat(candidates.toIncludedArray()).containsExactly(1, 32, 33, 64);
+    assertThat(candidates.toExcludedArray(64)).hasSize(60).doesNotContain(1, 32, 33, 64);
+    assertThat(candidates.getCandidate(3)).isEqualTo(33);
+    assertThat(candidates.getCandidate(4)).isEqualTo(64);
+    assertThat(candidates.getCandidate(5)).isEqualTo(-1);
+    assertThat(candidates).hasToString("{1,32,33,64}");
+    assertThat(candidates.exclude(64).exclude(1)).isEqualTo(Candidates.ofValues(32, 33));
+    assertThatThrownBy(() -> candidates.include(65)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  void testIteration() {
+
+    // arrange
+    Candidates candidates = Candidates.ofValues(2, 8, 9, 17, 40, 63);
+    List<Integer> values = new ArrayList<>();
+    List<Integer> cursor = new ArrayList<>();
+    // act
+    candidates.forEach(values::add);
+    for (int c = candidates.getNextCandidate(0); c > 0; c = candidates.getNextCandidate(c)) {
+      cursor.add(c);
+    }
+    // assert
+    assertThat(values).containsExactly(2, 8, 9, 17, 40, 63);
+    assertThat(cursor).isEqualTo(values);
+    for (int i = 1; i <= values.size(); i++) {
+      assertThat(candidates.getCandidate(i)).isEqualTo(values.get(i - 1));
+    }
+    assertThat(candidates.getNextCandidate(63)).isEqualTo(-1);
+    assertThat(candidates.getNextCandidate(64)).isEqualTo(-1);
+    assertThat(candidates.getNextCandidate(8)).isEqualTo(9);
+    assertThat(candidates.getNextCandidate(9)).isEqualTo(17);
+    assertThat(candidates.getCandidate(0)).isEqualTo(-1);
+    assertThat(candidates).hasToString("{2,8,9,17,40,63}");
+    assertThat(candidates.toSumString()).isEqualTo("2+8+9+17+40+63=139");
+  }
+
   @Test
   void testPooling() {
 
@@ -71,16 +124,18 @@ class CandidatesTest extends Assertions {
     assertThat(include9.getLowestCandidate()).isEqualTo(9);
     assertThat(include10.exclude(10)).isSameAs(none);
     assertThat(include10.getLowestCandidate()).isEqualTo(10);
-    // testing "anti-feature": to avoid memory waste, we only pool 9 bits (for 9x9 Sudoku)
-    assertThat(none.include(10)).isNotSameAs(include10);
+    // all candidates up to 16 bits (for 16x16 Sudoku) are pooled
+    assertThat(none.include(10)).isSameAs(include10);
+    assertThat(Candidates.ofValues(1, 16).exclude(16)).isSameAs(include1);
+    assertThat(none.include(17)).isNotSameAs(none.include(17)).isEqualTo(none.include(17));
   }
 
   private void verify(Candidates candidates) {
 
     assertThat(candidates).isNotNull();
-    int payload = candidates.getEncodedBitValue();
+    long payload = candidates.getEncodedBitValue();
     Candidates copy = Candidates.of(payload);
-    boolean pooled = (payload >= 0) && (payload < 512);
+    boolean pooled = (payload >= 0) && (payload < 65536);
     Candidates flipped1 = copy.flip(1);
     Candidates flipped9 = copy.flip(9);
     assertThat(flipped1).isNotEqualTo(candidates);
@@ -38,4 +38,43 @@ class SumCombinationsTest extends Assertions {
         Candidates.ofValues(3, 4, 5, 8), Candidates.ofValues(3, 4, 6, 7));
   }
 
+  @Test
+  void testUnionAndIntersection() {
+
+    SumCombinations sumCombinations = SumCombinations.of(9);
+    // 20 in 4 values from {1,2,3,4,6,7,8,9}: 1289, 1379, 1469, 1478, 2369, 2378, 3467
+    int candidates = (int) Candidates.ofValues(1, 2, 3, 4, 6, 7, 8, 9).getEncodedBitValue();
+    assertThat(sumCombinations.getUnion(20, 4, candidates)).isEqualTo(candidates);
+    // 10 in 3 values from {1,2,3,5,7}: 127, 235
+    candidates = (int) Candidates.ofValues(1, 2, 3, 5, 7).getEncodedBitValue();
+    assertThat(sumCombinations.getUnion(10, 3, candidates)).isEqualTo(candidates);
+    assertThat(sumCombinations.getIntersection(10, 3, candidates)).isEqualTo(0b10);
+    // 17 in 2 values: only 89
+    assertThat(sumCombinations.getUnion(17, 2, 0b111111111)).isEqualTo(0b110000000);
+    assertThat(sumCombinations.getIntersection(17, 2, 0b111111111)).isEqualTo(0b110000000);
+    assertThat(sumCombinations.getUnion(17, 2, 0b011111111)).isZero();
+    assertThat(sumCombinations.getIntersection(17, 2, 0b011111111)).isZero();
+    assertThat(sumCombinations.getUnion(5, 1, 0b111111111)).isEqualTo(0b10000);
+    assertThat(sumCombinations.getUnion(46, 9, 0b111111111)).isZero();
+  }
+
+  @Test
+  void test25x25() {
+
+    SumCombinations sumCombinations = SumCombinations.of(25);
+    assertThat(SumCombinations.of(25)).isSameAs(sumCombinations);
+    long total = 0;
+    for (int sum = 1; sum <= 325; sum++) {
+      for (int valueCount = 1; valueCount <= 25; valueCount++) {
+        total += sumCombinations.getCombinationCount(sum, valueCount);
+      }
+    }
+    assertThat(total).isEqualTo((1L << 25) - 1);
+    assertThat(sumCombinations.getCombinationCount(325, 25)).isEqualTo(1);
+    assertThat(sumCombinations.getUnion(49, 2, (1 << 25) - 1)).isEqualTo(0b11 << 23);
+    assertThat(sumCombinations.getIntersection(70, 4, (1 << 25) - 1)).isZero();
+    assertThat(sumCombinations.getUnion(70, 4, (1 << 25) - 1)).isEqualTo((1 << 25) - 1);
+    assertThat(sumCombinations.getCombinations(100, 5)).hasSize(sumCombinations.getCombinationCount(100, 5));
+  }
+
 }
@@ -139,4 +139,17 @@ class PrimeDimensionTest extends DimensionTest {
     assertThat(dimension.getBoxSize()).isEqualTo(7);
   }
 
+  /** Test of {@link PrimeDimension#D61}. */
+  @Test
+  void test61() {
+
+    // arrange
+    Dimension dimension = PrimeDimension.D61;
+
+    // act + assert
+    verify(dimension);
+    assertThat(dimension.getSize()).isEqualTo(61);
+    assertThat(dimension.getBoxSize()).isEqualTo(8);
+  }
+
 }
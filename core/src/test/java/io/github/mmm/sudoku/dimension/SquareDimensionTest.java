@@ -51,6 +51,19 @@ class SquareDimensionTest extends DimensionTest {
     assertThat(getAlphabet(dimension)).isEqualTo("1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16");
   }
 
+  /** Test of {@link SquareDimension#D64}. */
+  @Test
+  void test64() {
+
+    // arrange
+    Dimension dimension = SquareDimension.D64;
+    // act + assert
+    verify(dimension);
+    assertThat(dimension.getSize()).isEqualTo(64);
+    assertThat(dimension.getBoxSize()).isEqualTo(8).isEqualTo(dimension.getBoxWidth())
+        .isEqualTo(dimension.getBoxHeight());
+  }
+
   /** Test of {@link SquareDimension#of(int, java.util.List)} for HEX 16x16. */
   @Test
   void test16Hex() {
@@ -0,0 +1,50 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.field;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+
+/**
+ * Test of {@link FieldState}.
+ */
+class FieldStateTest extends Assertions {
+
+  /** Test that changes via {@link Field} are reflected in the {@link FieldState} and snapshots are independent. */
+  @Test
+  void testViewAndSnapshot() {
+
+    // arrange
+    Sudoku sudoku = new Sudoku();
+    FieldState state = sudoku.getState();
+    Field field = sudoku.getField(3, 2);
+    int cell = field.getCell();
+
+    // act
+    field.setValue(5, true);
+    field.setMarked(true);
+    sudoku.getField(1, 1).excludeCandidate(7);
+    FieldState snapshot = new FieldState(state);
+    field.setMarked(false);
+    sudoku.getField(1, 1).excludeCandidate(8);
+
+    // assert
+    assertThat(cell).isEqualTo(9 + 2);
+    assertThat(state.getCellCount()).isEqualTo(81);
+    assertThat(state.getValue(cell)).isEqualTo(5);
+    assertThat(state.getValues()[cell]).isEqualTo(5);
+    assertThat(state.isGiven(cell)).isTrue();
+    assertThat(state.isMarked(cell)).isFalse();
+    assertThat(state.isError(cell)).isFalse();
+    assertThat(state.getCandidates(0)).isEqualTo(sudoku.getField(1, 1).getCandidates().getEncodedBitValue());
+    assertThat(state.getCandidates(0) & 0b011000000).isZero();
+    assertThat(snapshot.getValue(cell)).isEqualTo(5);
+    assertThat(snapshot.isGiven(cell)).isTrue();
+    assertThat(snapshot.isMarked(cell)).isFalse();
+    assertThat(snapshot.getCandidates(0) & 0b011000000).isEqualTo(0b010000000);
+    assertThat(snapshot.getValue(0)).isEqualTo(Field.UNDEFINED);
+  }
+
+}
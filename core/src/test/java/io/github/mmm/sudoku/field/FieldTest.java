@@ -0,0 +1,66 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.field;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+
+/**
+ * Test of {@link Field}.
+ */
+class FieldTest extends Assertions {
+
+  /** Test of {@link Field#getPeers()}. */
+  @Test
+  void testPeers() {
+
+    // arrange
+    Sudoku classic = new Sudoku();
+    Sudoku hyper = Sudoku.builder().withBoxes().with9x9().withHyper().build();
+
+    // act
+    Field[] classicPeers = classic.getField(2, 2).getPeers();
+    Field[] hyperPeers = hyper.getField(2, 2).getPeers();
+
+    // assert
+    Set<Field> distinct = new HashSet<>();
+    for (Field peer : classicPeers) {
+      assertThat(peer).isNotSameAs(classic.getField(2, 2));
+      assertThat(peer.getSudoku()).isSameAs(classic);
+      assertThat(distinct.add(peer)).isTrue();
+    }
+    assertThat(distinct.size()).isEqualTo(20);
+    // hyper region from (2,2) to (4,4) adds (4,3), (3,4) and (4,4) that are not already in row, column or box
+    assertThat(hyperPeers.length).isEqualTo(23);
+    assertThat(classic.getField(2, 2).getPeers()).isSameAs(classicPeers);
+  }
+
+  /** Test of {@link Field#hasCandidate(int)} for candidates beyond 32 bits. */
+  @Test
+  void testHasCandidate() {
+
+    // arrange
+    Sudoku sudoku = Sudoku.builder().withBoxes().with36x36().build();
+    Field field = sudoku.getField(1, 1);
+
+    // act
+    field.excludeCandidate(36);
+
+    // assert
+    assertThat(field.hasCandidate(36)).isFalse();
+    assertThat(field.hasCandidate(35)).isTrue();
+    assertThat(field.hasCandidate(33)).isTrue();
+    assertThat(field.hasCandidate(0)).isFalse();
+    assertThat(field.hasCandidate(37)).isFalse();
+    assertThat(field.hasCandidate(65)).isFalse();
+    field.setValue(5);
+    assertThat(field.hasCandidate(5)).isTrue();
+    assertThat(field.hasCandidate(35)).isFalse();
+  }
+
+}
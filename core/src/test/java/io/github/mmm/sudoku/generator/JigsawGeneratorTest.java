@@ -0,0 +1,106 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.util.SplittableRandom;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.dimension.AbstractDimension;
+import io.github.mmm.sudoku.dimension.PrimeDimension;
+import io.github.mmm.sudoku.dimension.SquareDimension;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partition.Shape;
+import io.github.mmm.sudoku.partitioning.Partitioning;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+
+/**
+ * Test of {@link JigsawGenerator}.
+ */
+class JigsawGeneratorTest extends Assertions {
+
+  /** Test of {@link JigsawGenerator#generateSudoku(SplittableRandom)} for square and prime dimensions. */
+  @Test
+  void testGenerateSudoku() {
+
+    AbstractDimension[] dimensions = { PrimeDimension.D5, PrimeDimension.D7, SquareDimension.D9, PrimeDimension.D13 };
+    for (AbstractDimension dimension : dimensions) {
+      // arrange
+      JigsawGenerator generator = new JigsawGenerator(dimension);
+
+      // act
+      Sudoku sudoku = generator.generateSudoku(new SplittableRandom(dimension.getSize()));
+
+      // assert
+      int size = dimension.getSize();
+      assertThat(sudoku.getSize()).isEqualTo(size);
+      Partitioning region = sudoku.getPartitioning(3);
+      assertThat(region.getPartitionCount()).isEqualTo(size);
+      for (Partition partition : region) {
+        assertThat(partition.getFieldCount()).isEqualTo(size);
+        assertThat(isLine(partition)).as("degenerated region").isFalse();
+      }
+    }
+  }
+
+  /** Test that {@link JigsawGenerator#generate(SplittableRandom)} is reproducible and can be used for puzzles. */
+  @Test
+  void testGenerateReproducible() {
+
+    // arrange
+    JigsawGenerator generator = new JigsawGenerator(SquareDimension.D9);
+
+    // act
+    Shape[] shapes = generator.generate(new SplittableRandom(4711));
+    Shape[] again = generator.generate(new SplittableRandom(4711));
+    Sudoku variant = Sudoku.builder().withJigsaw(shapes).with9x9().build();
+    Sudoku puzzle = new SudokuGenerator(variant).generateSudoku(new SplittableRandom(42));
+
+    // assert
+    assertThat(toString(again)).isEqualTo(toString(shapes));
+    assertThat(SudokuSolver.get().isUnique(puzzle)).isTrue();
+  }
+
+  /** Test of {@link JigsawGenerator#JigsawGenerator(AbstractDimension, int)} with an invalid attempt limit. */
+  @Test
+  void testInvalidMaxAttempts() {
+
+    // arrange
+    AbstractDimension dimension = SquareDimension.D9;
+
+    // act + assert
+    assertThatThrownBy(() -> new JigsawGenerator(dimension, 0)).isInstanceOf(IllegalArgumentException.class);
+    assertThat(new JigsawGenerator(dimension).getMaxAttempts()).isPositive();
+  }
+
+  private static boolean isLine(Partition partition) {
+
+    boolean sameX = true;
+    boolean sameY = true;
+    for (int i = 2; i <= partition.getFieldCount(); i++) {
+      sameX = sameX && (partition.getField(i).getX() == partition.getField(1).getX());
+      sameY = sameY && (partition.getField(i).getY() == partition.getField(1).getY());
+    }
+    return sameX || sameY;
+  }
+
+  private static String toString(Shape[] shapes) {
+
+    StringBuilder sb = new StringBuilder();
+    for (Shape shape : shapes) {
+      Shape current = shape;
+      while (current != null) {
+        sb.append(current.getOffset());
+        sb.append('+');
+        sb.append(current.getCount());
+        sb.append(' ');
+        current = current.getNext();
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+
+/**
+ * Benchmark of {@link KillerGenerator} and of the sum propagation of {@link SudokuSearch} on 9x9 Killer puzzles
+ * without givens. Measures the generation rate and then the time and nodes of {@link SudokuSearch#count(int)} (as
+ * used by {@link SudokuSolver#isUnique(Sudoku)}) for each generated Killer. This is a plain {@link #main(String[])
+ * main program} rather than a test so it is not run by the build.
+ */
+final class KillerGeneratorBenchmark {
+
+  private static final int DEFAULT_KILLERS = 12;
+
+  private KillerGeneratorBenchmark() {
+
+  }
+
+  /**
+   * @param args the optional number of Killers to generate (default {@value #DEFAULT_KILLERS}).
+   */
+  public static void main(String[] args) {
+
+    int killerCount = DEFAULT_KILLERS;
+    if (args.length > 0) {
+      killerCount = Integer.parseInt(args[0]);
+    }
+    KillerGenerator generator = new KillerGenerator(new Sudoku());
+    SplittableRandom random = new SplittableRandom(1);
+    generator.generate(random);
+    Sudoku[] killers = new Sudoku[killerCount];
+    int cages = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < killerCount; i++) {
+      killers[i] = generator.generateSudoku(random);
+      cages += killers[i].getPartitioning(4).getPartitionCount();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Generated %d Killers in %.1fs (%.2f/s), %.1f cages on average%n", killerCount, seconds,
+        killerCount / seconds, cages / (double) killerCount);
+    for (int round = 1; round <= 2; round++) {
+      long[] nanos = new long[killerCount];
+      long nodes = 0;
+      int unique = 0;
+      for (int i = 0; i < killerCount; i++) {
+        long solveStart = System.nanoTime();
+        SudokuSearch search = new SudokuSearch(killers[i].getTopology());
+        if (search.load(killers[i]) && (search.count(2) == 1)) {
+          unique++;
+        }
+        nanos[i] = System.nanoTime() - solveStart;
+        nodes += search.getNodeCount();
+      }
+      Arrays.sort(nanos);
+      System.out.printf("Round %d: count(2) min %.1fms, median %.1fms, max %.1fms, %.0f nodes on average, %d unique%n",
+          round, nanos[0] / 1e6, nanos[killerCount / 2] / 1e6, nanos[killerCount - 1] / 1e6,
+          nodes / (double) killerCount, unique);
+    }
+  }
+
+}
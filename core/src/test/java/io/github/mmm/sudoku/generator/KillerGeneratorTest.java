@@ -0,0 +1,89 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.util.SplittableRandom;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.SumCombinations;
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partition.SumShape;
+import io.github.mmm.sudoku.partitioning.Partitioning;
+import io.github.mmm.sudoku.partitioning.Sum;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+
+/**
+ * Test of {@link KillerGenerator}.
+ */
+class KillerGeneratorTest extends Assertions {
+
+  /** Test of {@link KillerGenerator#generateSudoku(SplittableRandom)} for a classic 9x9 Killer. */
+  @Test
+  void testGenerateSudoku() {
+
+    // arrange
+    KillerGenerator generator = new KillerGenerator(new Sudoku());
+
+    // act
+    Sudoku killer = generator.generateSudoku(new SplittableRandom(42));
+
+    // assert
+    assertThat(killer.getPartitioningCount()).isEqualTo(4);
+    Partitioning cages = killer.getPartitioning(4);
+    assertThat(cages).isInstanceOf(Sum.class);
+    int cellCount = 0;
+    for (Partition cage : cages) {
+      assertThat(cage.getFieldCount()).isBetween(1, generator.getMaxCageSize());
+      cellCount += cage.getFieldCount();
+    }
+    assertThat(cellCount).isEqualTo(81);
+    SudokuSolver solver = SudokuSolver.get();
+    assertThat(solver.isUnique(killer)).isTrue();
+    assertThat(solver.solve(killer, true)).isTrue();
+    for (Partition cage : cages) {
+      int sum = 0;
+      for (int i = 1; i <= cage.getFieldCount(); i++) {
+        Field field = cage.getField(i);
+        assertThat(field.isGiven()).isFalse();
+        sum += field.getValue();
+      }
+      assertThat(sum).isEqualTo(cage.getSum());
+    }
+  }
+
+  /** Test that {@link KillerGenerator#generate(SplittableRandom)} is reproducible. */
+  @Test
+  void testGenerateReproducible() {
+
+    // arrange
+    KillerGenerator generator = new KillerGenerator(Sudoku.builder().withBoxes().with4x4().build());
+
+    // act
+    SumShape[] shapes = generator.generate(new SplittableRandom(7));
+    SumShape[] again = generator.generate(new SplittableRandom(7));
+
+    // assert
+    assertThat(again).hasSize(shapes.length);
+    for (int i = 0; i < shapes.length; i++) {
+      assertThat(again[i].getSum()).isEqualTo(shapes[i].getSum());
+      assertThat(again[i].getFieldCount()).isEqualTo(shapes[i].getFieldCount());
+    }
+  }
+
+  /** Test that {@link KillerGenerator} rejects sizes beyond {@link SumCombinations#MAX_SIZE}. */
+  @Test
+  void testTooLarge() {
+
+    // arrange
+    Sudoku variant = Sudoku.builder().withBoxes().with36x36().build();
+
+    // act + assert
+    assertThatThrownBy(() -> new KillerGenerator(variant)).isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("36");
+  }
+
+}
@@ -0,0 +1,224 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.common.Difficulty;
+
+/**
+ * Test of {@link PuzzlePool}.
+ */
+class PuzzlePoolTest extends Assertions {
+
+  private static final long TIMEOUT_MILLIS = 60000;
+
+  /** Test of {@link PuzzlePool#take(Sudoku, Difficulty)} with background refill and statistics. */
+  @Test
+  void testTake() throws Exception {
+
+    // arrange
+    Sudoku variant = new Sudoku();
+    try (PuzzlePool pool = new PuzzlePool(2, 1)) {
+      pool.register(variant, Difficulty.EASY);
+      awaitFull(pool, PuzzlePool.getKey(variant), Difficulty.EASY);
+
+      // act
+      String puzzle = pool.take(variant, Difficulty.EASY);
+
+      // assert
+      assertThat(puzzle).hasSize(81);
+      PuzzlePoolStatistics statistics = pool.getStatistics();
+      assertThat(statistics.getHits()).isEqualTo(1);
+      assertThat(statistics.getMisses()).isZero();
+      assertThat(statistics.getHitRate()).isEqualTo(1.0);
+      assertThat(statistics.getGenerated()).isGreaterThanOrEqualTo(2);
+      assertThat(statistics.getGenerationRate()).isGreaterThan(0);
+      assertThat(statistics.getRefills()).isGreaterThanOrEqualTo(1);
+      awaitFull(pool, PuzzlePool.getKey(variant), Difficulty.EASY);
+      assertThat(pool.take(variant, Difficulty.EASY)).isNotNull().isNotEqualTo(puzzle);
+    }
+  }
+
+  /** Test of {@link PuzzlePool#take(String, Difficulty)} for a bucket that has not been registered. */
+  @Test
+  void testTakeUnregistered() {
+
+    // arrange
+    try (PuzzlePool pool = new PuzzlePool(1, 1)) {
+      // act + assert
+      assertThatThrownBy(() -> pool.take("Sudoku", Difficulty.HARD)).isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  /** Test of the spill file of {@link PuzzlePool} for a warm start. */
+  @Test
+  void testSpillFile() throws Exception {
+
+    // arrange
+    Sudoku variant = new Sudoku();
+    Path file = Files.createTempFile("puzzle-pool", ".txt");
+    Files.delete(file);
+    try {
+      PuzzlePool first = new PuzzlePool(1, 1, file);
+      try (first) {
+        first.register(variant, Difficulty.EASY);
+        awaitFull(first, PuzzlePool.getKey(variant), Difficulty.EASY);
+      }
+      String expected = first.take(variant, Difficulty.EASY);
+
+      // act
+      try (PuzzlePool pool = new PuzzlePool(1, 1, file)) {
+        pool.register(variant, Difficulty.EASY);
+        String puzzle = pool.take(PuzzlePool.getKey(variant), Difficulty.EASY);
+
+        // assert
+        assertThat(puzzle).isNotNull().isEqualTo(expected);
+        assertThat(pool.getStatistics().getHits()).isEqualTo(1);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /** Test that {@link PuzzlePool#close()} saves the puzzle of a generation that is still running. */
+  @Test
+  void testCloseAwaitsGeneration() throws Exception {
+
+    // arrange
+    Sudoku variant = new Sudoku();
+    CountDownLatch started = new CountDownLatch(1);
+    SudokuGenerator slow = new SudokuGenerator(variant) {
+      @Override
+      public String generate(Difficulty difficulty, SplittableRandom random) {
+
+        started.countDown();
+        // busy wait as the generator does not react on interruption
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        while (System.nanoTime() - end < 0) {
+          Thread.onSpinWait();
+        }
+        return SudokuTestSupport.HARD;
+      }
+    };
+    Path file = Files.createTempFile("puzzle-pool", ".txt");
+    Files.delete(file);
+    try {
+      PuzzlePool first = new PuzzlePool(1, 1, file);
+      try (first) {
+        first.register(variant, Difficulty.VERY_HARD, slow);
+        assertThat(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+      }
+
+      // act
+      try (PuzzlePool pool = new PuzzlePool(1, 1, file)) {
+        pool.register(variant, Difficulty.VERY_HARD, slow);
+        String puzzle = pool.take(variant, Difficulty.VERY_HARD);
+
+        // assert
+        assertThat(puzzle).isEqualTo(SudokuTestSupport.HARD);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /** Test of {@link PuzzlePool} with variants of the same {@link Sudoku#getType() type} but different sizes. */
+  @Test
+  void testDifferentSizes() throws Exception {
+
+    // arrange
+    Sudoku d4 = Sudoku.builder().withBoxes().with4x4().build();
+    Sudoku d9 = new Sudoku();
+    try (PuzzlePool pool = new PuzzlePool(1, 1)) {
+
+      // act
+      pool.register(d9, Difficulty.VERY_EASY);
+      pool.register(d4, Difficulty.VERY_EASY);
+      awaitFull(pool, PuzzlePool.getKey(d4), Difficulty.VERY_EASY);
+      awaitFull(pool, PuzzlePool.getKey(d9), Difficulty.VERY_EASY);
+
+      // assert
+      assertThat(d4.getType()).isEqualTo(d9.getType());
+      assertThat(PuzzlePool.getKey(d4)).isNotEqualTo(PuzzlePool.getKey(d9));
+      assertThat(pool.take(d4, Difficulty.VERY_EASY)).hasSize(16);
+      assertThat(pool.take(d9, Difficulty.VERY_EASY)).hasSize(81);
+    }
+  }
+
+  /** Test of {@link PuzzlePool} backing off if the {@link SudokuGenerator} always fails. */
+  @Test
+  void testBackoff() throws Exception {
+
+    // arrange
+    Sudoku variant = new Sudoku();
+    SudokuGenerator failing = new SudokuGenerator(variant) {
+      @Override
+      public String generate(Difficulty difficulty, SplittableRandom random) {
+
+        return null;
+      }
+    };
+    try (PuzzlePool pool = new PuzzlePool(2, 1)) {
+
+      // act
+      pool.register(variant, Difficulty.VERY_HARD, failing);
+      long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+      while (pool.getStatistics().getBackingOff() == 0) {
+        assertThat(System.currentTimeMillis()).as("timeout").isLessThan(deadline);
+        Thread.sleep(10);
+      }
+      Thread.sleep(100);
+      long failed = pool.getStatistics().getFailed();
+      Thread.sleep(300);
+
+      // assert
+      PuzzlePoolStatistics statistics = pool.getStatistics();
+      assertThat(statistics.getBackingOff()).isEqualTo(1);
+      assertThat(statistics.getFailed()).isEqualTo(failed).isLessThanOrEqualTo(2);
+      assertThat(pool.take(variant, Difficulty.VERY_HARD)).isNull();
+    }
+  }
+
+  /** Test of {@link PuzzlePool#load(Path)} with invalid lines. */
+  @Test
+  void testLoadInvalid() throws Exception {
+
+    // arrange
+    Sudoku variant = new Sudoku();
+    String key = PuzzlePool.getKey(variant);
+    Path file = Files.createTempFile("puzzle-pool", ".txt");
+    try {
+      Files.writeString(file, key + ";UNKNOWN;123\ninvalid\n\n" + key + ";EASY;456\n");
+      try (PuzzlePool pool = new PuzzlePool(1, 1)) {
+
+        // act
+        int count = pool.load(file);
+
+        // assert
+        assertThat(count).isEqualTo(1);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static void awaitFull(PuzzlePool pool, String type, Difficulty difficulty) throws InterruptedException {
+
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (pool.getSize(type, difficulty) < pool.getWatermark()) {
+      assertThat(System.currentTimeMillis()).as("timeout").isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.common.Difficulty;
+
+/**
+ * Benchmark of {@link SudokuGenerator#generate(Difficulty, SplittableRandom)} measuring the yield (puzzles of the
+ * requested {@link Difficulty} band) per CPU-second of the calling thread for each band. This is a plain
+ * {@link #main(String[]) main program} rather than a test so it is not run by the build.
+ */
+final class SudokuGeneratorBenchmark {
+
+  private static final int WARMUP_PUZZLES = 50;
+
+  private static final int DEFAULT_SECONDS_PER_BAND = 4;
+
+  private SudokuGeneratorBenchmark() {
+
+  }
+
+  /**
+   * @param args the optional CPU-seconds to spend per {@link Difficulty} band (default
+   *        {@value #DEFAULT_SECONDS_PER_BAND}).
+   */
+  public static void main(String[] args) {
+
+    int seconds = DEFAULT_SECONDS_PER_BAND;
+    if (args.length > 0) {
+      seconds = Integer.parseInt(args[0]);
+    }
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    SudokuGenerator generator = new SudokuGenerator(new Sudoku(), 20, Duration.ofSeconds(5));
+    SplittableRandom random = new SplittableRandom(1);
+    for (int i = 0; i < WARMUP_PUZZLES; i++) {
+      generator.generate(Difficulty.EASY, random);
+    }
+    long budget = seconds * 1_000_000_000L;
+    for (Difficulty difficulty : Difficulty.values()) {
+      long start = threads.getCurrentThreadCpuTime();
+      int calls = 0;
+      int yield = 0;
+      while (threads.getCurrentThreadCpuTime() - start < budget) {
+        calls++;
+        if (generator.generate(difficulty, random) != null) {
+          yield++;
+        }
+      }
+      double cpuSeconds = (threads.getCurrentThreadCpuTime() - start) / 1e9;
+      System.out.printf("%-12s %7.1f puzzles/cpu-s (%d of %d calls)%n", difficulty, yield / cpuSeconds, yield,
+          calls);
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.generator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.common.Difficulty;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+import io.github.mmm.sudoku.solution.rating.DifficultyRater;
+
+/**
+ * Test of {@link SudokuGenerator}.
+ */
+class SudokuGeneratorTest extends Assertions {
+
+  /** Test of {@link SudokuGenerator#generateSudoku(SplittableRandom)} for a classic {@link Sudoku}. */
+  @Test
+  void testGenerateClassic() {
+
+    // arrange
+    SudokuGenerator generator = new SudokuGenerator(new Sudoku());
+
+    // act
+    Sudoku sudoku = generator.generateSudoku(new SplittableRandom(42));
+
+    // assert
+    verifyUnique(sudoku);
+  }
+
+  /** Test of {@link SudokuGenerator#generateSudoku(SplittableRandom)} for a hyper {@link Sudoku}. */
+  @Test
+  void testGenerateHyper() {
+
+    // arrange
+    SudokuGenerator generator = new SudokuGenerator(Sudoku.builder().withBoxes().with9x9().withHyper().build());
+
+    // act
+    Sudoku sudoku = generator.generateSudoku(new SplittableRandom(7));
+
+    // assert
+    verifyUnique(sudoku);
+  }
+
+  /** Test that {@link SudokuGenerator#generate(int, long, java.util.concurrent.Executor)} is reproducible. */
+  @Test
+  void testGenerateParallelReproducible() {
+
+    // arrange
+    SudokuGenerator generator = new SudokuGenerator(new Sudoku());
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      // act
+      List<String> puzzles = generator.generate(20, 4711, executor);
+      List<String> again = generator.generate(20, 4711, Runnable::run);
+
+      // assert
+      assertThat(puzzles).hasSize(20).isEqualTo(again);
+      assertThat(puzzles.stream().distinct().count()).isEqualTo(20);
+      assertThat(generator.generate(20, 4712, Runnable::run)).isNotEqualTo(puzzles);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Test of {@link SudokuGenerator#generate(Difficulty, SplittableRandom)}. */
+  @Test
+  void testGenerateWithDifficulty() {
+
+    // arrange
+    SudokuGenerator generator = new SudokuGenerator(new Sudoku());
+    DifficultyRater rater = new DifficultyRater();
+
+    for (Difficulty difficulty : List.of(Difficulty.EASY, Difficulty.MODERATE, Difficulty.EXTREME)) {
+      // act
+      String puzzle = generator.generate(difficulty, new SplittableRandom(difficulty.ordinal()));
+
+      // assert
+      assertThat(puzzle).as(difficulty.name()).isNotNull();
+      Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), puzzle);
+      verifyUnique(sudoku);
+      assertThat(rater.rate(sudoku).getDifficulty()).isEqualTo(difficulty);
+    }
+  }
+
+  /** Test of {@link SudokuGenerator#generate(Difficulty, SplittableRandom)} with limits that can not be satisfied. */
+  @Test
+  void testGenerateWithDifficultyExceedsLimits() {
+
+    // arrange
+    SudokuGenerator generator = new SudokuGenerator(new Sudoku(), 2, Duration.ofSeconds(5));
+
+    // act
+    String puzzle = generator.generate(Difficulty.VERY_HARD, new SplittableRandom(1));
+
+    // assert
+    assertThat(puzzle).isNull();
+  }
+
+  private static void verifyUnique(Sudoku sudoku) {
+
+    SudokuSolver solver = SudokuSolver.get();
+    assertThat(sudoku.isSpecified()).isTrue();
+    assertThat(solver.isUnique(sudoku)).isTrue();
+    int cellCount = sudoku.getSize() * sudoku.getSize();
+    int givenCount = 0;
+    for (int i = 1; i <= cellCount; i++) {
+      if (sudoku.getField(i).isGiven()) {
+        givenCount++;
+      }
+    }
+    assertThat(givenCount).isGreaterThanOrEqualTo(17).isLessThan(40);
+  }
+
+}
@@ -0,0 +1,92 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.partition.impl;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.field.AggregatedFieldGroup;
+import io.github.mmm.sudoku.field.CandidatesFieldGroup;
+import io.github.mmm.sudoku.partition.Partition;
+import io.github.mmm.sudoku.partition.PartitionMap;
+import io.github.mmm.sudoku.partitioning.Partitioning;
+import io.github.mmm.sudoku.solution.Hint;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+
+/**
+ * Test of {@link PartitionMapImpl}.
+ */
+class PartitionMapImplTest extends Assertions {
+
+  /**
+   * Test that the incrementally maintained {@link Partition#getPartitionMap() partition maps} stay equal to freshly
+   * computed ones while solving step by step and undoing all steps.
+   */
+  @Test
+  void testIncrementalUpdate() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), "53..7...." //
+        + "6..195..." //
+        + ".98....6." //
+        + "8...6...3" //
+        + "4..8.3..1" //
+        + "7...2...6" //
+        + ".6....28." //
+        + "...419..5" //
+        + "....8..79");
+    SudokuSolver solver = SudokuSolver.of();
+    verifyMaps(sudoku);
+    int steps = 0;
+
+    // act + assert
+    Hint hint = solver.findHint(sudoku);
+    while (hint != null) {
+      sudoku.apply(hint);
+      steps++;
+      verifyMaps(sudoku);
+      hint = solver.findHint(sudoku);
+    }
+    for (int i = 0; i < steps; i++) {
+      sudoku.undo();
+      verifyMaps(sudoku);
+    }
+    assertThat(steps).isGreaterThan(10);
+  }
+
+  private static void verifyMaps(Sudoku sudoku) {
+
+    int size = sudoku.getSize();
+    for (Partitioning partitioning : sudoku) {
+      for (Partition partition : partitioning) {
+        PartitionMap actual = partition.getPartitionMap();
+        PartitionMap expected = new PartitionMapImpl(partition);
+        for (int candidate = 1; candidate <= size; candidate++) {
+          AggregatedFieldGroup actualGroup = actual.getByCandidate(candidate);
+          AggregatedFieldGroup expectedGroup = expected.getByCandidate(candidate);
+          if (expectedGroup == null) {
+            assertThat(actualGroup).as(partition + ":" + candidate).isNull();
+          } else {
+            assertThat(actualGroup.getFieldIndexes()).as(partition + ":" + candidate)
+                .isEqualTo(expectedGroup.getFieldIndexes());
+          }
+        }
+        for (int count = 2; count < size; count++) {
+          CandidatesFieldGroup actualGroup = actual.getFirstByCandidatesCount(count);
+          CandidatesFieldGroup expectedGroup = expected.getFirstByCandidatesCount(count);
+          while (expectedGroup != null) {
+            assertThat(actualGroup).as(partition + ":" + count).isNotNull();
+            assertThat(actualGroup.getCandidates()).isEqualTo(expectedGroup.getCandidates());
+            assertThat(actualGroup.getFieldIndexes()).isEqualTo(expectedGroup.getFieldIndexes());
+            actualGroup = actualGroup.geteNext();
+            expectedGroup = expectedGroup.geteNext();
+          }
+          assertThat(actualGroup).isNull();
+        }
+      }
+    }
+  }
+
+}
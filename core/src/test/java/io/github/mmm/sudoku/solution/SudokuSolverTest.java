@@ -0,0 +1,307 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.field.Field;
+import io.github.mmm.sudoku.history.ChangeSet;
+import io.github.mmm.sudoku.partition.SumShape;
+import io.github.mmm.sudoku.partitioning.Sum;
+import io.github.mmm.sudoku.solution.search.SudokuSearch;
+
+/**
+ * Test of {@link SudokuSolver}.
+ */
+class SudokuSolverTest extends Assertions {
+
+  /** Puzzle that can be solved by the logical strategies including hidden and naked pairs. */
+  private static final String LOGICAL = "4.....8.5" //
+      + ".3......." //
+      + "...7....." //
+      + ".2.....6." //
+      + "....8.4.." //
+      + "....1...." //
+      + "...6.3.7." //
+      + "5..2....." //
+      + "1.4......";
+
+  @Test
+  void testSolveHard() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    // act
+    boolean solved = SudokuSolver.get().solve(sudoku, false);
+    // assert
+    assertThat(solved).isTrue();
+    SudokuTestSupport.verifySolution(sudoku);
+    assertThat(SudokuTestSupport.solution(sudoku)).isEqualTo(SudokuTestSupport.HARD_SOLUTION);
+    assertThat(sudoku.getField(2, 1).hasValue()).isFalse();
+  }
+
+  @Test
+  void testSolveHyperWithFillValues() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(Sudoku.builder().withBoxes().with9x9().withHyper().build(),
+        SudokuTestSupport.HYPER);
+    // act
+    boolean solved = SudokuSolver.get().solve(sudoku, true);
+    // assert
+    assertThat(solved).isTrue();
+    SudokuTestSupport.verifySolution(sudoku);
+    assertThat(sudoku.getField(1, 1).getValue()).isEqualTo(sudoku.getField(1, 1).getSolution());
+  }
+
+  @Test
+  void testSolveBeyond32x32() {
+
+    for (Sudoku sudoku : List.of(Sudoku.builder().withBoxes().with36x36().build(),
+        Sudoku.builder().withBoxes().with64x64().build())) {
+      // act
+      boolean solved = SudokuSolver.get().solve(sudoku, true);
+      // assert
+      assertThat(solved).isTrue();
+      SudokuTestSupport.verifySolution(sudoku);
+    }
+  }
+
+  @Test
+  void testSolveSumsBeyond31x31() {
+
+    // arrange
+    SumShape[] rows = new SumShape[36];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new SumShape(36, null, 666);
+    }
+    Sudoku sudoku = Sudoku.builder().withBoxes().with36x36().build().extend((s, i) -> new Sum(s, i, rows));
+    // act
+    int count = SudokuSolver.get().countSolutions(sudoku, 2);
+    boolean solved = SudokuSolver.get().solve(sudoku, true);
+    // assert
+    assertThat(sudoku.getTopology().hasSums()).isTrue();
+    assertThat(count).isEqualTo(2);
+    assertThat(solved).isTrue();
+    SudokuTestSupport.verifySolution(sudoku);
+    assertThatThrownBy(() -> new SudokuSearch(sudoku.getTopology())).isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("36");
+  }
+
+  @Test
+  void testSolveInconsistent() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), "123......" //
+        + "456......" //
+        + "78......9");
+    // act
+    boolean solved = SudokuSolver.get().solve(sudoku, false);
+    // assert
+    assertThat(solved).isFalse();
+    assertThat(sudoku.getField(1, 9).hasSolution()).isFalse();
+  }
+
+  @Test
+  void testCountSolutions() {
+
+    // arrange
+    SudokuSolver solver = SudokuSolver.get();
+    Sudoku hard = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    Sudoku empty = new Sudoku();
+    Sudoku inconsistent = SudokuTestSupport.given(new Sudoku(), "1.......1");
+    // act
+    int countHard = solver.countSolutions(hard, 2);
+    int countEmpty = solver.countSolutions(empty, 2);
+    int countInconsistent = solver.countSolutions(inconsistent, 2);
+    // assert
+    assertThat(countHard).isEqualTo(1);
+    assertThat(solver.isUnique(hard)).isTrue();
+    assertThat(hard.getField(2, 1).hasSolution()).isFalse();
+    assertThat(countEmpty).isEqualTo(2);
+    assertThat(solver.isUnique(empty)).isFalse();
+    assertThat(countInconsistent).isEqualTo(0);
+  }
+
+  @Test
+  void testFindHintUntilSolved() {
+
+    // arrange
+    SudokuSolver solver = SudokuSolver.of();
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), LOGICAL);
+    solver.solve(sudoku, false);
+    int steps = 0;
+    // act
+    Hint hint = solver.findHint(sudoku);
+    while (hint != null) {
+      sudoku.apply(hint);
+      steps++;
+      hint = solver.findHint(sudoku);
+    }
+    // assert
+    assertThat(steps).isGreaterThan(50);
+    for (int i = 1; i <= 81; i++) {
+      Field field = sudoku.getField(i);
+      assertThat(field.getValue()).isEqualTo(field.getSolution());
+    }
+    // partitions marked as hint-free need to be searched again after undo
+    sudoku.undo();
+    assertThat(solver.findHint(sudoku)).isNotNull();
+  }
+
+  /**
+   * Stress test that many threads can use the shared {@link SudokuSolver#get() solver} concurrently for different
+   * {@link Sudoku}s.
+   */
+  @Test
+  void testFindHintConcurrently() throws Exception {
+
+    // arrange
+    Sudoku template = SudokuTestSupport.given(new Sudoku(), LOGICAL);
+    String expected = solveByHints(template.copy());
+    int threadCount = 8;
+    int taskCount = 64;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    try {
+      // act
+      for (int i = 0; i < taskCount; i++) {
+        Sudoku sudoku = template.copy();
+        results.add(executor.submit(() -> {
+          start.await();
+          return solveByHints(sudoku);
+        }));
+      }
+      start.countDown();
+      // assert
+      for (Future<String> result : results) {
+        assertThat(result.get(1, TimeUnit.MINUTES)).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(expected).doesNotContain(".");
+  }
+
+  /**
+   * Test of {@link SudokuSolver#findHint(Sudoku, ForkJoinPool)} that has to find exactly the same {@link Hint}s as the
+   * sequential {@link SudokuSolver#findHint(Sudoku)}.
+   */
+  @Test
+  void testFindHintParallel() {
+
+    // arrange
+    Sudoku sequential = SudokuTestSupport.given(new Sudoku(), LOGICAL);
+    Sudoku parallel = sequential.copy();
+    SudokuSolver solver = SudokuSolver.get();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    int steps = 0;
+    try {
+      // act + assert
+      Hint hint = solver.findHint(sequential);
+      while (hint != null) {
+        Hint parallelHint = solver.findHint(parallel, pool);
+        assertThat(parallelHint).as("step " + steps).isNotNull();
+        assertThat(parallelHint.getSteps().toString()).isEqualTo(hint.getSteps().toString());
+        sequential.apply(hint, false);
+        parallel.apply(parallelHint, false);
+        steps++;
+        hint = solver.findHint(sequential);
+      }
+      assertThat(solver.findHint(parallel, pool)).isNull();
+    } finally {
+      pool.shutdownNow();
+    }
+    assertThat(steps).isGreaterThan(10);
+  }
+
+  /**
+   * Test of {@link SudokuSolver#solveLogically(Sudoku)} in fast mode without history and events.
+   */
+  @Test
+  void testSolveLogically() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), LOGICAL);
+    String expected = solveByHints(sudoku.copy());
+    ChangeSet checkpoint = sudoku.getLastChange();
+    AtomicInteger eventCount = new AtomicInteger();
+    sudoku.addListener(event -> eventCount.incrementAndGet());
+
+    // act
+    SolvePath path = SudokuSolver.get().solveLogically(sudoku);
+
+    // assert
+    assertThat(path.isSolved()).isTrue();
+    assertThat(path.getStepCount()).isGreaterThan(10);
+    assertThat(path.getDifficulty()).isGreaterThanOrEqualTo(path.getDifficulty(0));
+    assertThat(path.getStrategy(0)).isNotEmpty();
+    assertThat(path.getEliminations(0)).isPositive();
+    assertThat(toString(sudoku)).isEqualTo(expected);
+    assertThat(eventCount.get()).isZero();
+    assertThat(sudoku.getLastChange()).isSameAs(checkpoint);
+  }
+
+  /**
+   * Test of {@link SudokuSolver#solveLogically(Sudoku, boolean)} with history recorded as a single change.
+   */
+  @Test
+  void testSolveLogicallyWithHistory() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), LOGICAL);
+    String puzzle = toString(sudoku);
+    ChangeSet checkpoint = sudoku.getLastChange();
+
+    // act
+    SolvePath path = SudokuSolver.get().solveLogically(sudoku, true);
+
+    // assert
+    assertThat(path.isSolved()).isTrue();
+    assertThat(sudoku.getLastChange().getPrevious()).isSameAs(checkpoint);
+    sudoku.undo();
+    assertThat(sudoku.getLastChange()).isSameAs(checkpoint);
+    assertThat(toString(sudoku)).isEqualTo(puzzle);
+    assertThat(SudokuSolver.get().solveLogically(sudoku).getStepCount()).isEqualTo(path.getStepCount());
+  }
+
+  private static String solveByHints(Sudoku sudoku) {
+
+    SudokuSolver solver = SudokuSolver.get();
+    Hint hint = solver.findHint(sudoku);
+    while (hint != null) {
+      sudoku.apply(hint, false);
+      hint = solver.findHint(sudoku);
+    }
+    return toString(sudoku);
+  }
+
+  private static String toString(Sudoku sudoku) {
+
+    StringBuilder sb = new StringBuilder(81);
+    for (int i = 1; i <= 81; i++) {
+      Field field = sudoku.getField(i);
+      if (field.hasValue()) {
+        sb.append(field.getValue());
+      } else {
+        sb.append('.');
+      }
+    }
+    return sb.toString();
+  }
+
+}
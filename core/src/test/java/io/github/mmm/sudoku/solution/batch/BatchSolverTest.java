@@ -0,0 +1,135 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.batch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.dimension.PrimeDimension;
+import io.github.mmm.sudoku.partition.Shape;
+
+/**
+ * Test of {@link BatchSolver}.
+ */
+class BatchSolverTest extends Assertions {
+
+  private static final String INCONSISTENT = "11" + SudokuTestSupport.HARD.substring(2);
+
+  @Test
+  void testSolveOrdered() {
+
+    // arrange
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    BatchSolver solver = new BatchSolver(new Sudoku(), executor);
+    List<BatchResult> results = new ArrayList<>();
+    // act
+    BatchReport report = solver.solve(
+        Stream.of(SudokuTestSupport.HARD, "12345", INCONSISTENT, SudokuTestSupport.HARD.replace('.', '0')), true,
+        results::add);
+    // assert
+    assertThat(results).hasSize(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(results.get(i).getIndex()).isEqualTo(i);
+    }
+    assertThat(results.get(0).getSolution()).isEqualTo(SudokuTestSupport.HARD_SOLUTION);
+    assertThat(results.get(1).isSolved()).isFalse();
+    assertThat(results.get(1).getError()).contains("Expected 81 characters");
+    assertThat(results.get(2).getError()).isEqualTo("No solution.");
+    assertThat(results.get(3).getSolution()).isEqualTo(SudokuTestSupport.HARD_SOLUTION);
+    assertThat(report.getCount()).isEqualTo(4);
+    assertThat(report.getFailureCount()).isEqualTo(2);
+    assertThat(report.getSolvedCount()).isEqualTo(2);
+    assertThat(report.getLatencyP99()).isGreaterThanOrEqualTo(report.getLatencyP50());
+    executor.shutdown();
+  }
+
+  @Test
+  void testSolveUnorderedWithVirtualThreads() {
+
+    // arrange
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    BatchSolver solver = new BatchSolver(new Sudoku(), executor);
+    List<BatchResult> results = new ArrayList<>();
+    // act
+    BatchReport report = solver.solve(Stream.generate(() -> SudokuTestSupport.HARD).limit(50), false, results::add);
+    // assert
+    assertThat(results).hasSize(50);
+    assertThat(report.getSolvedCount()).isEqualTo(50);
+    assertThat(report.getThroughput()).isGreaterThan(0);
+    executor.shutdown();
+  }
+
+  /** Test of {@link BatchSolver} with the largest supported {@link BatchSolver#MAX_SIZE size}. */
+  @Test
+  void testRoundTripLargest() {
+
+    // arrange
+    Shape[] rows = new Shape[31];
+    Arrays.fill(rows, new Shape(31));
+    Sudoku variant = Sudoku.builder().withJigsaw(rows).with(PrimeDimension.D31).build();
+    BatchSolver solver = new BatchSolver(variant, Runnable::run);
+    String empty = ".".repeat(31 * 31);
+    String solution = solver.solve(0, empty).getSolution();
+
+    // act
+    BatchResult result = solver.solve(1, solution);
+
+    // assert
+    assertThat(solution).hasSize(31 * 31).contains("v").doesNotContain(".", "\0");
+    assertThat(result.getSolution()).isEqualTo(solution);
+    assertThatThrownBy(() -> new BatchSolver(Sudoku.builder().withBoxes().with36x36().build(), Runnable::run))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("35");
+  }
+
+  /** Test of {@link BatchSolver#solve(Stream, boolean, java.util.function.Consumer)} with failing tasks. */
+  @Test
+  void testSolveUnorderedWithErrors() {
+
+    // arrange
+    BatchSolver solver = new BatchSolver(new Sudoku(), (task) -> {
+      throw new RejectedExecutionException("full");
+    });
+    List<BatchResult> results = new ArrayList<>();
+
+    // act
+    BatchReport report = solver.solve(Stream.of(SudokuTestSupport.HARD, SudokuTestSupport.HARD), false, results::add);
+
+    // assert
+    assertThat(results).hasSize(2);
+    assertThat(report.getFailureCount()).isEqualTo(2);
+    assertThat(results.get(0).getError()).contains("full");
+  }
+
+  /** Test of {@link BatchSolver#parse(String, int)} and {@link BatchSolver#format(int[])}. */
+  @Test
+  void testParseAndFormat() {
+
+    // arrange
+    String puzzle = "1.02";
+
+    // act
+    int[] values = BatchSolver.parse(puzzle, 2);
+    String formatted = BatchSolver.format(new int[] { 1, 0, 10, 35 });
+
+    // assert
+    assertThat(values).containsExactly(1, 0, 0, 2);
+    assertThat(formatted).isEqualTo("1.az");
+    assertThat(BatchSolver.format(BatchSolver.parse(SudokuTestSupport.HARD, 9)))
+        .isEqualTo(SudokuTestSupport.HARD.replace('0', '.'));
+    assertThatThrownBy(() -> BatchSolver.parse("1.0g", 2)).hasMessageContaining("Illegal character 'g' at index 3");
+    assertThatThrownBy(() -> BatchSolver.parse("1.0", 2)).hasMessageContaining("Expected 4 characters");
+    assertThatThrownBy(() -> BatchSolver.parse("", 36)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> BatchSolver.format(new int[] { 36 })).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
@@ -0,0 +1,64 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.batch;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of {@link LatencyHistogram}.
+ */
+class LatencyHistogramTest extends Assertions {
+
+  /** Test of {@link LatencyHistogram#getValue(double)} for small values that are recorded exactly. */
+  @Test
+  void testExact() {
+
+    // arrange
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // act
+    for (long nanos = 1; nanos <= 20; nanos++) {
+      histogram.record(nanos);
+    }
+
+    // assert
+    assertThat(histogram.getCount()).isEqualTo(20);
+    assertThat(histogram.getValue(50)).isEqualTo(10);
+    assertThat(histogram.getValue(100)).isEqualTo(20);
+    assertThat(histogram.getValue(0)).isEqualTo(1);
+  }
+
+  /** Test of {@link LatencyHistogram#getValue(double)} for large values with bounded relative error. */
+  @Test
+  void testRelativeError() {
+
+    // arrange
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] values = { 1_000, 33_333, 1_234_567, 987_654_321, 12_345_678_901L, Long.MAX_VALUE };
+
+    for (long value : values) {
+      // act
+      histogram.record(value);
+      long percentile = histogram.getValue(100);
+
+      // assert
+      assertThat(percentile).isGreaterThanOrEqualTo(value);
+      assertThat(percentile - value).isLessThanOrEqualTo(value / 32);
+    }
+    assertThat(histogram.getValue(50)).isBetween(1_234_567L, 1_234_567L + 1_234_567L / 32);
+  }
+
+  /** Test of {@link LatencyHistogram} without any recorded value. */
+  @Test
+  void testEmpty() {
+
+    // arrange
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    // act + assert
+    assertThat(histogram.getCount()).isZero();
+    assertThat(histogram.getValue(99)).isZero();
+  }
+
+}
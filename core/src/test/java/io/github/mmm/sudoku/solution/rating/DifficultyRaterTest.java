@@ -0,0 +1,95 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.rating;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.common.Difficulty;
+
+/**
+ * Test of {@link DifficultyRater}.
+ */
+class DifficultyRaterTest extends Assertions {
+
+  private static final String EASY = "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+
+  private static final String LOGICAL = "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......";
+
+  /** Test of {@link DifficultyRater#rate(Sudoku)} for a puzzle that can be solved logically. */
+  @Test
+  void testRateLogical() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), EASY);
+    DifficultyRater rater = new DifficultyRater();
+
+    // act
+    DifficultyRating rating = rater.rate(sudoku);
+
+    // assert
+    assertThat(rating.isSolvedLogically()).isTrue();
+    assertThat(rating.getStepCount()).isGreaterThan(10);
+    assertThat(rating.getWeightedSum()).isGreaterThanOrEqualTo(rating.getStepCount());
+    assertThat(rating.getScore()).isGreaterThanOrEqualTo(rating.getHardestStep());
+    assertThat(rating.getDifficulty()).isEqualTo(Difficulty.ofScore(rating.getScore()));
+    assertThat(rating.getDifficulty().getScore()).isLessThan(Difficulty.EXTREME.getScore());
+    assertThat(sudoku.getField(3).hasValue()).as("not modified").isFalse();
+  }
+
+  /** Test of {@link DifficultyRater#rate(Sudoku)} for a puzzle where the strategies get stuck. */
+  @Test
+  void testRateGuessing() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+
+    // act
+    DifficultyRating rating = new DifficultyRater().rate(sudoku);
+
+    // assert
+    assertThat(rating.isSolvedLogically()).isFalse();
+    assertThat(rating.getGuessDepth()).isPositive();
+    assertThat(rating.getDifficulty()).isEqualTo(Difficulty.EXTREME);
+  }
+
+  /** Test of {@link DifficultyRater#rate(Sudoku, List, java.util.concurrent.Executor)}. */
+  @Test
+  void testRateBatch() {
+
+    // arrange
+    List<String> puzzles = List.of(EASY, SudokuTestSupport.HARD, LOGICAL, EASY, LOGICAL, SudokuTestSupport.HARD);
+    DifficultyRater rater = new DifficultyRater();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      // act
+      List<DifficultyRating> ratings = rater.rate(new Sudoku(), puzzles, executor);
+
+      // assert
+      assertThat(ratings).hasSize(puzzles.size());
+      for (int i = 0; i < puzzles.size(); i++) {
+        DifficultyRating expected = rater.rate(SudokuTestSupport.given(new Sudoku(), puzzles.get(i)));
+        assertThat(ratings.get(i)).as(puzzles.get(i)).hasToString(expected.toString());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Test of {@link Difficulty#ofScore(double)}. */
+  @Test
+  void testOfScore() {
+
+    assertThat(Difficulty.ofScore(0)).isEqualTo(Difficulty.VERY_EASY);
+    assertThat(Difficulty.ofScore(5)).isEqualTo(Difficulty.EASY);
+    assertThat(Difficulty.ofScore(44.9)).isEqualTo(Difficulty.TRICKY);
+    assertThat(Difficulty.ofScore(100)).isEqualTo(Difficulty.EXTREME);
+  }
+
+}
@@ -0,0 +1,107 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.search;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Test of {@link DancingLinks}.
+ */
+class DancingLinksTest extends Assertions {
+
+  private static String solution(DancingLinks dlx) {
+
+    int cellCount = dlx.getTopology().getCellCount();
+    StringBuilder sb = new StringBuilder(cellCount);
+    for (int cell = 0; cell < cellCount; cell++) {
+      sb.append(Character.forDigit(dlx.getSolution(cell), 36));
+    }
+    return sb.toString();
+  }
+
+  @Test
+  void testSolveHard() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    DancingLinks dlx = new DancingLinks(Topology.of(sudoku));
+    // act
+    boolean loaded = dlx.load(sudoku);
+    boolean unique = dlx.isUnique();
+    // assert
+    assertThat(loaded).isTrue();
+    assertThat(unique).isTrue();
+    assertThat(solution(dlx)).isEqualTo(SudokuTestSupport.HARD_SOLUTION);
+  }
+
+  @Test
+  void testSolveHyperSameAsSearch() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(Sudoku.builder().withBoxes().with9x9().withHyper().build(),
+        SudokuTestSupport.HYPER);
+    Topology topology = Topology.of(sudoku);
+    DancingLinks dlx = new DancingLinks(topology);
+    SudokuSearch search = new SudokuSearch(topology);
+    search.load(sudoku);
+    search.solve();
+    // act
+    dlx.load(sudoku);
+    boolean solved = dlx.solve();
+    // assert
+    assertThat(solved).isTrue();
+    for (int cell = 0; cell < topology.getCellCount(); cell++) {
+      assertThat(dlx.getSolution(cell)).isEqualTo(search.getSolution(cell));
+    }
+  }
+
+  @Test
+  void testCountEmpty4x4() {
+
+    // arrange
+    Sudoku sudoku = Sudoku.builder().withBoxes().with4x4().build();
+    DancingLinks dlx = new DancingLinks(Topology.of(sudoku));
+    // act
+    dlx.load(sudoku);
+    int count = dlx.count(1000);
+    // assert
+    assertThat(count).isEqualTo(288);
+  }
+
+  @Test
+  void testCountWithLimitAndReload() {
+
+    // arrange
+    Sudoku empty = new Sudoku();
+    Sudoku hard = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    DancingLinks dlx = new DancingLinks(Topology.of(empty));
+    // act
+    dlx.load(empty);
+    int countEmpty = dlx.count(5);
+    boolean uniqueEmpty = dlx.isUnique();
+    dlx.load(hard);
+    int countHard = dlx.count(5);
+    // assert
+    assertThat(countEmpty).isEqualTo(5);
+    assertThat(uniqueEmpty).isFalse();
+    assertThat(countHard).isEqualTo(1);
+  }
+
+  @Test
+  void testLoadInconsistent() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), "1.......1");
+    DancingLinks dlx = new DancingLinks(Topology.of(sudoku));
+    // act
+    boolean loaded = dlx.load(sudoku);
+    // assert
+    assertThat(loaded).isFalse();
+  }
+
+}
@@ -0,0 +1,51 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.search;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.partitioning.Topology;
+import io.github.mmm.sudoku.solution.SudokuSolver;
+
+/**
+ * Test of {@link ParallelSudokuSearch}.
+ */
+class ParallelSudokuSearchTest extends Assertions {
+
+  @Test
+  void testSolveHard() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    // act
+    boolean solved = SudokuSolver.get().solve(sudoku, false, pool);
+    // assert
+    assertThat(solved).isTrue();
+    assertThat(SudokuTestSupport.solution(sudoku)).isEqualTo(SudokuTestSupport.HARD_SOLUTION);
+    pool.shutdown();
+  }
+
+  @Test
+  void testCount() {
+
+    // arrange
+    Sudoku empty4x4 = Sudoku.builder().withBoxes().with4x4().build();
+    Sudoku empty9x9 = new Sudoku();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ParallelSudokuSearch search = new ParallelSudokuSearch(Topology.of(empty4x4), pool);
+    // act
+    int count4x4 = search.count(empty4x4, 1000);
+    int count9x9 = SudokuSolver.get().countSolutions(empty9x9, 2, pool);
+    // assert
+    assertThat(count4x4).isEqualTo(288);
+    assertThat(count9x9).isEqualTo(2);
+    pool.shutdown();
+  }
+
+}
@@ -0,0 +1,115 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.sudoku.solution.search;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.SudokuTestSupport;
+import io.github.mmm.sudoku.partitioning.Topology;
+
+/**
+ * Test of {@link SudokuSearch}.
+ */
+class SudokuSearchTest extends Assertions {
+
+  @Test
+  void testSolveHardWithStatistics() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    SudokuSearch search = new SudokuSearch(Topology.of(sudoku));
+    search.load(sudoku);
+    // act
+    int count = search.count(2);
+    // assert
+    assertThat(count).isEqualTo(1);
+    assertThat(search.getNodeCount()).isGreaterThan(1).isLessThan(2000);
+    assertThat(search.getBacktrackCount()).isLessThan(search.getNodeCount());
+    StringBuilder sb = new StringBuilder();
+    for (int cell = 0; cell < 81; cell++) {
+      sb.append(search.getSolution(cell));
+    }
+    assertThat(sb.toString()).isEqualTo(SudokuTestSupport.HARD_SOLUTION);
+    assertThat(search.getValue(0)).isEqualTo(8);
+    assertThat(search.getValue(1)).as("state restored after search").isEqualTo(0);
+  }
+
+  @Test
+  void testCountEmpty4x4() {
+
+    // arrange
+    Sudoku sudoku = Sudoku.builder().withBoxes().with4x4().build();
+    SudokuSearch search = new SudokuSearch(Topology.of(sudoku));
+    search.load(sudoku);
+    // act
+    int count = search.count(1000);
+    // assert
+    assertThat(count).isEqualTo(288);
+  }
+
+  @Test
+  void testSaveAndLoad() {
+
+    // arrange
+    Sudoku sudoku = SudokuTestSupport.given(new Sudoku(), SudokuTestSupport.HARD);
+    Topology topology = Topology.of(sudoku);
+    SudokuSearch search = new SudokuSearch(topology);
+    search.load(sudoku);
+    search.propagate();
+    int[] values = new int[81];
+    long[] masks = new long[81];
+    search.save(values, masks);
+    SudokuSearch other = new SudokuSearch(topology);
+    // act
+    other.load(values, masks);
+    int count = other.count(2);
+    // assert
+    assertThat(count).isEqualTo(1);
+    assertThat(other.getSolution(80)).isEqualTo(SudokuTestSupport.HARD_SOLUTION.charAt(80) - '0');
+    for (int cell = 0; cell < 81; cell++) {
+      assertThat(other.getCandidates(cell)).isEqualTo(search.getCandidates(cell));
+    }
+  }
+
+  @Test
+  void testCountWithUnits4x4() {
+
+    // arrange
+    Sudoku sudoku = Sudoku.builder().withBoxes().with4x4().build();
+    int[][] rows = { { 0, 1, 2, 3 }, { 4, 5, 6, 7 }, { 8, 9, 10, 11 }, { 12, 13, 14, 15 } };
+    // replacing the boxes with the rows leaves the constraints of a latin square
+    Topology topology = Topology.of(sudoku).withUnits(3, rows);
+    SudokuSearch search = new SudokuSearch(topology);
+    // act
+    int count = search.count(1000);
+    // assert
+    assertThat(count).isEqualTo(576);
+    assertThat(topology.getShape(topology.getFirstUnit(3))).isNull();
+    assertThatThrownBy(() -> topology.withUnits(3, new int[][] { rows[0] }))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testPropagateSums() {
+
+    // arrange
+    Sudoku sudoku = Sudoku.builder().withBoxes().with4x4().build();
+    Topology topology = Topology.of(sudoku).withSums(new int[][] { { 0, 1 }, { 4, 8 } }, new int[] { 3, 7 });
+    SudokuSearch search = new SudokuSearch(topology);
+    // act
+    boolean consistent = search.propagate();
+    // assert
+    assertThat(consistent).isTrue();
+    assertThat(search.getCandidates(0)).isEqualTo(0b0011);
+    assertThat(search.getCandidates(1)).isEqualTo(0b0011);
+    assertThat(search.getCandidates(4)).isEqualTo(0b1100);
+    assertThat(search.getCandidates(8)).isEqualTo(0b1100);
+    assertThat(search.assign(0, 1) && search.propagate()).isTrue();
+    assertThat(search.getValue(1)).isEqualTo(2);
+    assertThat(search.assign(4, 3) && search.propagate()).isTrue();
+    assertThat(search.getValue(8)).isEqualTo(4);
+  }
+
+}
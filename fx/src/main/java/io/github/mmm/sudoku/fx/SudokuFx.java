@@ -2,7 +2,10 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.sudoku.fx;
 
+import java.util.SplittableRandom;
+
 import io.github.mmm.sudoku.Sudoku;
+import io.github.mmm.sudoku.generator.SudokuGenerator;
 import io.github.mmm.sudoku.solution.SudokuSolver;
 import javafx.application.Application;
 import javafx.scene.Scene;
@@ -40,71 +43,11 @@ public class SudokuFx extends Application {
 
   private static Sudoku generateSudoku() {
 
-    Sudoku sudoku = generateHyperSudoku();
-    sudoku.setSpecified();
+    Sudoku variant = Sudoku.builder().withBoxes().with9x9().withHyper().build();
+    Sudoku sudoku = new SudokuGenerator(variant).generateSudoku(new SplittableRandom());
     boolean fillValues = false;
     SudokuSolver.get().solve(sudoku, fillValues);
     return sudoku;
   }
 
-  private static Sudoku generateXSudoku() {
-
-    Sudoku sudoku = Sudoku.builder().withBoxes().with9x9().withX().build();
-    // TODO implement puzzle generator
-    sudoku.setFieldGivenValue(2, 1, 7);
-    sudoku.setFieldGivenValue(3, 1, 2);
-    sudoku.setFieldGivenValue(4, 1, 4);
-    sudoku.setFieldGivenValue(5, 1, 9);
-    sudoku.setFieldGivenValue(7, 1, 5);
-    sudoku.setFieldGivenValue(2, 2, 9);
-    sudoku.setFieldGivenValue(7, 2, 2);
-    sudoku.setFieldGivenValue(4, 3, 3);
-    sudoku.setFieldGivenValue(8, 3, 1);
-    sudoku.setFieldGivenValue(2, 4, 4);
-    sudoku.setFieldGivenValue(9, 4, 1);
-    sudoku.setFieldGivenValue(2, 5, 1);
-    sudoku.setFieldGivenValue(3, 5, 3);
-    sudoku.setFieldGivenValue(7, 5, 8);
-    sudoku.setFieldGivenValue(8, 5, 5);
-    sudoku.setFieldGivenValue(1, 6, 8);
-    sudoku.setFieldGivenValue(8, 6, 2);
-    sudoku.setFieldGivenValue(2, 7, 3);
-    sudoku.setFieldGivenValue(6, 7, 4);
-    sudoku.setFieldGivenValue(3, 8, 4);
-    sudoku.setFieldGivenValue(8, 8, 6);
-    sudoku.setFieldGivenValue(3, 9, 1);
-    sudoku.setFieldGivenValue(5, 9, 2);
-    sudoku.setFieldGivenValue(6, 9, 6);
-    sudoku.setFieldGivenValue(7, 9, 3);
-    sudoku.setFieldGivenValue(8, 9, 4);
-    return sudoku;
-  }
-
-  private static Sudoku generateHyperSudoku() {
-
-    Sudoku sudoku = Sudoku.builder().withBoxes().with9x9().withHyper().build();
-    // TODO implement puzzle generator
-    sudoku.setFieldGivenValue(2, 1, 7);
-    sudoku.setFieldGivenValue(4, 1, 9);
-    sudoku.setFieldGivenValue(4, 2, 1);
-    sudoku.setFieldGivenValue(7, 2, 6);
-    sudoku.setFieldGivenValue(1, 3, 5);
-    sudoku.setFieldGivenValue(2, 3, 2);
-    sudoku.setFieldGivenValue(4, 4, 5);
-    sudoku.setFieldGivenValue(5, 4, 4);
-    sudoku.setFieldGivenValue(2, 5, 1);
-    sudoku.setFieldGivenValue(3, 5, 3);
-    sudoku.setFieldGivenValue(7, 5, 7);
-    sudoku.setFieldGivenValue(8, 5, 5);
-    sudoku.setFieldGivenValue(5, 6, 2);
-    sudoku.setFieldGivenValue(6, 6, 3);
-    sudoku.setFieldGivenValue(8, 7, 6);
-    sudoku.setFieldGivenValue(9, 7, 4);
-    sudoku.setFieldGivenValue(3, 8, 1);
-    sudoku.setFieldGivenValue(6, 8, 7);
-    sudoku.setFieldGivenValue(6, 9, 8);
-    sudoku.setFieldGivenValue(8, 9, 9);
-    return sudoku;
-  }
-
 }